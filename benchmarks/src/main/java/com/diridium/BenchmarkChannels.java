@@ -0,0 +1,146 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Channel XML for the benchmarks, scaled up from channel-for-diffing-version1.xml
+ * by repeating its destinations, each with a transformer of JavaScript steps.
+ */
+final class BenchmarkChannels {
+
+    static final String SMALL = "small";
+    static final String MEDIUM = "medium";
+    static final String LARGE = "large";
+
+    private static final int STEPS_PER_TRANSFORMER = 5;
+
+    private BenchmarkChannels() {
+    }
+
+    /**
+     * Copies of each of the two fixture destinations: small is the fixture as is,
+     * large is several tens of thousands of lines.
+     */
+    static int destinationCopies(String size) {
+        switch (size) {
+            case SMALL:
+                return 1;
+            case MEDIUM:
+                return 20;
+            case LARGE:
+                return 200;
+            default:
+                throw new IllegalArgumentException("unknown size " + size);
+        }
+    }
+
+    static String channel(String size) {
+        return scale(destinationCopies(size), false);
+    }
+
+    /**
+     * The same channel as {@link #channel} with the script of every seventh step
+     * changed and the steps of every tenth destination in reverse order.
+     */
+    static String modifiedChannel(String size) {
+        return scale(destinationCopies(size), true);
+    }
+
+    private static String scale(int copies, boolean modified) {
+        try {
+            Document document;
+            try (InputStream is = BenchmarkChannels.class.getResourceAsStream("/channel-for-diffing-version1.xml")) {
+                document = XmlProcessors.documentBuilder().parse(is);
+            }
+
+            Element destinations = (Element) document.getElementsByTagName("destinationConnectors").item(0);
+            List<Element> originals = childElements(destinations, "connector");
+            for (Element original : originals) {
+                destinations.removeChild(original);
+            }
+
+            int metaDataId = 1;
+            int stepNumber = 0;
+            for (int copy = 0; copy < copies; copy++) {
+                for (Element original : originals) {
+                    Element connector = (Element) original.cloneNode(true);
+                    setChildText(connector, "metaDataId", String.valueOf(metaDataId));
+                    setChildText(connector, "name", "Destination " + metaDataId);
+
+                    Element elements = childElements(childElements(connector, "transformer").get(0), "elements").get(0);
+                    List<Element> steps = new ArrayList<>();
+                    for (int i = 0; i < STEPS_PER_TRANSFORMER; i++) {
+                        String script = "var value" + i + " = msg['PID']['PID.5']['PID.5.1'].toString();\n"
+                                + "channelMap.put('destination" + metaDataId + "Step" + i + "', value" + i + ");";
+                        if (modified && ++stepNumber % 7 == 0) {
+                            script += "\nlogger.info('changed');";
+                        }
+                        steps.add(step(document, i, script));
+                    }
+                    if (modified && metaDataId % 10 == 0) {
+                        Collections.reverse(steps);
+                    }
+                    for (Element step : steps) {
+                        elements.appendChild(step);
+                    }
+
+                    destinations.appendChild(connector);
+                    metaDataId++;
+                }
+            }
+
+            StringWriter writer = new StringWriter();
+            XmlProcessors.transformer().transform(new DOMSource(document), new StreamResult(writer));
+            return writer.toString();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Element step(Document document, int sequenceNumber, String script) {
+        Element step = document.createElement("com.mirth.connect.plugins.javascriptstep.JavaScriptStep");
+        step.setAttribute("version", "3.9.1");
+        appendText(step, "name", "Step " + sequenceNumber);
+        appendText(step, "sequenceNumber", String.valueOf(sequenceNumber));
+        appendText(step, "enabled", "true");
+        appendText(step, "script", script);
+        return step;
+    }
+
+    private static void appendText(Element parent, String name, String text) {
+        Element child = parent.getOwnerDocument().createElement(name);
+        child.setTextContent(text);
+        parent.appendChild(child);
+    }
+
+    private static void setChildText(Element parent, String name, String text) {
+        childElements(parent, name).get(0).setTextContent(text);
+    }
+
+    private static List<Element> childElements(Element parent, String name) {
+        List<Element> children = new ArrayList<>();
+        NodeList nodes = parent.getChildNodes();
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Node node = nodes.item(i);
+            if (node.getNodeType() == Node.ELEMENT_NODE && name.equals(node.getNodeName())) {
+                children.add((Element) node);
+            }
+        }
+        return children;
+    }
+}
@@ -0,0 +1,64 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building the component tree of a diff, which finds the changed components and
+ * the transformers whose steps were only reordered.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ComponentTreeBenchmark {
+
+    @Param({ BenchmarkChannels.SMALL, BenchmarkChannels.MEDIUM, BenchmarkChannels.LARGE })
+    public String size;
+
+    private ChannelXmlDecomposer.DecomposeResult left;
+    private ChannelXmlDecomposer.DecomposeResult right;
+
+    @Setup
+    public void setUp() throws Exception {
+        left = ChannelXmlDecomposer.decomposeWithNames(BenchmarkChannels.channel(size));
+        right = ChannelXmlDecomposer.decomposeWithNames(BenchmarkChannels.modifiedChannel(size));
+    }
+
+    @Benchmark
+    public ComponentTreePanel buildTree() {
+        return new ComponentTreePanel(copy(left.getComponents()), copy(right.getComponents()),
+                left.getGroupDisplayNames(), right.getGroupDisplayNames());
+    }
+
+    /**
+     * Components remember their content hashes, so every tree gets fresh ones
+     * the way a newly opened diff does.
+     */
+    private static Map<String, DecomposedComponent> copy(Map<String, DecomposedComponent> components) {
+        Map<String, DecomposedComponent> copy = new LinkedHashMap<>();
+        for (DecomposedComponent c : components.values()) {
+            copy.put(c.getKey(), new DecomposedComponent(c.getKey(), c.getDisplayName(), c.getContent(),
+                    c.getCategory(), c.getParentGroup()));
+        }
+        return copy;
+    }
+}
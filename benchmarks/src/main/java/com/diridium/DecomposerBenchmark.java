@@ -0,0 +1,45 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Splitting channel XML into components, as done for every revision shown in a diff.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecomposerBenchmark {
+
+    @Param({ BenchmarkChannels.SMALL, BenchmarkChannels.MEDIUM, BenchmarkChannels.LARGE })
+    public String size;
+
+    private String channelXml;
+
+    @Setup
+    public void setUp() {
+        channelXml = BenchmarkChannels.channel(size);
+    }
+
+    @Benchmark
+    public ChannelXmlDecomposer.DecomposeResult decomposeWithNames() throws Exception {
+        return ChannelXmlDecomposer.decomposeWithNames(channelXml);
+    }
+}
@@ -0,0 +1,73 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The side-by-side diff of two channel revisions: aligning the lines, building
+ * the documents the panel shows, and the word highlights of a changed line pair.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class DiffBenchmark {
+
+    @Param({ BenchmarkChannels.SMALL, BenchmarkChannels.MEDIUM, BenchmarkChannels.LARGE })
+    public String size;
+
+    private String left;
+    private String right;
+    private String oldLine;
+    private String newLine;
+
+    @Setup
+    public void setUp() {
+        left = BenchmarkChannels.channel(size);
+        right = BenchmarkChannels.modifiedChannel(size);
+
+        // a long script line with a few words changed
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            sb.append("channelMap.put('key").append(i).append("', msg['PID']['PID.").append(i).append("'].toString()); ");
+        }
+        oldLine = sb.toString();
+        newLine = oldLine.replace("key50'", "renamed50'").replace("PID.150", "PV1.150");
+    }
+
+    @Benchmark
+    public DiffLineModel lineDiff() {
+        return DiffLineModel.diff(left, right);
+    }
+
+    @Benchmark
+    public SimpleDiffPanel.Prepared prepareDiff() {
+        return SimpleDiffPanel.prepare(left, right);
+    }
+
+    @Benchmark
+    public SimpleDiffPanel.Prepared prepareCollapsedDiff() {
+        return SimpleDiffPanel.prepareCollapsed(left, right, SimpleDiffPanel.DEFAULT_CONTEXT_LINES);
+    }
+
+    @Benchmark
+    public InlineDiff.Highlights inlineDiff() {
+        return InlineDiff.compute(oldLine, newLine);
+    }
+}
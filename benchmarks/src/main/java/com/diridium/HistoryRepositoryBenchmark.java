@@ -0,0 +1,104 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Storing and listing channel history in an in-memory Derby database, with
+ * revisions from {@link ChannelFixtureGenerator}. Inserts keep adding revisions
+ * to the same channel, so its history grows by the number of inserts during the run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HistoryRepositoryBenchmark {
+
+    // distinct revisions inserted in turn, each differs from the one before it
+    private static final int GENERATED_REVISIONS = 200;
+
+    // revisions stored before measuring
+    @Param({ "100", "1000" })
+    public int revisions;
+
+    @Param({ "NONE", "GZIP" })
+    public String compression;
+
+    private EmbeddedHistoryDatabase database;
+    private DatabaseHistoryRepository repository;
+    private String channelId;
+    private List<String> contents;
+    private int revision;
+    private String latestId;
+    private String oldestId;
+
+    @Setup
+    public void setUp() {
+        ChannelFixtureGenerator generator = new ChannelFixtureGenerator(1).destinations(10);
+        channelId = generator.getChannelId();
+        contents = generator.revisions(GENERATED_REVISIONS);
+
+        Properties properties = new Properties();
+        properties.setProperty(HistorySettings.COMPRESSION, compression);
+        database = new EmbeddedHistoryDatabase();
+        repository = database.createRepository(new HistorySettings(properties));
+        for (int i = 0; i < revisions; i++) {
+            insert();
+        }
+
+        List<RevisionInfo> history = repository.getChannelHistory(channelId);
+        latestId = history.get(0).getHash();
+        oldestId = history.get(history.size() - 1).getHash();
+    }
+
+    @TearDown
+    public void tearDown() {
+        repository.shutdown();
+        database.close();
+    }
+
+    @Benchmark
+    public void insert() {
+        revision++;
+        repository.saveChannelContent(channelId, revision, 1, contents.get(revision % GENERATED_REVISIONS));
+    }
+
+    @Benchmark
+    public List<RevisionInfo> listAll() {
+        return repository.getChannelHistory(channelId);
+    }
+
+    @Benchmark
+    public List<RevisionInfo> listFirstPage() {
+        return repository.getChannelHistoryPage(channelId, null, 50);
+    }
+
+    @Benchmark
+    public String contentLatest() {
+        return repository.getChannelContent(channelId, latestId);
+    }
+
+    @Benchmark
+    public String contentOldest() {
+        return repository.getChannelContent(channelId, oldestId);
+    }
+}
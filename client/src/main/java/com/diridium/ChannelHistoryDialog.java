@@ -12,9 +12,12 @@ import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
 import javax.swing.AbstractAction;
 import javax.swing.ImageIcon;
@@ -30,7 +33,6 @@ import javax.swing.JPopupMenu;
 import javax.swing.JScrollPane;
 import javax.swing.KeyStroke;
 import javax.swing.ListSelectionModel;
-import javax.swing.SwingUtilities;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,6 +55,24 @@ public class ChannelHistoryDialog extends JDialog {
     private ChannelHistoryServletInterface servlet;
     private JButton btnShowDiff;
     private JButton btnRevert;
+    private TaskProgressPanel progressPanel;
+
+    /**
+     * Everything needed to open a diff window, loaded in the background.
+     * Either the server diff or the revision XML (decomposed where possible) is set.
+     */
+    private static class DiffData {
+        ChannelDiff serverDiff;
+        String leftXml;
+        String rightXml;
+        ChannelXmlDecomposer.DecomposeResult leftResult;
+        ChannelXmlDecomposer.DecomposeResult rightResult;
+    }
+
+    private static class RevisionXml {
+        String xml;
+        ChannelXmlDecomposer.DecomposeResult decomposed;
+    }
 
     public ChannelHistoryDialog(JFrame parent, String channelId, String channelName) {
         super(parent, "Version History - " + channelName, true);
@@ -128,7 +148,8 @@ public class ChannelHistoryDialog extends JDialog {
                     // Enable prune if a single row is selected and there are older revisions to delete
                     int selectedRow = tblRevisions.getSelectedRow();
                     int totalRows = tblRevisions.getRowCount();
-                    boolean hasOlderRevisions = selectedRow < totalRows - 1;
+                    boolean hasOlderRevisions = selectedRow < totalRows - 1
+                            || (tblRevisions.getModel() instanceof RevisionInfoTableModel && ((RevisionInfoTableModel) tblRevisions.getModel()).hasMore());
                     menuPrune.setEnabled(tblRevisions.getSelectedRowCount() == 1 && hasOlderRevisions);
                     popupMenu.show(e.getComponent(), e.getX(), e.getY());
                 }
@@ -136,6 +157,7 @@ public class ChannelHistoryDialog extends JDialog {
         });
 
         JScrollPane scrollPane = new JScrollPane(tblRevisions);
+        tblRevisions.installPageLoading(scrollPane, e -> PlatformUI.MIRTH_FRAME.alertThrowable(PlatformUI.MIRTH_FRAME, e));
         add(scrollPane, BorderLayout.CENTER);
 
         // Bottom panel with help and buttons
@@ -163,6 +185,9 @@ public class ChannelHistoryDialog extends JDialog {
         helpPanel.add(helpLabel);
         bottomPanel.add(helpPanel, BorderLayout.WEST);
 
+        progressPanel = new TaskProgressPanel();
+        bottomPanel.add(progressPanel, BorderLayout.CENTER);
+
         // Button panel
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
 
@@ -192,22 +217,27 @@ public class ChannelHistoryDialog extends JDialog {
     }
 
     private void loadHistory() {
-        SwingUtilities.invokeLater(() -> {
-            try {
-                if (servlet == null) {
-                    servlet = PlatformUI.MIRTH_FRAME.mirthClient.getServlet(ChannelHistoryServletInterface.class);
-                }
-
-                List<RevisionInfo> revisions = servlet.getHistory(channelId);
-                RevisionInfoTableModel model = new RevisionInfoTableModel(revisions);
-                tblRevisions.setModel(model);
-                updateButtonStates();
-                toFront();
-                requestFocus();
-            } catch (Exception e) {
-                PlatformUI.MIRTH_FRAME.alertThrowable(PlatformUI.MIRTH_FRAME, e);
+        try {
+            if (servlet == null) {
+                servlet = PlatformUI.MIRTH_FRAME.mirthClient.getServlet(ChannelHistoryServletInterface.class);
             }
-        });
+        } catch (Exception e) {
+            showError(e);
+            return;
+        }
+
+        RevisionInfoTableModel model = new RevisionInfoTableModel(
+                (beforeId, limit) -> servlet.getHistoryPage(channelId, beforeId, limit),
+                RevisionInfoTableModel.DEFAULT_PAGE_SIZE);
+        progressPanel.run("Loading history...", true,
+                () -> servlet.getHistoryPage(channelId, null, RevisionInfoTableModel.DEFAULT_PAGE_SIZE),
+                page -> {
+                    model.appendPage(page);
+                    tblRevisions.setModel(model);
+                    updateButtonStates();
+                    toFront();
+                    requestFocus();
+                }, this::showError);
     }
 
     private void showDiff() {
@@ -222,34 +252,123 @@ public class ChannelHistoryDialog extends JDialog {
         RevisionInfo older = model.getRevisionAt(rows[1]);
         RevisionInfo newer = model.getRevisionAt(rows[0]);
 
+        progressPanel.run("Comparing " + older.getShortHash() + " with " + newer.getShortHash() + "...", true,
+                () -> loadDiff(older, newer),
+                data -> showDiffWindow(data, older, newer),
+                this::showError);
+    }
+
+    /**
+     * Runs in the background. Prefers the server-side diff and otherwise fetches
+     * both revisions in one request and decomposes them concurrently.
+     */
+    private DiffData loadDiff(RevisionInfo older, RevisionInfo newer) throws Exception {
+        DiffData data = new DiffData();
         try {
-            String left = servlet.getContent(channelId, older.getHash());
-            String right = servlet.getContent(channelId, newer.getHash());
-
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm");
-            String leftLabel = String.format("Old - %s (user: %s, time: %s)", older.getShortHash(), older.getCommitterName(), sdf.format(new Date(older.getTime())));
-            String rightLabel = String.format("New - %s (user: %s, time: %s)", newer.getShortHash(), newer.getCommitterName(), sdf.format(new Date(newer.getTime())));
-
-            try {
-                ChannelXmlDecomposer.DecomposeResult leftResult = ChannelXmlDecomposer.decomposeWithNames(left);
-                ChannelXmlDecomposer.DecomposeResult rightResult = ChannelXmlDecomposer.decomposeWithNames(right);
-                DecomposedDiffWindow dw = DecomposedDiffWindow.create(this, "Channel Diff - " + channelName,
-                        leftLabel, rightLabel, leftResult, rightResult, left, right);
-                dw.setSize(PlatformUI.MIRTH_FRAME.getWidth() - 10, PlatformUI.MIRTH_FRAME.getHeight() - 10);
-                dw.setVisible(true);
-            } catch (Exception decompositionEx) {
-                // Fallback to original monolithic DiffWindow — log so failures aren't invisible
-                log.warn("Channel decomposition failed, falling back to raw diff: {}", decompositionEx.getMessage(), decompositionEx);
-                DiffWindow dw = DiffWindow.create(this, "Channel Diff - " + channelName, leftLabel, rightLabel, left, right);
-                dw.setSize(PlatformUI.MIRTH_FRAME.getWidth() - 10, PlatformUI.MIRTH_FRAME.getHeight() - 10);
-                dw.setVisible(true);
+            // Let the server decompose and diff so only changed components are transferred
+            data.serverDiff = servlet.getChannelDiff(channelId, older.getHash(), newer.getHash());
+            return data;
+        } catch (Exception serverDiffEx) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw serverDiffEx;
             }
+            log.warn("Server-side channel diff failed, diffing locally: {}", serverDiffEx.getMessage(), serverDiffEx);
+        }
+
+        // one request for both revisions, then decompose them concurrently
+        Map<String, String> contents = getContents(List.of(older, newer));
+        List<RevisionXml> revisions = TaskProgressPanel.invokeAll(List.<Callable<RevisionXml>>of(
+                () -> decomposeRevision(older, contents.get(older.getHash())),
+                () -> decomposeRevision(newer, contents.get(newer.getHash()))));
+        data.leftXml = revisions.get(0).xml;
+        data.rightXml = revisions.get(1).xml;
+        data.leftResult = revisions.get(0).decomposed;
+        data.rightResult = revisions.get(1).decomposed;
+        return data;
+    }
+
+    private RevisionXml decomposeRevision(RevisionInfo revision, String xml) {
+        RevisionXml result = new RevisionXml();
+        result.xml = xml;
+        try {
+            result.decomposed = RevisionContentCache.getInstance().getDecomposed(
+                    RevisionContentCache.CHANNEL, revision.getHash(), result.xml);
+        } catch (Exception decompositionEx) {
+            // Fallback to original monolithic DiffWindow — log so failures aren't invisible
+            log.warn("Channel decomposition failed, falling back to raw diff: {}", decompositionEx.getMessage(), decompositionEx);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the XML of the revisions keyed by id, fetching the uncached ones in
+     * one request.
+     */
+    private Map<String, String> getContents(List<RevisionInfo> revisions) throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (RevisionInfo revision : revisions) {
+            ids.add(revision.getHash());
+        }
+        Map<String, String> contents = RevisionContentCache.getInstance().getContents(RevisionContentCache.CHANNEL,
+                ids, missing -> StreamedContent.readContents(servlet.getContents(channelId, missing, true)));
+        for (RevisionInfo revision : revisions) {
+            if (!contents.containsKey(revision.getHash())) {
+                throw new IllegalStateException("Revision " + revision.getShortHash() + " no longer exists");
+            }
+        }
+        return contents;
+    }
+
+    /**
+     * Loads the full XML a server-computed diff asks for, from the cache or both
+     * sides in one request.
+     */
+    private String[] loadRawXml(RevisionInfo older, RevisionInfo newer, boolean left, boolean right) throws Exception {
+        List<RevisionInfo> revisions = new ArrayList<>();
+        if (left) {
+            revisions.add(older);
+        }
+        if (right) {
+            revisions.add(newer);
+        }
+        Map<String, String> contents = getContents(revisions);
+        return new String[] {
+                left ? contents.get(older.getHash()) : null,
+                right ? contents.get(newer.getHash()) : null };
+    }
+
+    private void showDiffWindow(DiffData data, RevisionInfo older, RevisionInfo newer) {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+        String leftLabel = String.format("Old - %s (user: %s, time: %s)", older.getShortHash(), older.getCommitterName(), sdf.format(new Date(older.getTime())));
+        String rightLabel = String.format("New - %s (user: %s, time: %s)", newer.getShortHash(), newer.getCommitterName(), sdf.format(new Date(newer.getTime())));
+        String title = "Channel Diff - " + channelName;
+
+        try {
+            JDialog dw;
+            if (data.serverDiff != null) {
+                dw = DecomposedDiffWindow.create(this, title, leftLabel, rightLabel, data.serverDiff,
+                        (left, right) -> loadRawXml(older, newer, left, right));
+            } else if (data.leftResult != null && data.rightResult != null) {
+                dw = DecomposedDiffWindow.create(this, title, leftLabel, rightLabel,
+                        data.leftResult, data.rightResult, data.leftXml, data.rightXml);
+            } else {
+                dw = DiffWindow.create(this, title, leftLabel, rightLabel, data.leftXml, data.rightXml);
+            }
+            dw.setSize(PlatformUI.MIRTH_FRAME.getWidth() - 10, PlatformUI.MIRTH_FRAME.getHeight() - 10);
+            dw.setVisible(true);
         } catch (Exception e) {
-            PlatformUI.MIRTH_FRAME.alertThrowable(PlatformUI.MIRTH_FRAME, e);
+            showError(e);
         }
     }
 
     private void compareWithPrevious(int row) {
+        RevisionInfoTableModel model = (RevisionInfoTableModel) tblRevisions.getModel();
+        if (row >= model.getRowCount() - 1 && model.hasMore()) {
+            // the previous revision is on the next page, compare once it has loaded
+            model.loadNextPageInBackground(() -> compareWithPrevious(row), this::showError);
+            return;
+        }
+
         int totalRows = tblRevisions.getRowCount();
         if (row >= totalRows - 1) {
             JOptionPane.showMessageDialog(this,
@@ -288,17 +407,16 @@ public class ChannelHistoryDialog extends JDialog {
             return;
         }
 
-        try {
-            boolean reverted = servlet.revertChannel(channelId, targetRevision.getHash());
-            if (reverted) {
-                PlatformUI.MIRTH_FRAME.alertInformation(this, "Channel reverted successfully.");
-                // Refresh the channel panel
-                PlatformUI.MIRTH_FRAME.channelPanel.doRefreshChannels();
-                loadHistory();
-            }
-        } catch (Exception e) {
-            PlatformUI.MIRTH_FRAME.alertThrowable(PlatformUI.MIRTH_FRAME, e);
-        }
+        progressPanel.run("Reverting to " + targetRevision.getShortHash() + "...", false,
+                () -> servlet.revertChannel(channelId, targetRevision.getHash()),
+                reverted -> {
+                    if (reverted) {
+                        PlatformUI.MIRTH_FRAME.alertInformation(this, "Channel reverted successfully.");
+                        // Refresh the channel panel
+                        PlatformUI.MIRTH_FRAME.channelPanel.doRefreshChannels();
+                        loadHistory();
+                    }
+                }, this::showError);
     }
 
     private void pruneOlderRevisions() {
@@ -311,13 +429,14 @@ public class ChannelHistoryDialog extends JDialog {
         RevisionInfo selectedRevision = model.getRevisionAt(row);
         int revisionsToDelete = model.getRowCount() - row - 1;
 
-        if (revisionsToDelete <= 0) {
+        if (revisionsToDelete <= 0 && !model.hasMore()) {
             JOptionPane.showMessageDialog(this, "No older revisions to delete.", "Prune", JOptionPane.INFORMATION_MESSAGE);
             return;
         }
 
         int confirm = JOptionPane.showConfirmDialog(this,
-                "Delete " + revisionsToDelete + " revision(s) older than " + selectedRevision.getShortHash() + "?\n" +
+                // the server deletes every older revision, including ones not loaded yet
+                "Delete all revisions older than " + selectedRevision.getShortHash() + "?\n" +
                 "This action cannot be undone.",
                 "Confirm Prune",
                 JOptionPane.YES_NO_OPTION,
@@ -327,12 +446,22 @@ public class ChannelHistoryDialog extends JDialog {
             return;
         }
 
-        try {
-            int deleted = servlet.pruneChannelHistory(channelId, selectedRevision.getHash());
-            PlatformUI.MIRTH_FRAME.alertInformation(this, "Deleted " + deleted + " older revision(s).");
-            loadHistory();
-        } catch (Exception e) {
-            PlatformUI.MIRTH_FRAME.alertThrowable(PlatformUI.MIRTH_FRAME, e);
-        }
+        progressPanel.run("Pruning revisions older than " + selectedRevision.getShortHash() + "...", false,
+                () -> servlet.pruneChannelHistory(channelId, selectedRevision.getHash()),
+                deleted -> {
+                    PlatformUI.MIRTH_FRAME.alertInformation(this, "Deleted " + deleted + " older revision(s).");
+                    loadHistory();
+                }, this::showError);
+    }
+
+    @Override
+    public void dispose() {
+        // don't leave a fetch running for a closed dialog
+        progressPanel.cancelAll();
+        super.dispose();
+    }
+
+    private void showError(Exception e) {
+        PlatformUI.MIRTH_FRAME.alertThrowable(PlatformUI.MIRTH_FRAME, e);
     }
 }
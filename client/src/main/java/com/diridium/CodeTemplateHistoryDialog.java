@@ -15,6 +15,8 @@ import java.text.SimpleDateFormat;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
 import javax.swing.AbstractAction;
 import javax.swing.ImageIcon;
@@ -30,7 +32,6 @@ import javax.swing.JPopupMenu;
 import javax.swing.JScrollPane;
 import javax.swing.KeyStroke;
 import javax.swing.ListSelectionModel;
-import javax.swing.SwingUtilities;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,6 +54,7 @@ public class CodeTemplateHistoryDialog extends JDialog {
     private ChannelHistoryServletInterface servlet;
     private JButton btnShowDiff;
     private JButton btnRevert;
+    private TaskProgressPanel progressPanel;
 
     public CodeTemplateHistoryDialog(JFrame parent, String codeTemplateId, String codeTemplateName) {
         super(parent, "Version History - " + codeTemplateName, true);
@@ -128,7 +130,8 @@ public class CodeTemplateHistoryDialog extends JDialog {
                     // Enable prune if a single row is selected and there are older revisions to delete
                     int selectedRow = tblRevisions.getSelectedRow();
                     int totalRows = tblRevisions.getRowCount();
-                    boolean hasOlderRevisions = selectedRow < totalRows - 1;
+                    boolean hasOlderRevisions = selectedRow < totalRows - 1
+                            || (tblRevisions.getModel() instanceof RevisionInfoTableModel && ((RevisionInfoTableModel) tblRevisions.getModel()).hasMore());
                     menuPrune.setEnabled(tblRevisions.getSelectedRowCount() == 1 && hasOlderRevisions);
                     popupMenu.show(e.getComponent(), e.getX(), e.getY());
                 }
@@ -136,6 +139,7 @@ public class CodeTemplateHistoryDialog extends JDialog {
         });
 
         JScrollPane scrollPane = new JScrollPane(tblRevisions);
+        tblRevisions.installPageLoading(scrollPane, e -> PlatformUI.MIRTH_FRAME.alertThrowable(PlatformUI.MIRTH_FRAME, e));
         add(scrollPane, BorderLayout.CENTER);
 
         // Bottom panel with help and buttons
@@ -163,6 +167,9 @@ public class CodeTemplateHistoryDialog extends JDialog {
         helpPanel.add(helpLabel);
         bottomPanel.add(helpPanel, BorderLayout.WEST);
 
+        progressPanel = new TaskProgressPanel();
+        bottomPanel.add(progressPanel, BorderLayout.CENTER);
+
         // Button panel
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
 
@@ -192,22 +199,27 @@ public class CodeTemplateHistoryDialog extends JDialog {
     }
 
     private void loadHistory() {
-        SwingUtilities.invokeLater(() -> {
-            try {
-                if (servlet == null) {
-                    servlet = PlatformUI.MIRTH_FRAME.mirthClient.getServlet(ChannelHistoryServletInterface.class);
-                }
-
-                List<RevisionInfo> revisions = servlet.getCodeTemplateHistory(codeTemplateId);
-                RevisionInfoTableModel model = new RevisionInfoTableModel(revisions);
-                tblRevisions.setModel(model);
-                updateButtonStates();
-                toFront();
-                requestFocus();
-            } catch (Exception e) {
-                PlatformUI.MIRTH_FRAME.alertThrowable(PlatformUI.MIRTH_FRAME, e);
+        try {
+            if (servlet == null) {
+                servlet = PlatformUI.MIRTH_FRAME.mirthClient.getServlet(ChannelHistoryServletInterface.class);
             }
-        });
+        } catch (Exception e) {
+            showError(e);
+            return;
+        }
+
+        RevisionInfoTableModel model = new RevisionInfoTableModel(
+                (beforeId, limit) -> servlet.getCodeTemplateHistoryPage(codeTemplateId, beforeId, limit),
+                RevisionInfoTableModel.DEFAULT_PAGE_SIZE);
+        progressPanel.run("Loading history...", true,
+                () -> servlet.getCodeTemplateHistoryPage(codeTemplateId, null, RevisionInfoTableModel.DEFAULT_PAGE_SIZE),
+                page -> {
+                    model.appendPage(page);
+                    tblRevisions.setModel(model);
+                    updateButtonStates();
+                    toFront();
+                    requestFocus();
+                }, this::showError);
     }
 
     private void showDiff() {
@@ -222,23 +234,72 @@ public class CodeTemplateHistoryDialog extends JDialog {
         RevisionInfo older = model.getRevisionAt(rows[1]);
         RevisionInfo newer = model.getRevisionAt(rows[0]);
 
-        try {
-            String left = servlet.getCodeTemplateContent(codeTemplateId, older.getHash());
-            String right = servlet.getCodeTemplateContent(codeTemplateId, newer.getHash());
+        progressPanel.run("Comparing " + older.getShortHash() + " with " + newer.getShortHash() + "...", true,
+                () -> loadRevisions(older.getHash(), newer.getHash()),
+                revisions -> showDiffWindow(revisions.get(0), revisions.get(1), older, newer),
+                this::showError);
+    }
+
+    /** Content of a revision and its decomposition, which is null when decomposing failed. */
+    private static class RevisionXml {
+        String xml;
+        ChannelXmlDecomposer.DecomposeResult decomposed;
+    }
+
+    /** Fetches both revisions in one request and decomposes them concurrently. */
+    private List<RevisionXml> loadRevisions(String olderId, String newerId) throws Exception {
+        Map<String, String> contents = RevisionContentCache.getInstance().getContents(RevisionContentCache.CODE_TEMPLATE,
+                List.of(olderId, newerId), ids -> StreamedContent.readContents(servlet.getCodeTemplateContents(codeTemplateId, ids, true)));
+        return TaskProgressPanel.invokeAll(List.<Callable<RevisionXml>>of(
+                () -> decomposeRevision(olderId, contents.get(olderId)),
+                () -> decomposeRevision(newerId, contents.get(newerId))));
+    }
+
+    private RevisionXml decomposeRevision(String historyId, String xml) {
+        RevisionXml revision = new RevisionXml();
+        revision.xml = xml;
+        if (revision.xml != null) {
+            try {
+                revision.decomposed = RevisionContentCache.getInstance().getDecomposed(
+                        RevisionContentCache.CODE_TEMPLATE, historyId, revision.xml);
+            } catch (Exception e) {
+                log.warn("Code template decomposition failed, falling back to raw diff: {}", e.getMessage(), e);
+            }
+        }
+        return revision;
+    }
 
+    private void showDiffWindow(RevisionXml left, RevisionXml right, RevisionInfo older, RevisionInfo newer) {
+        try {
             SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm");
             String leftLabel = String.format("Old - %s (user: %s, time: %s)", older.getShortHash(), older.getCommitterName(), sdf.format(new Date(older.getTime())));
             String rightLabel = String.format("New - %s (user: %s, time: %s)", newer.getShortHash(), newer.getCommitterName(), sdf.format(new Date(newer.getTime())));
+            String title = "Code Template Diff - " + codeTemplateName;
+
+            if (left.decomposed != null && right.decomposed != null) {
+                DecomposedDiffWindow dw = DecomposedDiffWindow.create(this, title, leftLabel, rightLabel,
+                        left.decomposed, right.decomposed, left.xml, right.xml);
+                dw.setSize(PlatformUI.MIRTH_FRAME.getWidth() - 10, PlatformUI.MIRTH_FRAME.getHeight() - 10);
+                dw.setVisible(true);
+                return;
+            }
 
-            DiffWindow dw = DiffWindow.create(this, "Code Template Diff - " + codeTemplateName, leftLabel, rightLabel, left, right);
+            DiffWindow dw = DiffWindow.create(this, title, leftLabel, rightLabel, left.xml, right.xml);
             dw.setSize(PlatformUI.MIRTH_FRAME.getWidth() - 10, PlatformUI.MIRTH_FRAME.getHeight() - 10);
             dw.setVisible(true);
         } catch (Exception e) {
-            PlatformUI.MIRTH_FRAME.alertThrowable(PlatformUI.MIRTH_FRAME, e);
+            showError(e);
         }
     }
 
     private void compareWithPrevious(int row) {
+        RevisionInfoTableModel model = (RevisionInfoTableModel) tblRevisions.getModel();
+        if (row >= model.getRowCount() - 1 && model.hasMore()) {
+            // the previous revision is on the next page, compare once it has loaded
+            model.loadNextPageInBackground(() -> compareWithPrevious(row), this::showError);
+            return;
+        }
+
         int totalRows = tblRevisions.getRowCount();
         if (row >= totalRows - 1) {
             JOptionPane.showMessageDialog(this,
@@ -277,17 +338,16 @@ public class CodeTemplateHistoryDialog extends JDialog {
             return;
         }
 
-        try {
-            boolean reverted = servlet.revertCodeTemplate(codeTemplateId, targetRevision.getHash());
-            if (reverted) {
-                PlatformUI.MIRTH_FRAME.alertInformation(this, "Code template reverted successfully.");
-                // Refresh the code template panel
-                PlatformUI.MIRTH_FRAME.codeTemplatePanel.doRefreshCodeTemplates(true);
-                loadHistory();
-            }
-        } catch (Exception e) {
-            PlatformUI.MIRTH_FRAME.alertThrowable(PlatformUI.MIRTH_FRAME, e);
-        }
+        progressPanel.run("Reverting to " + targetRevision.getShortHash() + "...", false,
+                () -> servlet.revertCodeTemplate(codeTemplateId, targetRevision.getHash()),
+                reverted -> {
+                    if (reverted) {
+                        PlatformUI.MIRTH_FRAME.alertInformation(this, "Code template reverted successfully.");
+                        // Refresh the code template panel
+                        PlatformUI.MIRTH_FRAME.codeTemplatePanel.doRefreshCodeTemplates(true);
+                        loadHistory();
+                    }
+                }, this::showError);
     }
 
     private void pruneOlderRevisions() {
@@ -300,13 +360,14 @@ public class CodeTemplateHistoryDialog extends JDialog {
         RevisionInfo selectedRevision = model.getRevisionAt(row);
         int revisionsToDelete = model.getRowCount() - row - 1;
 
-        if (revisionsToDelete <= 0) {
+        if (revisionsToDelete <= 0 && !model.hasMore()) {
             JOptionPane.showMessageDialog(this, "No older revisions to delete.", "Prune", JOptionPane.INFORMATION_MESSAGE);
             return;
         }
 
         int confirm = JOptionPane.showConfirmDialog(this,
-                "Delete " + revisionsToDelete + " revision(s) older than " + selectedRevision.getShortHash() + "?\n" +
+                // the server deletes every older revision, including ones not loaded yet
+                "Delete all revisions older than " + selectedRevision.getShortHash() + "?\n" +
                 "This action cannot be undone.",
                 "Confirm Prune",
                 JOptionPane.YES_NO_OPTION,
@@ -316,12 +377,22 @@ public class CodeTemplateHistoryDialog extends JDialog {
             return;
         }
 
-        try {
-            int deleted = servlet.pruneCodeTemplateHistory(codeTemplateId, selectedRevision.getHash());
-            PlatformUI.MIRTH_FRAME.alertInformation(this, "Deleted " + deleted + " older revision(s).");
-            loadHistory();
-        } catch (Exception e) {
-            PlatformUI.MIRTH_FRAME.alertThrowable(PlatformUI.MIRTH_FRAME, e);
-        }
+        progressPanel.run("Pruning revisions older than " + selectedRevision.getShortHash() + "...", false,
+                () -> servlet.pruneCodeTemplateHistory(codeTemplateId, selectedRevision.getHash()),
+                deleted -> {
+                    PlatformUI.MIRTH_FRAME.alertInformation(this, "Deleted " + deleted + " older revision(s).");
+                    loadHistory();
+                }, this::showError);
+    }
+
+    @Override
+    public void dispose() {
+        // don't leave a fetch running for a closed dialog
+        progressPanel.cancelAll();
+        super.dispose();
+    }
+
+    private void showError(Exception e) {
+        PlatformUI.MIRTH_FRAME.alertThrowable(PlatformUI.MIRTH_FRAME, e);
     }
 }
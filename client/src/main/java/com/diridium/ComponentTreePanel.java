@@ -12,12 +12,12 @@ import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 
 import javax.swing.Icon;
@@ -60,6 +60,8 @@ public class ComponentTreePanel extends JPanel {
     private final Map<String, ChangeType> changeTypes;
     private final Set<String> reorderedSubGroups;
     private final Set<String> allKeys;
+    private final GroupIndex groupIndex;
+    private final Map<String, ChangeType> groupChangeTypes;
     private final JTree tree;
     private final JCheckBox showChangedOnlyCheckBox;
     private final JCheckBox showLabelsCheckBox;
@@ -87,9 +89,16 @@ public class ComponentTreePanel extends JPanel {
         this.changeTypes = computeChangeTypes();
         this.reorderedSubGroups = computeReorderedSubGroups();
         this.allKeys = computeAllKeys();
+        this.groupIndex = new GroupIndex(computeParentGroups());
+        this.groupChangeTypes = computeGroupChangeTypes();
 
         setLayout(new BorderLayout());
 
+        // created before the tree: setting the renderer sizes the rows, which reads
+        // showLabelsCheckBox, and the constructor must not need a display
+        showChangedOnlyCheckBox = new JCheckBox("Show Changed Only", false);
+        showLabelsCheckBox = new JCheckBox("Show Labels", true);
+
         tree = new JTree();
         tree.getSelectionModel().setSelectionMode(TreeSelectionModel.SINGLE_TREE_SELECTION);
         tree.setCellRenderer(new ChangedNodeRenderer());
@@ -110,10 +119,7 @@ public class ComponentTreePanel extends JPanel {
 
         add(new JScrollPane(tree), BorderLayout.CENTER);
 
-        showChangedOnlyCheckBox = new JCheckBox("Show Changed Only", false);
         showChangedOnlyCheckBox.addActionListener(e -> rebuildTree());
-
-        showLabelsCheckBox = new JCheckBox("Show Labels", true);
         showLabelsCheckBox.addActionListener(e -> tree.repaint());
 
         JPanel checkBoxPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 0));
@@ -152,7 +158,7 @@ public class ComponentTreePanel extends JPanel {
                 types.put(key, ChangeType.RIGHT_ONLY);
             } else if (right == null) {
                 types.put(key, ChangeType.LEFT_ONLY);
-            } else if (!Objects.equals(left.getContent(), right.getContent())) {
+            } else if (!left.hasSameContent(right)) {
                 types.put(key, ChangeType.MODIFIED);
             } else {
                 types.put(key, ChangeType.UNCHANGED);
@@ -167,60 +173,105 @@ public class ComponentTreePanel extends JPanel {
         return all;
     }
 
-    private static final java.util.regex.Pattern POSITIONAL_FIELDS_PATTERN =
-            java.util.regex.Pattern.compile(
-                    "<sequenceNumber>\\d+</sequenceNumber>|<operator>[^<]*</operator>");
+    private Map<String, String> computeParentGroups() {
+        Map<String, String> parentGroups = new LinkedHashMap<>();
+        for (String key : allKeys) {
+            parentGroups.put(key, getComponent(key).getParentGroup());
+        }
+        return parentGroups;
+    }
+
+    /**
+     * Change type of every group, top-level groups including their sub-groups' components.
+     */
+    private Map<String, ChangeType> computeGroupChangeTypes() {
+        Map<String, ChangeType> types = new LinkedHashMap<>();
+        for (String groupName : groupIndex.topLevelGroups) {
+            List<String> allKeysForGroup = new ArrayList<>(groupIndex.getKeys(groupName));
+            for (String subGroup : groupIndex.getSubGroups(groupName)) {
+                List<String> subKeys = groupIndex.getKeys(subGroup);
+                allKeysForGroup.addAll(subKeys);
+                types.put(subGroup, computeGroupChangeType(subKeys));
+            }
+            types.put(groupName, computeGroupChangeType(allKeysForGroup));
+        }
+        return types;
+    }
+
+    private DecomposedComponent getComponent(String key) {
+        DecomposedComponent comp = leftComponents.get(key);
+        return comp != null ? comp : rightComponents.get(key);
+    }
 
     /**
      * Detect sub-groups where all steps exist in both versions with the same content
      * but in a different order (pure reorder). Strips sequenceNumber from content
      * before comparing since it's purely positional and always changes on reorder.
+     * The cached normalized fingerprints rule out most sub-groups, the normalized
+     * text is only compared for sub-groups whose fingerprints match.
      */
     private Set<String> computeReorderedSubGroups() {
         Set<String> result = new LinkedHashSet<>();
 
         // Find all sub-group parent keys (keys containing "/" that are used as parentGroup)
-        Map<String, List<String>> leftSubGroups = new LinkedHashMap<>();
-        Map<String, List<String>> rightSubGroups = new LinkedHashMap<>();
+        Map<String, List<DecomposedComponent>> leftSubGroups = groupSteps(leftComponents);
+        Map<String, List<DecomposedComponent>> rightSubGroups = groupSteps(rightComponents);
 
-        for (DecomposedComponent comp : leftComponents.values()) {
-            String pg = comp.getParentGroup();
-            if (pg.contains("/")) {
-                leftSubGroups.computeIfAbsent(pg, k -> new ArrayList<>())
-                        .add(stripPositionalFields(comp.getContent()));
-            }
-        }
-        for (DecomposedComponent comp : rightComponents.values()) {
-            String pg = comp.getParentGroup();
-            if (pg.contains("/")) {
-                rightSubGroups.computeIfAbsent(pg, k -> new ArrayList<>())
-                        .add(stripPositionalFields(comp.getContent()));
+        for (Map.Entry<String, List<DecomposedComponent>> entry : leftSubGroups.entrySet()) {
+            List<DecomposedComponent> leftSteps = entry.getValue();
+            List<DecomposedComponent> rightSteps = rightSubGroups.get(entry.getKey());
+            if (rightSteps == null || leftSteps.size() != rightSteps.size()) {
+                continue;
             }
-        }
 
-        for (String subGroup : leftSubGroups.keySet()) {
-            List<String> leftContents = leftSubGroups.get(subGroup);
-            List<String> rightContents = rightSubGroups.get(subGroup);
-            if (rightContents == null || leftContents.size() != rightContents.size()) {
+            long[] leftHashes = normalizedHashes(leftSteps);
+            long[] rightHashes = normalizedHashes(rightSteps);
+            // Same order, at worst a collision hides the reorder label, the steps still compare exactly
+            if (Arrays.equals(leftHashes, rightHashes)) {
                 continue;
             }
-            if (leftContents.equals(rightContents)) {
+            Arrays.sort(leftHashes);
+            Arrays.sort(rightHashes);
+            if (!Arrays.equals(leftHashes, rightHashes)) {
                 continue;
             }
-            List<String> leftSorted = new ArrayList<>(leftContents);
-            List<String> rightSorted = new ArrayList<>(rightContents);
-            Collections.sort(leftSorted);
-            Collections.sort(rightSorted);
-            if (leftSorted.equals(rightSorted)) {
-                result.add(subGroup);
+
+            List<String> leftContents = normalizedContents(leftSteps);
+            List<String> rightContents = normalizedContents(rightSteps);
+            Collections.sort(leftContents);
+            Collections.sort(rightContents);
+            if (leftContents.equals(rightContents)) {
+                result.add(entry.getKey());
             }
         }
         return result;
     }
 
-    private static String stripPositionalFields(String content) {
-        String stripped = POSITIONAL_FIELDS_PATTERN.matcher(content).replaceAll("");
-        return stripped.replaceAll("\\s+", " ").trim();
+    private static Map<String, List<DecomposedComponent>> groupSteps(Map<String, DecomposedComponent> components) {
+        Map<String, List<DecomposedComponent>> subGroups = new LinkedHashMap<>();
+        for (DecomposedComponent comp : components.values()) {
+            String pg = comp.getParentGroup();
+            if (pg.contains("/")) {
+                subGroups.computeIfAbsent(pg, k -> new ArrayList<>()).add(comp);
+            }
+        }
+        return subGroups;
+    }
+
+    private static long[] normalizedHashes(List<DecomposedComponent> steps) {
+        long[] hashes = new long[steps.size()];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = steps.get(i).getNormalizedHash();
+        }
+        return hashes;
+    }
+
+    private static List<String> normalizedContents(List<DecomposedComponent> steps) {
+        List<String> contents = new ArrayList<>(steps.size());
+        for (DecomposedComponent step : steps) {
+            contents.add(DecomposedComponent.normalizePositionalFields(step.getContent()));
+        }
+        return contents;
     }
 
     private ChangeType computeGroupChangeType(List<String> keys) {
@@ -259,43 +310,8 @@ public class ComponentTreePanel extends JPanel {
         boolean changedOnly = showChangedOnlyCheckBox.isSelected();
         DefaultMutableTreeNode root = new DefaultMutableTreeNode("Components");
 
-        // Group keys by parentGroup, preserving insertion order
-        Map<String, List<String>> groups = new LinkedHashMap<>();
-        for (String key : allKeys) {
-            DecomposedComponent comp = leftComponents.containsKey(key) ? leftComponents.get(key) : rightComponents.get(key);
-            String group = comp.getParentGroup();
-            groups.computeIfAbsent(group, k -> new ArrayList<>()).add(key);
-        }
-
-        // Identify top-level groups vs sub-groups.
-        // A group is a sub-group if its name starts with another group's name + "/"
-        Set<String> allGroupNames = groups.keySet();
-        Map<String, List<String>> topToSubGroups = new LinkedHashMap<>();
-        Set<String> subGroupSet = new LinkedHashSet<>();
-
-        for (String groupName : allGroupNames) {
-            for (String otherGroup : allGroupNames) {
-                if (!otherGroup.equals(groupName) && groupName.startsWith(otherGroup + "/")) {
-                    subGroupSet.add(groupName);
-                    topToSubGroups.computeIfAbsent(otherGroup, k -> new ArrayList<>()).add(groupName);
-                }
-            }
-        }
-
-        for (String groupName : allGroupNames) {
-            // Skip sub-groups; they are handled under their parent
-            if (subGroupSet.contains(groupName)) {
-                continue;
-            }
-
-            // Collect all component keys for this top-level group including sub-group children
-            List<String> allKeysForGroup = new ArrayList<>(groups.getOrDefault(groupName, List.of()));
-            List<String> subGroups = topToSubGroups.getOrDefault(groupName, List.of());
-            for (String subGroup : subGroups) {
-                allKeysForGroup.addAll(groups.getOrDefault(subGroup, List.of()));
-            }
-
-            ChangeType groupChangeType = computeGroupChangeType(allKeysForGroup);
+        for (String groupName : groupIndex.topLevelGroups) {
+            ChangeType groupChangeType = groupChangeTypes.get(groupName);
 
             if (changedOnly && groupChangeType == ChangeType.UNCHANGED) {
                 continue;
@@ -306,22 +322,11 @@ public class ComponentTreePanel extends JPanel {
                     new GroupNodeData(groupDisplay, groupChangeType));
 
             // Add direct children (components whose parentGroup is this top-level group)
-            List<String> directKeys = groups.getOrDefault(groupName, List.of());
-            for (String key : directKeys) {
-                ChangeType ct = changeTypes.getOrDefault(key, ChangeType.UNCHANGED);
-                if (changedOnly && ct == ChangeType.UNCHANGED) {
-                    continue;
-                }
-                DecomposedComponent comp = leftComponents.containsKey(key) ? leftComponents.get(key) : rightComponents.get(key);
-                DefaultMutableTreeNode leaf = new DefaultMutableTreeNode(
-                        new ComponentNodeData(key, comp.getDisplayName(), ct));
-                groupNode.add(leaf);
-            }
+            addLeaves(groupNode, groupIndex.getKeys(groupName), changedOnly);
 
             // Add sub-group nodes
-            for (String subGroup : subGroups) {
-                List<String> subKeys = groups.getOrDefault(subGroup, List.of());
-                ChangeType subGroupChangeType = computeGroupChangeType(subKeys);
+            for (String subGroup : groupIndex.getSubGroups(groupName)) {
+                ChangeType subGroupChangeType = groupChangeTypes.get(subGroup);
 
                 if (changedOnly && subGroupChangeType == ChangeType.UNCHANGED) {
                     continue;
@@ -335,16 +340,7 @@ public class ComponentTreePanel extends JPanel {
                 DefaultMutableTreeNode subGroupNode = new DefaultMutableTreeNode(
                         new GroupNodeData(subDisplayName, subGroupChangeType));
 
-                for (String key : subKeys) {
-                    ChangeType ct = changeTypes.getOrDefault(key, ChangeType.UNCHANGED);
-                    if (changedOnly && ct == ChangeType.UNCHANGED) {
-                        continue;
-                    }
-                    DecomposedComponent comp = leftComponents.containsKey(key) ? leftComponents.get(key) : rightComponents.get(key);
-                    DefaultMutableTreeNode leaf = new DefaultMutableTreeNode(
-                            new ComponentNodeData(key, comp.getDisplayName(), ct));
-                    subGroupNode.add(leaf);
-                }
+                addLeaves(subGroupNode, groupIndex.getKeys(subGroup), changedOnly);
 
                 if (subGroupNode.getChildCount() > 0) {
                     groupNode.add(subGroupNode);
@@ -374,6 +370,17 @@ public class ComponentTreePanel extends JPanel {
         selectFirstChanged(root);
     }
 
+    private void addLeaves(DefaultMutableTreeNode parent, List<String> keys, boolean changedOnly) {
+        for (String key : keys) {
+            ChangeType ct = changeTypes.getOrDefault(key, ChangeType.UNCHANGED);
+            if (changedOnly && ct == ChangeType.UNCHANGED) {
+                continue;
+            }
+            parent.add(new DefaultMutableTreeNode(
+                    new ComponentNodeData(key, getComponent(key).getDisplayName(), ct)));
+        }
+    }
+
     private void selectFirstChanged(DefaultMutableTreeNode root) {
         for (int i = 0; i < root.getChildCount(); i++) {
             DefaultMutableTreeNode groupNode = (DefaultMutableTreeNode) root.getChildAt(i);
@@ -400,6 +407,47 @@ public class ComponentTreePanel extends JPanel {
         }
     }
 
+    /**
+     * Groups and sub-groups of the compared components, built once since the
+     * components don't change. A group is a sub-group of every other group whose
+     * name plus "/" starts its name. Rather than comparing every pair of groups,
+     * each "/" prefix of a group's name is looked up among the group names.
+     */
+    static class GroupIndex {
+        // component keys by parent group, in component order
+        private final Map<String, List<String>> keysByGroup = new LinkedHashMap<>();
+        private final Map<String, List<String>> subGroupsByGroup = new LinkedHashMap<>();
+        final List<String> topLevelGroups = new ArrayList<>();
+
+        GroupIndex(Map<String, String> parentGroupsByKey) {
+            for (Map.Entry<String, String> entry : parentGroupsByKey.entrySet()) {
+                keysByGroup.computeIfAbsent(entry.getValue(), k -> new ArrayList<>()).add(entry.getKey());
+            }
+
+            for (String groupName : keysByGroup.keySet()) {
+                boolean subGroup = false;
+                for (int slash = groupName.indexOf('/'); slash >= 0; slash = groupName.indexOf('/', slash + 1)) {
+                    String prefix = groupName.substring(0, slash);
+                    if (keysByGroup.containsKey(prefix)) {
+                        subGroupsByGroup.computeIfAbsent(prefix, k -> new ArrayList<>()).add(groupName);
+                        subGroup = true;
+                    }
+                }
+                if (!subGroup) {
+                    topLevelGroups.add(groupName);
+                }
+            }
+        }
+
+        List<String> getKeys(String groupName) {
+            return keysByGroup.getOrDefault(groupName, List.of());
+        }
+
+        List<String> getSubGroups(String groupName) {
+            return subGroupsByGroup.getOrDefault(groupName, List.of());
+        }
+    }
+
     static class ComponentNodeData {
         final String key;
         final String displayName;
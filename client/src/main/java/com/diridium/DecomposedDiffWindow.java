@@ -5,24 +5,41 @@ package com.diridium;
 
 import java.awt.BorderLayout;
 import java.awt.CardLayout;
+import java.awt.Cursor;
 import java.awt.Dimension;
+import java.awt.FlowLayout;
 import java.awt.Font;
 import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.AbstractAction;
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
 import javax.swing.JComponent;
 import javax.swing.JDialog;
 import javax.swing.JLabel;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JSplitPane;
 import javax.swing.KeyStroke;
+import javax.swing.SwingWorker;
 
 public class DecomposedDiffWindow extends JDialog {
 
+    /**
+     * Loads the full XML of the older ({@code left}) and/or newer revision when a
+     * server-computed diff needs it, in one request. Returns the left and right
+     * XML, null for a side not asked for.
+     */
+    @FunctionalInterface
+    public interface RawXmlLoader {
+        String[] load(boolean left, boolean right) throws Exception;
+    }
+
     private static final String VIEW_DECOMPOSED = "decomposed";
     private static final String VIEW_RAW = "raw";
 
@@ -30,14 +47,20 @@ public class DecomposedDiffWindow extends JDialog {
     private final Map<String, DecomposedComponent> rightComponents;
     private final Map<String, String> leftGroupDisplayNames;
     private final Map<String, String> rightGroupDisplayNames;
-    private final String leftRawXml;
-    private final String rightRawXml;
+    private final RawXmlLoader rawXmlLoader;
+    private String leftRawXml;
+    private String rightRawXml;
+    // full older revision, decomposed on demand for unchanged components of a server diff
+    private Map<String, DecomposedComponent> leftFullComponents;
+    private boolean loadingLeftComponents;
     private final boolean viewOnly;
     private JPanel diffContainer;
     private CardLayout cardLayout;
     private JPanel cardPanel;
     private JButton toggleButton;
     private boolean showingDecomposed = true;
+    private JCheckBox showAllLines;
+    private String selectedKey;
 
     private DecomposedDiffWindow(java.awt.Dialog parent, String title, String leftLabel, String rightLabel,
                                   Map<String, DecomposedComponent> leftComponents,
@@ -45,7 +68,7 @@ public class DecomposedDiffWindow extends JDialog {
                                   Map<String, String> leftGroupDisplayNames,
                                   Map<String, String> rightGroupDisplayNames,
                                   String leftRawXml, String rightRawXml,
-                                  boolean viewOnly) {
+                                  RawXmlLoader rawXmlLoader, boolean viewOnly) {
         super(parent, title, true);
         this.leftComponents = leftComponents;
         this.rightComponents = rightComponents;
@@ -53,6 +76,7 @@ public class DecomposedDiffWindow extends JDialog {
         this.rightGroupDisplayNames = rightGroupDisplayNames;
         this.leftRawXml = leftRawXml;
         this.rightRawXml = rightRawXml;
+        this.rawXmlLoader = rawXmlLoader;
         this.viewOnly = viewOnly;
         setDefaultCloseOperation(DISPOSE_ON_CLOSE);
 
@@ -77,7 +101,35 @@ public class DecomposedDiffWindow extends JDialog {
         return new DecomposedDiffWindow(parent, title, leftLabel, rightLabel,
                 leftResult.getComponents(), rightResult.getComponents(),
                 leftResult.getGroupDisplayNames(), rightResult.getGroupDisplayNames(),
-                leftRawXml, rightRawXml, false);
+                leftRawXml, rightRawXml, null, false);
+    }
+
+    /**
+     * Creates a window for a diff computed by the server. Unchanged components
+     * and the raw XML view are loaded through {@code rawXmlLoader} when first shown.
+     */
+    public static DecomposedDiffWindow create(java.awt.Dialog parent, String title,
+            String leftLabel, String rightLabel, ChannelDiff diff, RawXmlLoader rawXmlLoader) {
+        Map<String, DecomposedComponent> leftComponents = new LinkedHashMap<>();
+        Map<String, DecomposedComponent> rightComponents = new LinkedHashMap<>();
+        for (ComponentDiff c : diff.getComponents()) {
+            String leftContent = c.getLeftContent();
+            String rightContent = c.getRightDelta() != null
+                    ? LineDelta.apply(leftContent != null ? leftContent : "", c.getRightDelta())
+                    : null;
+            // unchanged components have no content on either side, so they still compare equal
+            if (c.getChangeType() != ComponentDiff.ChangeType.RIGHT_ONLY) {
+                leftComponents.put(c.getKey(), new DecomposedComponent(c.getKey(), c.getDisplayName(),
+                        leftContent, c.getCategory(), c.getParentGroup()));
+            }
+            if (c.getChangeType() != ComponentDiff.ChangeType.LEFT_ONLY) {
+                rightComponents.put(c.getKey(), new DecomposedComponent(c.getKey(), c.getDisplayName(),
+                        rightContent, c.getCategory(), c.getParentGroup()));
+            }
+        }
+        return new DecomposedDiffWindow(parent, title, leftLabel, rightLabel,
+                leftComponents, rightComponents, diff.getGroupDisplayNames(), diff.getGroupDisplayNames(),
+                null, null, rawXmlLoader, false);
     }
 
     public static DecomposedDiffWindow createViewOnly(java.awt.Dialog parent, String title,
@@ -85,7 +137,7 @@ public class DecomposedDiffWindow extends JDialog {
         return new DecomposedDiffWindow(parent, title, label, null,
                 result.getComponents(), result.getComponents(),
                 result.getGroupDisplayNames(), result.getGroupDisplayNames(),
-                rawXml, null, true);
+                rawXml, null, null, true);
     }
 
     private void buildContent(String leftLabel, String rightLabel) {
@@ -131,6 +183,15 @@ public class DecomposedDiffWindow extends JDialog {
         diffWithLabels.add(labelPanel, BorderLayout.NORTH);
         diffWithLabels.add(diffContainer, BorderLayout.CENTER);
 
+        // Component diffs collapse unchanged lines unless asked to show everything
+        if (!viewOnly) {
+            showAllLines = new JCheckBox("Show All Lines");
+            showAllLines.addActionListener(e -> showComponentDiff(selectedKey));
+            JPanel optionsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 2));
+            optionsPanel.add(showAllLines);
+            diffWithLabels.add(optionsPanel, BorderLayout.SOUTH);
+        }
+
         JSplitPane decomposedSplit = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, treeWithSummary, diffWithLabels);
         decomposedSplit.setDividerLocation(280);
         decomposedSplit.setOneTouchExpandable(true);
@@ -159,10 +220,8 @@ public class DecomposedDiffWindow extends JDialog {
         if (showingDecomposed) {
             // Lazily create the raw view on first toggle
             if (cardPanel.getComponentCount() < 2) {
-                SimpleDiffPanel rawDiff = viewOnly
-                        ? new SimpleDiffPanel(leftRawXml)
-                        : new SimpleDiffPanel(leftRawXml, rightRawXml);
-                cardPanel.add(rawDiff, VIEW_RAW);
+                createRawView();
+                return;
             }
             cardLayout.show(cardPanel, VIEW_RAW);
             toggleButton.setText("Show Component View");
@@ -173,14 +232,80 @@ public class DecomposedDiffWindow extends JDialog {
         showingDecomposed = !showingDecomposed;
     }
 
+    /**
+     * Loads the raw XML if needed and builds the diff documents in the background,
+     * raw channel XML runs to tens of thousands of lines.
+     */
+    private void createRawView() {
+        String left = leftRawXml;
+        String right = rightRawXml;
+        toggleButton.setEnabled(false);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+
+        new SwingWorker<SimpleDiffPanel.Prepared, Void>() {
+            private String loadedLeft = left;
+            private String loadedRight = right;
+
+            @Override
+            protected SimpleDiffPanel.Prepared doInBackground() throws Exception {
+                // the older side may already be loaded for an unchanged component
+                if ((loadedLeft == null || loadedRight == null) && rawXmlLoader != null) {
+                    String[] loaded = rawXmlLoader.load(loadedLeft == null, loadedRight == null);
+                    if (loadedLeft == null) {
+                        loadedLeft = loaded[0];
+                    }
+                    if (loadedRight == null) {
+                        loadedRight = loaded[1];
+                    }
+                }
+                return viewOnly
+                        ? SimpleDiffPanel.prepareView(loadedLeft)
+                        : SimpleDiffPanel.prepare(loadedLeft, loadedRight);
+            }
+
+            @Override
+            protected void done() {
+                toggleButton.setEnabled(true);
+                setCursor(Cursor.getDefaultCursor());
+                SimpleDiffPanel.Prepared prepared;
+                try {
+                    prepared = get();
+                } catch (Exception e) {
+                    Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(DecomposedDiffWindow.this,
+                            "Could not load the channel XML: " + cause.getMessage(), "Diff", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                leftRawXml = loadedLeft;
+                rightRawXml = loadedRight;
+                if (cardPanel.getComponentCount() < 2) {
+                    cardPanel.add(new SimpleDiffPanel(prepared), VIEW_RAW);
+                }
+                if (showingDecomposed) {
+                    toggleView();
+                }
+            }
+        }.execute();
+    }
+
     private void showComponentDiff(String key) {
+        selectedKey = key;
         diffContainer.removeAll();
 
         if (key != null) {
             DecomposedComponent comp = leftComponents.get(key);
             String content = comp != null ? comp.getContent() : "";
-
-            if (viewOnly) {
+            if (content == null) {
+                // unchanged component of a server diff, show it from the full older revision
+                if (leftFullComponents != null) {
+                    DecomposedComponent full = leftFullComponents.get(key);
+                    String fullContent = full != null ? full.getContent() : "";
+                    diffContainer.add(new SimpleDiffPanel(fullContent, fullContent), BorderLayout.CENTER);
+                } else {
+                    diffContainer.add(new JLabel("Loading...", JLabel.CENTER), BorderLayout.CENTER);
+                    loadLeftFullComponents();
+                }
+            } else if (viewOnly) {
                 diffContainer.add(new SimpleDiffPanel(content), BorderLayout.CENTER);
             } else {
                 String rightContent = "";
@@ -188,11 +313,61 @@ public class DecomposedDiffWindow extends JDialog {
                 if (rightComp != null) {
                     rightContent = rightComp.getContent();
                 }
-                diffContainer.add(new SimpleDiffPanel(content, rightContent), BorderLayout.CENTER);
+                SimpleDiffPanel diffPanel = showAllLines.isSelected()
+                        ? new SimpleDiffPanel(content, rightContent)
+                        : new SimpleDiffPanel(content, rightContent, SimpleDiffPanel.DEFAULT_CONTEXT_LINES);
+                diffContainer.add(diffPanel, BorderLayout.CENTER);
             }
         }
 
         diffContainer.revalidate();
         diffContainer.repaint();
     }
+
+    /**
+     * Loads and decomposes the full older revision in the background, then shows
+     * the component selected by then. Only the older side is needed since the
+     * component is the same in both.
+     */
+    private void loadLeftFullComponents() {
+        if (loadingLeftComponents) {
+            return;
+        }
+        loadingLeftComponents = true;
+        String left = leftRawXml;
+
+        new SwingWorker<Map<String, DecomposedComponent>, Void>() {
+            private String loadedLeft = left;
+
+            @Override
+            protected Map<String, DecomposedComponent> doInBackground() throws Exception {
+                if (loadedLeft == null && rawXmlLoader != null) {
+                    loadedLeft = rawXmlLoader.load(true, false)[0];
+                }
+                return ChannelXmlDecomposer.decompose(loadedLeft);
+            }
+
+            @Override
+            protected void done() {
+                loadingLeftComponents = false;
+                try {
+                    leftFullComponents = get();
+                    leftRawXml = loadedLeft;
+                } catch (Exception e) {
+                    Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+                    // clear the loading message unless another component is shown by now
+                    DecomposedComponent selected = selectedKey != null ? leftComponents.get(selectedKey) : null;
+                    if (selected != null && selected.getContent() == null) {
+                        diffContainer.removeAll();
+                        diffContainer.revalidate();
+                        diffContainer.repaint();
+                    }
+                    JOptionPane.showMessageDialog(DecomposedDiffWindow.this,
+                            "Could not load the channel: " + cause.getMessage(), "Diff", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                showComponentDiff(selectedKey);
+            }
+        }.execute();
+    }
 }
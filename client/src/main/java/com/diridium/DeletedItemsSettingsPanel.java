@@ -257,38 +257,25 @@ public class DeletedItemsSettingsPanel extends AbstractSettingsPanel {
         DeletedItemInfo newer = a.getDateDeleted() <= b.getDateDeleted() ? b : a;
 
         try {
-            String left;
-            String right;
-            boolean isChannel = DeletedItemInfo.TYPE_CHANNEL.equals(newer.getType());
-
-            if (isChannel) {
-                left = svc.getDeletedChannelContent(older.getId());
-                right = svc.getDeletedChannelContent(newer.getId());
-            } else {
-                left = svc.getDeletedCodeTemplateContent(older.getId());
-                right = svc.getDeletedCodeTemplateContent(newer.getId());
-            }
+            String left = getContent(svc, older);
+            String right = getContent(svc, newer);
 
             SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm");
             String leftLabel = "Old - " + older.getName() + " (deleted " + sdf.format(new Date(older.getDateDeleted())) + ")";
             String rightLabel = "New - " + newer.getName() + " (deleted " + sdf.format(new Date(newer.getDateDeleted())) + ")";
             String title = "Deleted " + newer.getType() + " Diff - " + newer.getName();
 
-            if (isChannel) {
-                try {
-                    ChannelXmlDecomposer.DecomposeResult leftResult = ChannelXmlDecomposer.decomposeWithNames(left);
-                    ChannelXmlDecomposer.DecomposeResult rightResult = ChannelXmlDecomposer.decomposeWithNames(right);
-                    DecomposedDiffWindow dw = DecomposedDiffWindow.create(null, title,
-                            leftLabel, rightLabel, leftResult, rightResult, left, right);
-                    dw.setSize(PlatformUI.MIRTH_FRAME.getWidth() - 10, PlatformUI.MIRTH_FRAME.getHeight() - 10);
-                    dw.setVisible(true);
-                } catch (Exception decompositionEx) {
-                    log.warn("Channel decomposition failed, falling back to raw diff: {}", decompositionEx.getMessage(), decompositionEx);
-                    DiffWindow dw = DiffWindow.create(title, leftLabel, rightLabel, left, right);
-                    dw.setSize(PlatformUI.MIRTH_FRAME.getWidth() - 10, PlatformUI.MIRTH_FRAME.getHeight() - 10);
-                    dw.setVisible(true);
-                }
-            } else {
+            try {
+                ChannelXmlDecomposer.DecomposeResult leftResult = RevisionContentCache.getInstance().getDecomposed(
+                        getCacheType(older), older.getId(), left);
+                ChannelXmlDecomposer.DecomposeResult rightResult = RevisionContentCache.getInstance().getDecomposed(
+                        getCacheType(newer), newer.getId(), right);
+                DecomposedDiffWindow dw = DecomposedDiffWindow.create(null, title,
+                        leftLabel, rightLabel, leftResult, rightResult, left, right);
+                dw.setSize(PlatformUI.MIRTH_FRAME.getWidth() - 10, PlatformUI.MIRTH_FRAME.getHeight() - 10);
+                dw.setVisible(true);
+            } catch (Exception decompositionEx) {
+                log.warn("Decomposition failed, falling back to raw diff: {}", decompositionEx.getMessage(), decompositionEx);
                 DiffWindow dw = DiffWindow.create(title, leftLabel, rightLabel, left, right);
                 dw.setSize(PlatformUI.MIRTH_FRAME.getWidth() - 10, PlatformUI.MIRTH_FRAME.getHeight() - 10);
                 dw.setVisible(true);
@@ -298,6 +285,20 @@ public class DeletedItemsSettingsPanel extends AbstractSettingsPanel {
         }
     }
 
+    private String getContent(ChannelHistoryServletInterface svc, DeletedItemInfo info) throws Exception {
+        if (DeletedItemInfo.TYPE_CHANNEL.equals(info.getType())) {
+            return RevisionContentCache.getInstance().getContent(RevisionContentCache.DELETED_CHANNEL, info.getId(),
+                    () -> StreamedContent.read(svc.getDeletedChannelContentStream(info.getId(), true)));
+        }
+        return RevisionContentCache.getInstance().getContent(RevisionContentCache.DELETED_CODE_TEMPLATE, info.getId(),
+                () -> StreamedContent.read(svc.getDeletedCodeTemplateContentStream(info.getId(), true)));
+    }
+
+    private static String getCacheType(DeletedItemInfo info) {
+        return DeletedItemInfo.TYPE_CHANNEL.equals(info.getType())
+                ? RevisionContentCache.DELETED_CHANNEL : RevisionContentCache.DELETED_CODE_TEMPLATE;
+    }
+
     private void viewXml() {
         int row = table.getSelectedRow();
         if (row < 0) return;
@@ -307,14 +308,7 @@ public class DeletedItemsSettingsPanel extends AbstractSettingsPanel {
 
         DeletedItemInfo info = model.getItemAt(table.convertRowIndexToModel(row));
         try {
-            String xml;
-            boolean isChannel = DeletedItemInfo.TYPE_CHANNEL.equals(info.getType());
-
-            if (isChannel) {
-                xml = svc.getDeletedChannelContent(info.getId());
-            } else {
-                xml = svc.getDeletedCodeTemplateContent(info.getId());
-            }
+            String xml = getContent(svc, info);
 
             if (xml == null) {
                 PlatformUI.MIRTH_FRAME.alertError(this, "No content found for this deleted item.");
@@ -325,19 +319,14 @@ public class DeletedItemsSettingsPanel extends AbstractSettingsPanel {
             String label = info.getName() + " (deleted " + sdf.format(new Date(info.getDateDeleted())) + ")";
             String title = "Deleted " + info.getType() + " - " + info.getName();
 
-            if (isChannel) {
-                try {
-                    ChannelXmlDecomposer.DecomposeResult result = ChannelXmlDecomposer.decomposeWithNames(xml);
-                    DecomposedDiffWindow dw = DecomposedDiffWindow.createViewOnly(null, title, label, result, xml);
-                    dw.setSize(PlatformUI.MIRTH_FRAME.getWidth() - 10, PlatformUI.MIRTH_FRAME.getHeight() - 10);
-                    dw.setVisible(true);
-                } catch (Exception decompositionEx) {
-                    log.warn("Channel decomposition failed, falling back to raw view: {}", decompositionEx.getMessage(), decompositionEx);
-                    DiffWindow dw = DiffWindow.createViewOnly(title, label, xml);
-                    dw.setSize(PlatformUI.MIRTH_FRAME.getWidth() - 10, PlatformUI.MIRTH_FRAME.getHeight() - 10);
-                    dw.setVisible(true);
-                }
-            } else {
+            try {
+                ChannelXmlDecomposer.DecomposeResult result = RevisionContentCache.getInstance().getDecomposed(
+                        getCacheType(info), info.getId(), xml);
+                DecomposedDiffWindow dw = DecomposedDiffWindow.createViewOnly(null, title, label, result, xml);
+                dw.setSize(PlatformUI.MIRTH_FRAME.getWidth() - 10, PlatformUI.MIRTH_FRAME.getHeight() - 10);
+                dw.setVisible(true);
+            } catch (Exception decompositionEx) {
+                log.warn("Decomposition failed, falling back to raw view: {}", decompositionEx.getMessage(), decompositionEx);
                 DiffWindow dw = DiffWindow.createViewOnly(title, label, xml);
                 dw.setSize(PlatformUI.MIRTH_FRAME.getWidth() - 10, PlatformUI.MIRTH_FRAME.getHeight() - 10);
                 dw.setVisible(true);
@@ -357,11 +346,7 @@ public class DeletedItemsSettingsPanel extends AbstractSettingsPanel {
         DeletedItemInfo info = model.getItemAt(table.convertRowIndexToModel(row));
         try {
             String xml;
-            if (DeletedItemInfo.TYPE_CHANNEL.equals(info.getType())) {
-                xml = svc.getDeletedChannelContent(info.getId());
-            } else {
-                xml = svc.getDeletedCodeTemplateContent(info.getId());
-            }
+            xml = getContent(svc, info);
 
             if (xml == null) {
                 PlatformUI.MIRTH_FRAME.alertError(this, "No content found for this deleted item.");
@@ -0,0 +1,260 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.patch.AbstractDelta;
+import com.github.difflib.patch.Patch;
+
+/**
+ * Both sides of a line diff aligned row by row, with padding rows where one side
+ * has no line. Computed once per diff, the views only read rows from it. Word
+ * highlights of changed line pairs are computed when a row is first rendered.
+ */
+final class DiffLineModel {
+
+    enum RowType {
+        UNCHANGED,
+        ADDED,
+        DELETED,
+        CHANGED,
+        PADDING,
+        // unchanged rows hidden by collapse(), on both sides
+        FOLD
+    }
+
+    static final class Row {
+        final RowType type;
+        final String text;
+        // 1-based line number in its document, -1 for padding rows
+        final int lineNumber;
+        private final boolean source;
+        // for FOLD rows, the first hidden row of the full model and how many are hidden
+        final int foldStart;
+        final int foldSize;
+        // the other side of a changed line pair, null unless both sides have a line
+        private Row pair;
+        private boolean[] highlights;
+
+        private Row(RowType type, String text, int lineNumber, boolean source) {
+            this(type, text, lineNumber, source, -1, 0);
+        }
+
+        private Row(RowType type, String text, int lineNumber, boolean source, int foldStart, int foldSize) {
+            this.type = type;
+            this.text = text;
+            this.lineNumber = lineNumber;
+            this.source = source;
+            this.foldStart = foldStart;
+            this.foldSize = foldSize;
+        }
+
+        /**
+         * Characters that differ from the other side of a changed line pair, or
+         * null when the row isn't part of one.
+         */
+        boolean[] getHighlights() {
+            if (pair == null) {
+                return null;
+            }
+            if (highlights == null) {
+                Row oldRow = source ? this : pair;
+                Row newRow = source ? pair : this;
+                InlineDiff.Highlights inline = InlineDiff.compute(oldRow.text, newRow.text);
+                oldRow.highlights = inline.oldHighlights;
+                newRow.highlights = inline.newHighlights;
+            }
+            return highlights;
+        }
+    }
+
+    private final List<Row> leftRows;
+    private final List<Row> rightRows;
+    private final int maxLineNumber;
+
+    private DiffLineModel(List<Row> leftRows, List<Row> rightRows, int maxLineNumber) {
+        this.leftRows = leftRows;
+        this.rightRows = rightRows;
+        this.maxLineNumber = maxLineNumber;
+    }
+
+    /**
+     * Single document without a diff, every row unchanged.
+     */
+    static DiffLineModel view(String content) {
+        List<String> lines = splitLines(content);
+        List<Row> rows = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            rows.add(new Row(RowType.UNCHANGED, lines.get(i), i + 1, true));
+        }
+        return new DiffLineModel(rows, Collections.emptyList(), lines.size());
+    }
+
+    static DiffLineModel diff(String leftContent, String rightContent) {
+        List<String> leftLines = splitLines(leftContent);
+        List<String> rightLines = splitLines(rightContent);
+
+        Patch<String> patch = DiffUtils.diff(leftLines, rightLines);
+
+        List<Row> left = new ArrayList<>(leftLines.size());
+        List<Row> right = new ArrayList<>(rightLines.size());
+
+        // Track current position in each file
+        int leftLine = 0;
+        int rightLine = 0;
+
+        for (AbstractDelta<String> delta : patch.getDeltas()) {
+            int sourceStart = delta.getSource().getPosition();
+            int targetStart = delta.getTarget().getPosition();
+
+            // Add unchanged lines before this delta
+            while (leftLine < sourceStart) {
+                left.add(new Row(RowType.UNCHANGED, leftLines.get(leftLine), leftLine + 1, true));
+                leftLine++;
+            }
+            while (rightLine < targetStart) {
+                right.add(new Row(RowType.UNCHANGED, rightLines.get(rightLine), rightLine + 1, false));
+                rightLine++;
+            }
+
+            switch (delta.getType()) {
+                case DELETE:
+                    // Lines deleted from left, padding on right keeps alignment
+                    for (String line : delta.getSource().getLines()) {
+                        left.add(new Row(RowType.DELETED, line, leftLine + 1, true));
+                        right.add(padding(false));
+                        leftLine++;
+                    }
+                    break;
+
+                case INSERT:
+                    // Lines added to right, padding on left keeps alignment
+                    for (String line : delta.getTarget().getLines()) {
+                        left.add(padding(true));
+                        right.add(new Row(RowType.ADDED, line, rightLine + 1, false));
+                        rightLine++;
+                    }
+                    break;
+
+                case CHANGE:
+                    // Lines changed - old on left, new on right, paired lines get word-level highlights
+                    List<String> oldLines = delta.getSource().getLines();
+                    List<String> newLines = delta.getTarget().getLines();
+                    int maxLines = Math.max(oldLines.size(), newLines.size());
+
+                    for (int i = 0; i < maxLines; i++) {
+                        Row oldRow = i < oldLines.size()
+                                ? new Row(RowType.CHANGED, oldLines.get(i), ++leftLine, true) : padding(true);
+                        Row newRow = i < newLines.size()
+                                ? new Row(RowType.CHANGED, newLines.get(i), ++rightLine, false) : padding(false);
+                        if (oldRow.type == RowType.CHANGED && newRow.type == RowType.CHANGED) {
+                            oldRow.pair = newRow;
+                            newRow.pair = oldRow;
+                        }
+                        left.add(oldRow);
+                        right.add(newRow);
+                    }
+                    break;
+
+                default:
+                    break;
+            }
+        }
+
+        // Add remaining unchanged lines
+        while (leftLine < leftLines.size()) {
+            left.add(new Row(RowType.UNCHANGED, leftLines.get(leftLine), leftLine + 1, true));
+            leftLine++;
+        }
+        while (rightLine < rightLines.size()) {
+            right.add(new Row(RowType.UNCHANGED, rightLines.get(rightLine), rightLine + 1, false));
+            rightLine++;
+        }
+
+        return new DiffLineModel(left, right, Math.max(leftLines.size(), rightLines.size()));
+    }
+
+    /**
+     * The changed rows with {@code context} unchanged rows around each change.
+     * Longer runs of unchanged rows become a single FOLD row on each side, unless
+     * their first row index is in {@code expandedFolds}. Rows are shared with this
+     * model, so highlights already computed are kept. Returns this model when
+     * nothing changed, there is nothing to show changes around.
+     */
+    DiffLineModel collapse(int context, Set<Integer> expandedFolds) {
+        int rowCount = getRowCount();
+        if (rightRows.size() != rowCount) {
+            return this;
+        }
+
+        boolean[] keep = new boolean[rowCount];
+        boolean changed = false;
+        for (int i = 0; i < rowCount; i++) {
+            if (leftRows.get(i).type != RowType.UNCHANGED || rightRows.get(i).type != RowType.UNCHANGED) {
+                changed = true;
+                Arrays.fill(keep, Math.max(0, i - context), Math.min(rowCount, i + context + 1), true);
+            }
+        }
+        if (!changed) {
+            return this;
+        }
+
+        List<Row> left = new ArrayList<>();
+        List<Row> right = new ArrayList<>();
+        int i = 0;
+        while (i < rowCount) {
+            if (keep[i]) {
+                left.add(leftRows.get(i));
+                right.add(rightRows.get(i));
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < rowCount && !keep[i]) {
+                i++;
+            }
+            int size = i - start;
+            // a fold row in place of a single line saves nothing
+            if (size == 1 || expandedFolds.contains(start)) {
+                left.addAll(leftRows.subList(start, i));
+                right.addAll(rightRows.subList(start, i));
+            } else {
+                String text = "... " + size + " unchanged lines, click to show ...";
+                left.add(new Row(RowType.FOLD, text, -1, true, start, size));
+                right.add(new Row(RowType.FOLD, text, -1, false, start, size));
+            }
+        }
+        return new DiffLineModel(left, right, maxLineNumber);
+    }
+
+    List<Row> getLeftRows() {
+        return leftRows;
+    }
+
+    List<Row> getRightRows() {
+        return rightRows;
+    }
+
+    int getRowCount() {
+        return Math.max(leftRows.size(), rightRows.size());
+    }
+
+    int getMaxLineNumber() {
+        return maxLineNumber;
+    }
+
+    private static Row padding(boolean source) {
+        return new Row(RowType.PADDING, "", -1, source);
+    }
+
+    private static List<String> splitLines(String content) {
+        return content.isEmpty() ? List.of() : Arrays.asList(content.split("\n", -1));
+    }
+}
@@ -0,0 +1,267 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Word-level highlights for a pair of changed lines. Lines are split into int
+ * tokens (words, whitespace runs and single punctuation characters, or single
+ * characters) and compared with Myers' algorithm over the token arrays, after
+ * trimming the common prefix and suffix. When the part that differs is too long
+ * even for characters, or needs too many edits, all of it is highlighted instead.
+ */
+final class InlineDiff {
+
+    // Longest differing middle, in characters, that is diffed rather than highlighted whole
+    static final int MAX_LENGTH = 20_000;
+    // Most token edits searched for before highlighting the whole middle
+    static final int MAX_EDITS = 500;
+
+    private InlineDiff() {
+    }
+
+    /**
+     * Highlight masks of both lines, true for characters that aren't common to
+     * both, in the same form {@link SimpleDiffPanel#computeInlineHighlights} returns.
+     */
+    static final class Highlights {
+        final boolean[] oldHighlights;
+        final boolean[] newHighlights;
+
+        Highlights(boolean[] oldHighlights, boolean[] newHighlights) {
+            this.oldHighlights = oldHighlights;
+            this.newHighlights = newHighlights;
+        }
+    }
+
+    static Highlights compute(String oldLine, String newLine) {
+        return compute(oldLine, newLine, true);
+    }
+
+    /**
+     * @param words compare word tokens, otherwise single characters. Words fall
+     *              back to characters when a long run without word breaks, like
+     *              base64, leaves too much to diff.
+     */
+    static Highlights compute(String oldLine, String newLine, boolean words) {
+        char[] a = oldLine.toCharArray();
+        char[] b = newLine.toCharArray();
+
+        Highlights highlights = words ? diff(a, b, true) : null;
+        if (highlights == null) {
+            highlights = diff(a, b, false);
+        }
+        return highlights;
+    }
+
+    /**
+     * @return null in word mode when the part that differs is longer than {@link #MAX_LENGTH}
+     */
+    private static Highlights diff(char[] a, char[] b, boolean words) {
+        boolean[] oldHighlights = new boolean[a.length];
+        boolean[] newHighlights = new boolean[b.length];
+
+        int prefix = commonPrefix(a, b, words);
+        int suffix = commonSuffix(a, b, prefix, words);
+        int aEnd = a.length - suffix;
+        int bEnd = b.length - suffix;
+
+        if (aEnd - prefix > MAX_LENGTH || bEnd - prefix > MAX_LENGTH) {
+            if (words) {
+                return null;
+            }
+            Arrays.fill(oldHighlights, prefix, aEnd, true);
+            Arrays.fill(newHighlights, prefix, bEnd, true);
+            return new Highlights(oldHighlights, newHighlights);
+        }
+
+        Tokens oldTokens;
+        Tokens newTokens;
+        if (words) {
+            Map<String, Integer> ids = new HashMap<>();
+            oldTokens = Tokens.words(a, prefix, aEnd, ids);
+            newTokens = Tokens.words(b, prefix, bEnd, ids);
+        } else {
+            oldTokens = Tokens.chars(a, prefix, aEnd);
+            newTokens = Tokens.chars(b, prefix, bEnd);
+        }
+
+        boolean[] oldMatched = new boolean[oldTokens.count];
+        boolean[] newMatched = new boolean[newTokens.count];
+        if (!myers(oldTokens.ids, oldTokens.count, newTokens.ids, newTokens.count, oldMatched, newMatched)) {
+            Arrays.fill(oldHighlights, prefix, aEnd, true);
+            Arrays.fill(newHighlights, prefix, bEnd, true);
+            return new Highlights(oldHighlights, newHighlights);
+        }
+
+        oldTokens.highlightUnmatched(oldMatched, oldHighlights);
+        newTokens.highlightUnmatched(newMatched, newHighlights);
+        return new Highlights(oldHighlights, newHighlights);
+    }
+
+    /**
+     * Token ids of part of a line with the offset each token starts at.
+     */
+    private static final class Tokens {
+        final int[] ids;
+        // starts[count] is the end of the last token
+        final int[] starts;
+        final int count;
+
+        private Tokens(int[] ids, int[] starts, int count) {
+            this.ids = ids;
+            this.starts = starts;
+            this.count = count;
+        }
+
+        static Tokens chars(char[] text, int start, int end) {
+            int count = end - start;
+            int[] ids = new int[count];
+            int[] starts = new int[count + 1];
+            for (int i = 0; i < count; i++) {
+                ids[i] = text[start + i];
+                starts[i] = start + i;
+            }
+            starts[count] = end;
+            return new Tokens(ids, starts, count);
+        }
+
+        static Tokens words(char[] text, int start, int end, Map<String, Integer> idsByToken) {
+            int[] ids = new int[end - start];
+            int[] starts = new int[end - start + 1];
+            int count = 0;
+            int i = start;
+            while (i < end) {
+                int tokenStart = i;
+                char c = text[i++];
+                if (isWordChar(c)) {
+                    while (i < end && isWordChar(text[i])) {
+                        i++;
+                    }
+                } else if (Character.isWhitespace(c)) {
+                    while (i < end && Character.isWhitespace(text[i])) {
+                        i++;
+                    }
+                }
+                // words and whitespace runs share ids through the map, other characters are their own id
+                ids[count] = i - tokenStart == 1 && !isWordChar(c)
+                        ? c
+                        : -1 - idsByToken.computeIfAbsent(new String(text, tokenStart, i - tokenStart),
+                                k -> idsByToken.size());
+                starts[count++] = tokenStart;
+            }
+            starts[count] = end;
+            return new Tokens(ids, starts, count);
+        }
+
+        void highlightUnmatched(boolean[] matched, boolean[] highlights) {
+            for (int t = 0; t < count; t++) {
+                if (!matched[t]) {
+                    Arrays.fill(highlights, starts[t], starts[t + 1], true);
+                }
+            }
+        }
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static int commonPrefix(char[] a, char[] b, boolean words) {
+        int max = Math.min(a.length, b.length);
+        int prefix = 0;
+        while (prefix < max && a[prefix] == b[prefix]) {
+            prefix++;
+        }
+        // don't stop inside a word, it would be split into two tokens
+        if (words) {
+            while (prefix > 0 && isWordChar(a[prefix - 1])
+                    && ((prefix < a.length && isWordChar(a[prefix])) || (prefix < b.length && isWordChar(b[prefix])))) {
+                prefix--;
+            }
+        }
+        return prefix;
+    }
+
+    private static int commonSuffix(char[] a, char[] b, int prefix, boolean words) {
+        int max = Math.min(a.length, b.length) - prefix;
+        int suffix = 0;
+        while (suffix < max && a[a.length - 1 - suffix] == b[b.length - 1 - suffix]) {
+            suffix++;
+        }
+        if (words) {
+            while (suffix > 0 && isWordChar(a[a.length - suffix])
+                    && ((suffix < a.length && isWordChar(a[a.length - 1 - suffix]))
+                        || (suffix < b.length && isWordChar(b[b.length - 1 - suffix])))) {
+                suffix--;
+            }
+        }
+        return suffix;
+    }
+
+    /**
+     * Myers' greedy shortest edit script over token ids, marking the tokens on
+     * the common subsequence. Only the diagonals reached at each edit distance
+     * are kept for the backtrack, so memory grows with the square of the number
+     * of edits rather than with the token counts.
+     *
+     * @return false when more than {@link #MAX_EDITS} edits are needed
+     */
+    static boolean myers(int[] a, int n, int[] b, int m, boolean[] aMatched, boolean[] bMatched) {
+        int max = n + m;
+        int offset = max + 1;
+        int[] v = new int[2 * max + 3];
+        List<int[]> trace = new ArrayList<>();
+
+        for (int d = 0; d <= Math.min(max, MAX_EDITS); d++) {
+            // furthest x on each diagonal after d - 1 edits, diagonal k at index k + d
+            trace.add(Arrays.copyOfRange(v, offset - d, offset + d + 1));
+            for (int k = -d; k <= d; k += 2) {
+                int x = k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])
+                        ? v[offset + k + 1]
+                        : v[offset + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && a[x] == b[y]) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    backtrack(trace, d, n, m, aMatched, bMatched);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void backtrack(List<int[]> trace, int edits, int n, int m, boolean[] aMatched, boolean[] bMatched) {
+        int x = n;
+        int y = m;
+        for (int d = edits; d > 0; d--) {
+            int[] previous = trace.get(d);
+            int k = x - y;
+            int previousK = k == -d || (k != d && previous[k - 1 + d] < previous[k + 1 + d]) ? k + 1 : k - 1;
+            int previousX = previous[previousK + d];
+            int previousY = previousX - previousK;
+            // the snake after the edit
+            while (x > previousX && y > previousY) {
+                aMatched[--x] = true;
+                bMatched[--y] = true;
+            }
+            x = previousX;
+            y = previousY;
+        }
+        // the snake before the first edit
+        while (x > 0 && y > 0) {
+            aMatched[--x] = true;
+            bMatched[--y] = true;
+        }
+    }
+}
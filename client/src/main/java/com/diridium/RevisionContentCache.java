@@ -0,0 +1,189 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Least recently used cache of revision XML and its decompositions, bounded by
+ * approximate memory use rather than entry count. History and deleted item
+ * rows never change once written, so entries keyed by row id never go stale.
+ * Shared by the channel, code template and deleted item views.
+ */
+public class RevisionContentCache {
+
+    public static final String CHANNEL = "channel";
+    public static final String CODE_TEMPLATE = "codeTemplate";
+    public static final String DELETED_CHANNEL = "deletedChannel";
+    public static final String DELETED_CODE_TEMPLATE = "deletedCodeTemplate";
+
+    public static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+
+    private static final RevisionContentCache INSTANCE = new RevisionContentCache(DEFAULT_MAX_BYTES);
+
+    // rough per-object overhead added to the character data of each entry
+    private static final int OBJECT_OVERHEAD = 48;
+
+    public interface ContentLoader {
+        String load() throws Exception;
+    }
+
+    public interface BulkContentLoader {
+        /** Returns the content of the given revisions keyed by id, leaving out missing ones. */
+        Map<String, String> load(List<String> ids) throws Exception;
+    }
+
+    private static class Entry {
+        final Object value;
+        final long bytes;
+
+        Entry(Object value, long bytes) {
+            this.value = value;
+            this.bytes = bytes;
+        }
+    }
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    public RevisionContentCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public static RevisionContentCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the cached XML of a revision, calling {@code loader} only when it
+     * is not cached. Null content is returned but not cached.
+     */
+    public String getContent(String type, Object id, ContentLoader loader) throws Exception {
+        String key = type + "/" + id;
+        String content = (String) get(key);
+        if (content == null) {
+            content = loader.load();
+            if (content != null) {
+                put(key, content, sizeOf(content));
+            }
+        }
+        return content;
+    }
+
+    /**
+     * Returns the cached XML of several revisions keyed by id, in the order
+     * given, fetching all the uncached ones with a single call to {@code loader}.
+     * Revisions without content are left out.
+     */
+    public Map<String, String> getContents(String type, List<String> ids, BulkContentLoader loader) throws Exception {
+        Map<String, String> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String id : ids) {
+            String content = (String) get(type + "/" + id);
+            if (content != null) {
+                found.put(id, content);
+            } else if (!missing.contains(id)) {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            for (Map.Entry<String, String> loaded : loader.load(missing).entrySet()) {
+                if (loaded.getValue() != null && missing.contains(loaded.getKey())) {
+                    found.put(loaded.getKey(), loaded.getValue());
+                    put(type + "/" + loaded.getKey(), loaded.getValue(), sizeOf(loaded.getValue()));
+                }
+            }
+        }
+
+        Map<String, String> contents = new LinkedHashMap<>();
+        for (String id : ids) {
+            if (found.containsKey(id)) {
+                contents.put(id, found.get(id));
+            }
+        }
+        return contents;
+    }
+
+    /**
+     * Returns the decomposition of a channel or code template revision whose XML
+     * is {@code xml}, decomposing it only when it is not cached.
+     */
+    public ChannelXmlDecomposer.DecomposeResult getDecomposed(String type, Object id, String xml) throws Exception {
+        String key = type + "/" + id + "/decomposed";
+        ChannelXmlDecomposer.DecomposeResult result = (ChannelXmlDecomposer.DecomposeResult) get(key);
+        if (result == null) {
+            result = isCodeTemplate(type) ? CodeTemplateXmlDecomposer.decomposeWithNames(xml)
+                    : ChannelXmlDecomposer.decomposeWithNames(xml);
+            put(key, result, sizeOf(result));
+        }
+        return result;
+    }
+
+    public synchronized long getSizeInBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    private synchronized Object get(String key) {
+        Entry entry = entries.get(key);
+        return entry != null ? entry.value : null;
+    }
+
+    private synchronized void put(String key, Object value, long bytes) {
+        // larger than the whole cache, keep what is already there
+        if (bytes > maxBytes) {
+            return;
+        }
+
+        Entry previous = entries.put(key, new Entry(value, bytes));
+        if (previous != null) {
+            totalBytes -= previous.bytes;
+        }
+        totalBytes += bytes;
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Entry> evicted = eldest.next();
+            if (!evicted.getKey().equals(key)) {
+                totalBytes -= evicted.getValue().bytes;
+                eldest.remove();
+            }
+        }
+    }
+
+    private static boolean isCodeTemplate(String type) {
+        return CODE_TEMPLATE.equals(type) || DELETED_CODE_TEMPLATE.equals(type);
+    }
+
+    private static long sizeOf(String s) {
+        return s == null ? 0 : OBJECT_OVERHEAD + 2L * s.length();
+    }
+
+    private static long sizeOf(ChannelXmlDecomposer.DecomposeResult result) {
+        long bytes = OBJECT_OVERHEAD;
+        for (DecomposedComponent component : result.getComponents().values()) {
+            bytes += OBJECT_OVERHEAD + sizeOf(component.getKey()) + sizeOf(component.getDisplayName())
+                    + sizeOf(component.getContent()) + sizeOf(component.getParentGroup());
+        }
+        for (Map.Entry<String, String> name : result.getGroupDisplayNames().entrySet()) {
+            bytes += sizeOf(name.getKey()) + sizeOf(name.getValue());
+        }
+        return bytes;
+    }
+}
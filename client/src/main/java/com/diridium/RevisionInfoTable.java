@@ -3,6 +3,11 @@
 
 package com.diridium;
 
+import java.awt.Point;
+import java.util.function.Consumer;
+
+import javax.swing.JScrollPane;
+
 import org.jdesktop.swingx.decorator.HighlighterFactory;
 
 import com.mirth.connect.client.ui.UIConstants;
@@ -13,9 +18,35 @@ import com.mirth.connect.client.ui.components.MirthTable;
  */
 public class RevisionInfoTable extends MirthTable {
 
+    // start fetching the next page this many rows before the end is visible
+    private static final int PREFETCH_ROWS = 20;
+
     public RevisionInfoTable() {
         super();
         setHighlighters(HighlighterFactory.createAlternateStriping(UIConstants.HIGHLIGHTER_COLOR, UIConstants.BACKGROUND_COLOR));
         setSortable(false);
     }
+
+    /**
+     * Loads further pages of a paged {@link RevisionInfoTableModel} as the
+     * user scrolls towards the last loaded row.
+     */
+    public void installPageLoading(JScrollPane scrollPane, Consumer<Exception> errorHandler) {
+        // also fires when rows are added, so a short first page keeps loading until the view is filled
+        scrollPane.getViewport().addChangeListener(e -> {
+            if (!(getModel() instanceof RevisionInfoTableModel)) {
+                return;
+            }
+            RevisionInfoTableModel model = (RevisionInfoTableModel) getModel();
+            if (!model.hasMore()) {
+                return;
+            }
+
+            int lastVisibleRow = rowAtPoint(new Point(0, scrollPane.getViewport().getViewRect().y
+                    + scrollPane.getViewport().getExtentSize().height - 1));
+            if (lastVisibleRow < 0 || lastVisibleRow >= getRowCount() - PREFETCH_ROWS) {
+                model.loadNextPageInBackground(errorHandler);
+            }
+        });
+    }
 }
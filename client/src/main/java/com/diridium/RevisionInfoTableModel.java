@@ -6,9 +6,14 @@ package com.diridium;
 
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
+import javax.swing.SwingWorker;
 import javax.swing.table.AbstractTableModel;
 
 /**
@@ -16,7 +21,29 @@ import javax.swing.table.AbstractTableModel;
  */
 public class RevisionInfoTableModel extends AbstractTableModel {
 
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    // a failed background load is retried after this delay, doubled for each further failure
+    private static final long INITIAL_RETRY_DELAY_MS = 1000;
+    private static final long MAX_RETRY_DELAY_MS = 60_000;
+
+    /**
+     * Loads up to {@code limit} revisions older than {@code beforeId}, newest
+     * first. {@code beforeId} is null for the first page.
+     */
+    @FunctionalInterface
+    public interface PageLoader {
+        List<RevisionInfo> loadPage(Long beforeId, int limit) throws Exception;
+    }
+
     private final List<RevisionInfo> revisions;
+    private final PageLoader pageLoader;
+    private final int pageSize;
+    private boolean hasMore;
+    private boolean loading;
+    private long retryDelayMs;
+    private long retryAfterNanos;
+    private final List<Runnable> pageLoadedCallbacks = new ArrayList<>();
 
     private static final DateFormat df = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
 
@@ -24,6 +51,118 @@ public class RevisionInfoTableModel extends AbstractTableModel {
 
     public RevisionInfoTableModel(List<RevisionInfo> revisions) {
         this.revisions = revisions;
+        this.pageLoader = null;
+        this.pageSize = 0;
+    }
+
+    /**
+     * Creates an empty model that fetches revisions from {@code pageLoader} one
+     * page at a time.
+     */
+    public RevisionInfoTableModel(PageLoader pageLoader, int pageSize) {
+        this.revisions = new ArrayList<>();
+        this.pageLoader = pageLoader;
+        this.pageSize = pageSize;
+        this.hasMore = true;
+    }
+
+    /**
+     * Returns true if older revisions may exist that have not been loaded yet.
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    boolean isLoading() {
+        return loading;
+    }
+
+    /**
+     * Loads the next page on the calling thread.
+     */
+    public void loadNextPage() throws Exception {
+        if (!hasMore) {
+            return;
+        }
+        appendPage(pageLoader.loadPage(getOldestId(), pageSize));
+    }
+
+    /**
+     * Loads the next page on a background thread unless one is already being
+     * loaded. Rows are appended on the event dispatch thread. After a failed
+     * load the next attempt waits for a backoff that grows with each failure,
+     * so scrolling does not ask a failing server again right away.
+     */
+    public void loadNextPageInBackground(Consumer<Exception> errorHandler) {
+        loadNextPageInBackground(null, errorHandler);
+    }
+
+    /**
+     * Like {@link #loadNextPageInBackground(Consumer)}, running {@code onLoaded}
+     * on the event dispatch thread once the page has been added, including when
+     * a load was already in progress. It does not run if loading fails. A load
+     * with {@code onLoaded} is an explicit request and ignores the backoff.
+     */
+    public void loadNextPageInBackground(Runnable onLoaded, Consumer<Exception> errorHandler) {
+        if (!hasMore) {
+            return;
+        }
+        if (onLoaded == null && retryDelayMs > 0 && System.nanoTime() - retryAfterNanos < 0) {
+            return;
+        }
+        if (onLoaded != null) {
+            pageLoadedCallbacks.add(onLoaded);
+        }
+        if (loading) {
+            return;
+        }
+
+        loading = true;
+        Long beforeId = getOldestId();
+        new SwingWorker<List<RevisionInfo>, Void>() {
+            @Override
+            protected List<RevisionInfo> doInBackground() throws Exception {
+                return pageLoader.loadPage(beforeId, pageSize);
+            }
+
+            @Override
+            protected void done() {
+                loading = false;
+                List<Runnable> callbacks = new ArrayList<>(pageLoadedCallbacks);
+                pageLoadedCallbacks.clear();
+                try {
+                    List<RevisionInfo> page = get();
+                    retryDelayMs = 0;
+                    // a synchronous load may already have appended this page
+                    if (Objects.equals(beforeId, getOldestId())) {
+                        appendPage(page);
+                    }
+                    callbacks.forEach(Runnable::run);
+                } catch (ExecutionException e) {
+                    // older revisions may still exist, so keep paging after a backoff
+                    retryDelayMs = retryDelayMs == 0 ? INITIAL_RETRY_DELAY_MS : Math.min(retryDelayMs * 2, MAX_RETRY_DELAY_MS);
+                    retryAfterNanos = System.nanoTime() + retryDelayMs * 1_000_000;
+                    errorHandler.accept(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }.execute();
+    }
+
+    void appendPage(List<RevisionInfo> page) {
+        hasMore = page.size() >= pageSize;
+        if (page.isEmpty()) {
+            return;
+        }
+
+        int firstRow = revisions.size();
+        revisions.addAll(page);
+        fireTableRowsInserted(firstRow, revisions.size() - 1);
+    }
+
+    private Long getOldestId() {
+        return revisions.isEmpty() ? null : Long.valueOf(revisions.get(revisions.size() - 1).getHash());
     }
 
     @Override
@@ -11,27 +11,35 @@ import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics;
+import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.event.AdjustmentEvent;
 import java.awt.event.AdjustmentListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.ToIntFunction;
 
+import javax.swing.JComponent;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JSplitPane;
 import javax.swing.JTextArea;
 import javax.swing.JTextPane;
+import javax.swing.SwingUtilities;
 import javax.swing.text.BadLocationException;
-import javax.swing.text.Style;
+import javax.swing.text.DefaultStyledDocument;
+import javax.swing.text.Element;
+import javax.swing.text.SimpleAttributeSet;
 import javax.swing.text.StyleConstants;
 import javax.swing.text.StyledDocument;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.github.difflib.DiffUtils;
 import com.github.difflib.patch.AbstractDelta;
 import com.github.difflib.patch.Patch;
 
@@ -44,78 +52,176 @@ public class SimpleDiffPanel extends JPanel {
 
     private static final Logger log = LoggerFactory.getLogger(SimpleDiffPanel.class);
 
-    private static final Color COLOR_ADDED = new Color(200, 255, 200);      // Light green
-    private static final Color COLOR_DELETED = new Color(255, 200, 200);    // Light red
-    private static final Color COLOR_CHANGED_OLD = COLOR_DELETED;           // Changed old side = light red
-    private static final Color COLOR_CHANGED_NEW = COLOR_ADDED;             // Changed new side = light green
-    private static final Color COLOR_HIGHLIGHT_OLD = new Color(255, 150, 150); // Darker red for changed words
-    private static final Color COLOR_HIGHLIGHT_NEW = new Color(130, 220, 130); // Darker green for changed words
-    private static final Color COLOR_PADDING = new Color(220, 220, 220);        // Gray for alignment gaps
-    private static final Color COLOR_LINE_NUMBER_BG = new Color(240, 240, 240); // Light gray
-
-    private DiffTextPane leftPane;
-    private DiffTextPane rightPane;
-    private JTextArea leftLineNumbers;
-    private JTextArea rightLineNumbers;
+    // Above this many aligned rows the diff is painted by VirtualDiffView instead of a text pane
+    static final int VIRTUAL_ROW_THRESHOLD = 5000;
+
+    static final Color COLOR_ADDED = new Color(200, 255, 200);      // Light green
+    static final Color COLOR_DELETED = new Color(255, 200, 200);    // Light red
+    static final Color COLOR_CHANGED_OLD = COLOR_DELETED;           // Changed old side = light red
+    static final Color COLOR_CHANGED_NEW = COLOR_ADDED;             // Changed new side = light green
+    static final Color COLOR_HIGHLIGHT_OLD = new Color(255, 150, 150); // Darker red for changed words
+    static final Color COLOR_HIGHLIGHT_NEW = new Color(130, 220, 130); // Darker green for changed words
+    static final Color COLOR_PADDING = new Color(220, 220, 220);        // Gray for alignment gaps
+    static final Color COLOR_LINE_NUMBER_BG = new Color(240, 240, 240); // Light gray
+    static final Color COLOR_FOLD = new Color(225, 235, 250);           // Light blue for collapsed lines
+
+    // Unchanged lines shown around each change when unchanged lines are collapsed
+    public static final int DEFAULT_CONTEXT_LINES = 3;
+
+    private static final Font FONT = new Font("Monospaced", Font.PLAIN, 12);
+
     private JScrollPane leftScrollPane;
     private JScrollPane rightScrollPane;
     private boolean syncingScroll = false;
+    // first rows of the collapsed runs the user has expanded
+    private final Set<Integer> expandedFolds = new HashSet<>();
+
+    /**
+     * Everything a panel shows, built by {@link #prepare} or {@link #prepareView}
+     * on any thread. Text pane documents are built detached and attached once, so
+     * only creating the components is left for the event dispatch thread.
+     */
+    static final class Prepared {
+        private final DiffLineModel model;
+        // the uncollapsed model when unchanged lines are collapsed, otherwise null
+        private final DiffLineModel fullModel;
+        private final int contextLines;
+        private final boolean viewOnly;
+        // null when the rows are painted by VirtualDiffView
+        final Side left;
+        final Side right;
+
+        private Prepared(DiffLineModel model, boolean viewOnly) {
+            this(model, null, 0, viewOnly);
+        }
 
-    private StringBuilder leftLineNumBuilder = new StringBuilder();
-    private StringBuilder rightLineNumBuilder = new StringBuilder();
+        private Prepared(DiffLineModel model, DiffLineModel fullModel, int contextLines, boolean viewOnly) {
+            this.model = model;
+            this.fullModel = fullModel;
+            this.contextLines = contextLines;
+            this.viewOnly = viewOnly;
+            boolean virtual = model.getRowCount() > VIRTUAL_ROW_THRESHOLD;
+            this.left = virtual ? null : new Side(model.getLeftRows(), true);
+            this.right = virtual || viewOnly ? null : new Side(model.getRightRows(), false);
+        }
+    }
 
     /**
-     * View-only constructor — single scroll pane with line numbers, no diff.
+     * One side's document, line backgrounds and line number text for a text pane.
      */
-    public SimpleDiffPanel(String content) {
-        setLayout(new BorderLayout());
+    static final class Side {
+        final StyledDocument document = new DefaultStyledDocument();
+        final List<Color> lineColors;
+        final String lineNumbers;
+
+        Side(List<DiffLineModel.Row> rows, boolean source) {
+            lineColors = new ArrayList<>(rows.size());
+            StringBuilder text = new StringBuilder();
+            StringBuilder lineNumberText = new StringBuilder(rows.size() * 6);
+            for (DiffLineModel.Row row : rows) {
+                if (!lineColors.isEmpty()) {
+                    text.append('\n');
+                    lineNumberText.append('\n');
+                }
+                text.append(row.text.isEmpty() ? " " : row.text);
+                lineColors.add(backgroundFor(row.type, source));
+                appendLineNumber(lineNumberText, row.lineNumber);
+            }
+            lineNumbers = lineNumberText.toString();
+
+            try {
+                // One insert for the whole text, then character backgrounds on changed lines
+                document.insertString(0, text.toString(), null);
+                applyHighlights(rows, source);
+            } catch (BadLocationException e) {
+                log.error("Error rendering diff", e);
+            }
+        }
 
-        leftPane = createTextPane();
-        leftLineNumbers = createLineNumberArea();
+        private void applyHighlights(List<DiffLineModel.Row> rows, boolean source) {
+            // Light background on the characters of changed lines, darker on changed words
+            SimpleAttributeSet changedChar = new SimpleAttributeSet();
+            StyleConstants.setBackground(changedChar, backgroundFor(DiffLineModel.RowType.CHANGED, source));
+            SimpleAttributeSet highlight = new SimpleAttributeSet();
+            StyleConstants.setBackground(highlight, highlightFor(source));
+            SimpleAttributeSet fold = new SimpleAttributeSet();
+            StyleConstants.setForeground(fold, Color.GRAY);
+            StyleConstants.setItalic(fold, true);
+
+            int lineStart = 0;
+            for (DiffLineModel.Row row : rows) {
+                boolean[] highlights = row.getHighlights();
+                int length = row.text.length();
+                if (row.type == DiffLineModel.RowType.FOLD) {
+                    document.setCharacterAttributes(lineStart, length, fold, false);
+                }
+                if (highlights != null && length > 0) {
+                    document.setCharacterAttributes(lineStart, length, changedChar, false);
+                    int i = 0;
+                    while (i < length) {
+                        if (i >= highlights.length || !highlights[i]) {
+                            i++;
+                            continue;
+                        }
+                        int runStart = i;
+                        while (i < length && i < highlights.length && highlights[i]) {
+                            i++;
+                        }
+                        document.setCharacterAttributes(lineStart + runStart, i - runStart, highlight, false);
+                    }
+                }
+                lineStart += Math.max(length, 1) + 1;
+            }
+        }
+    }
 
-        Dimension smallSize = new Dimension(0, 0);
-        leftScrollPane = new JScrollPane(leftPane,
-                JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED,
-                JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
-        leftScrollPane.setRowHeaderView(leftLineNumbers);
-        leftScrollPane.getViewport().setBackground(Color.WHITE);
-        leftScrollPane.setMinimumSize(smallSize);
-        leftScrollPane.setPreferredSize(smallSize);
+    static Prepared prepareView(String content) {
+        return new Prepared(DiffLineModel.view(content), true);
+    }
 
-        add(leftScrollPane, BorderLayout.CENTER);
-        displayContent(content);
+    static Prepared prepare(String leftContent, String rightContent) {
+        return new Prepared(DiffLineModel.diff(leftContent, rightContent), false);
     }
 
-    public SimpleDiffPanel(String leftContent, String rightContent) {
-        setLayout(new BorderLayout());
+    /**
+     * A diff showing only changed lines and {@code contextLines} unchanged lines
+     * around them. Each longer run of unchanged lines is a single row that shows
+     * the run when clicked.
+     */
+    static Prepared prepareCollapsed(String leftContent, String rightContent, int contextLines) {
+        DiffLineModel fullModel = DiffLineModel.diff(leftContent, rightContent);
+        return new Prepared(fullModel.collapse(contextLines, Set.of()), fullModel, contextLines, false);
+    }
 
-        // Create text panes
-        leftPane = createTextPane();
-        rightPane = createTextPane();
+    /**
+     * View-only constructor — single scroll pane with line numbers, no diff.
+     */
+    public SimpleDiffPanel(String content) {
+        this(prepareView(content));
+    }
 
-        // Create line number components
-        leftLineNumbers = createLineNumberArea();
-        rightLineNumbers = createLineNumberArea();
+    public SimpleDiffPanel(String leftContent, String rightContent) {
+        this(prepare(leftContent, rightContent));
+    }
 
-        // Create scroll panes with line numbers as row headers.
-        // Use fixed preferred/minimum sizes so content doesn't drive layout.
-        Dimension smallSize = new Dimension(0, 0);
+    /**
+     * Diff with unchanged lines collapsed, see {@link #prepareCollapsed}.
+     */
+    public SimpleDiffPanel(String leftContent, String rightContent, int contextLines) {
+        this(prepareCollapsed(leftContent, rightContent, contextLines));
+    }
 
-        leftScrollPane = new JScrollPane(leftPane,
-                JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED,
-                JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
-        leftScrollPane.setRowHeaderView(leftLineNumbers);
-        leftScrollPane.getViewport().setBackground(Color.WHITE);
-        leftScrollPane.setMinimumSize(smallSize);
-        leftScrollPane.setPreferredSize(smallSize);
+    SimpleDiffPanel(Prepared prepared) {
+        setLayout(new BorderLayout());
 
-        rightScrollPane = new JScrollPane(rightPane,
-                JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED,
-                JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
-        rightScrollPane.setRowHeaderView(rightLineNumbers);
-        rightScrollPane.getViewport().setBackground(Color.WHITE);
-        rightScrollPane.setMinimumSize(smallSize);
-        rightScrollPane.setPreferredSize(smallSize);
+        leftScrollPane = createScrollPane();
+        if (prepared.viewOnly) {
+            showPrepared(prepared);
+            add(leftScrollPane, BorderLayout.CENTER);
+            return;
+        }
+        rightScrollPane = createScrollPane();
+        showPrepared(prepared);
 
         // Synchronize scrolling
         setupScrollSync();
@@ -125,27 +231,120 @@ public class SimpleDiffPanel extends JPanel {
         splitPane.setResizeWeight(0.5);
 
         add(splitPane, BorderLayout.CENTER);
+    }
+
+    private JScrollPane createScrollPane() {
+        // Use fixed preferred/minimum sizes so content doesn't drive layout.
+        Dimension smallSize = new Dimension(0, 0);
+        JScrollPane scrollPane = new JScrollPane(
+                JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED,
+                JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
+        scrollPane.getViewport().setBackground(Color.WHITE);
+        scrollPane.setMinimumSize(smallSize);
+        scrollPane.setPreferredSize(smallSize);
+        return scrollPane;
+    }
+
+    private void showPrepared(Prepared prepared) {
+        DiffLineModel model = prepared.model;
+        showSide(leftScrollPane, prepared, prepared.left, model.getLeftRows(), true);
+        if (!prepared.viewOnly) {
+            showSide(rightScrollPane, prepared, prepared.right, model.getRightRows(), false);
+        }
+    }
+
+    /**
+     * Shows one side with line numbers as the row header. Large documents get a
+     * {@link VirtualDiffView}, where whole rows are selected and copied, others a
+     * text pane.
+     */
+    private void showSide(JScrollPane scrollPane, Prepared prepared, Side side, List<DiffLineModel.Row> rows,
+            boolean source) {
+        DiffLineModel model = prepared.model;
+        JComponent view;
+        JComponent lineNumbers;
+        ToIntFunction<Point> rowAt;
+        if (side == null) {
+            DiffLineModel documentModel = prepared.fullModel != null ? prepared.fullModel : model;
+            VirtualDiffView virtualView = new VirtualDiffView(rows,
+                    source ? documentModel.getLeftRows() : documentModel.getRightRows(), source, model.getRowCount(), FONT);
+            view = virtualView;
+            lineNumbers = new VirtualDiffView.LineNumbers(virtualView, model.getMaxLineNumber());
+            rowAt = virtualView::rowAt;
+        } else {
+            DiffTextPane pane = createTextPane();
+            pane.setStyledDocument(side.document);
+            pane.setLineBackgrounds(side.lineColors);
+            pane.setCaretPosition(0);
+
+            JTextArea lineNumberArea = createLineNumberArea();
+            lineNumberArea.setText(side.lineNumbers);
+            // Calculate width needed for line numbers
+            int digits = String.valueOf(model.getMaxLineNumber()).length();
+            FontMetrics fm = lineNumberArea.getFontMetrics(lineNumberArea.getFont());
+            int width = fm.charWidth('0') * (Math.max(digits, 4) + 2); // +2 for padding, min 4 to match %4d format
+            lineNumberArea.setPreferredSize(new Dimension(width, lineNumberArea.getPreferredSize().height));
+
+            view = pane;
+            lineNumbers = lineNumberArea;
+            rowAt = pane::rowAt;
+        }
 
-        // Compute and display diff
-        displayDiff(leftContent, rightContent);
+        if (prepared.fullModel != null) {
+            view.addMouseListener(new MouseAdapter() {
+                @Override
+                public void mouseClicked(MouseEvent e) {
+                    int row = rowAt.applyAsInt(e.getPoint());
+                    if (row >= 0 && row < rows.size() && rows.get(row).type == DiffLineModel.RowType.FOLD) {
+                        expandFold(prepared, rows.get(row).foldStart);
+                    }
+                }
+            });
+        }
+
+        scrollPane.setViewportView(view);
+        scrollPane.setRowHeaderView(lineNumbers);
+    }
+
+    /**
+     * Shows a collapsed run of unchanged lines, keeping the scroll position.
+     */
+    private void expandFold(Prepared prepared, int foldStart) {
+        expandedFolds.add(foldStart);
+        DiffLineModel fullModel = prepared.fullModel;
+        Prepared expanded = new Prepared(fullModel.collapse(prepared.contextLines, expandedFolds),
+                fullModel, prepared.contextLines, prepared.viewOnly);
+
+        int vertical = leftScrollPane.getVerticalScrollBar().getValue();
+        int horizontal = leftScrollPane.getHorizontalScrollBar().getValue();
+        showPrepared(expanded);
+        revalidate();
+        SwingUtilities.invokeLater(() -> {
+            leftScrollPane.getVerticalScrollBar().setValue(vertical);
+            leftScrollPane.getHorizontalScrollBar().setValue(horizontal);
+        });
     }
 
     private DiffTextPane createTextPane() {
         DiffTextPane pane = new DiffTextPane();
         pane.setEditable(false);
-        pane.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        pane.setFont(FONT);
         pane.setOpaque(false); // Let DiffTextPane.paintComponent handle background painting
         return pane;
     }
 
     @SuppressWarnings("deprecation")
     private static class DiffTextPane extends JTextPane {
-        private final List<int[]> lineOffsets = new ArrayList<>();
-        private final List<Color> lineColors = new ArrayList<>();
+        // background of each line, indexed like the document's paragraphs
+        private List<Color> lineColors = List.of();
+
+        void setLineBackgrounds(List<Color> lineColors) {
+            this.lineColors = lineColors;
+        }
 
-        void addLineBackground(int startOffset, int endOffset, Color color) {
-            lineOffsets.add(new int[]{startOffset, endOffset});
-            lineColors.add(color);
+        int rowAt(Point point) {
+            int offset = viewToModel(point);
+            return offset < 0 ? -1 : getDocument().getDefaultRootElement().getElementIndex(offset);
         }
 
         @Override
@@ -168,16 +367,23 @@ public class SimpleDiffPanel extends JPanel {
             g.setColor(Color.WHITE);
             g.fillRect(0, 0, getWidth(), getHeight());
 
-            // Paint full-width line backgrounds before text rendering
-            for (int i = 0; i < lineOffsets.size(); i++) {
-                Color color = lineColors.get(i);
-                if (color == null) {
-                    continue;
-                }
-                int[] offsets = lineOffsets.get(i);
+            // Paint full-width line backgrounds before text rendering, starting at the
+            // first line in the clip rather than walking every line of the document
+            Rectangle clip = g.getClipBounds();
+            if (clip == null) {
+                clip = new Rectangle(0, 0, getWidth(), getHeight());
+            }
+            Element root = getDocument().getDefaultRootElement();
+            int lineCount = Math.min(lineColors.size(), root.getElementCount());
+            int first = root.getElementIndex(Math.max(0, viewToModel(new Point(0, clip.y))));
+            for (int i = first; i < lineCount; i++) {
                 try {
-                    Rectangle r = modelToView(offsets[0]);
-                    if (r != null) {
+                    Rectangle r = modelToView(root.getElement(i).getStartOffset());
+                    if (r == null || r.y >= clip.y + clip.height) {
+                        break;
+                    }
+                    Color color = lineColors.get(i);
+                    if (color != null) {
                         g.setColor(color);
                         g.fillRect(0, r.y, getWidth(), r.height);
                     }
@@ -192,12 +398,30 @@ public class SimpleDiffPanel extends JPanel {
     private JTextArea createLineNumberArea() {
         JTextArea lineNumbers = new JTextArea();
         lineNumbers.setEditable(false);
-        lineNumbers.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        lineNumbers.setFont(FONT);
         lineNumbers.setBackground(COLOR_LINE_NUMBER_BG);
         lineNumbers.setForeground(Color.GRAY);
         return lineNumbers;
     }
 
+    /**
+     * Line background for a row, null for unchanged rows.
+     */
+    static Color backgroundFor(DiffLineModel.RowType type, boolean source) {
+        return switch (type) {
+            case ADDED -> COLOR_ADDED;
+            case DELETED -> COLOR_DELETED;
+            case CHANGED -> source ? COLOR_CHANGED_OLD : COLOR_CHANGED_NEW;
+            case PADDING -> COLOR_PADDING;
+            case FOLD -> COLOR_FOLD;
+            default -> null;
+        };
+    }
+
+    static Color highlightFor(boolean source) {
+        return source ? COLOR_HIGHLIGHT_OLD : COLOR_HIGHLIGHT_NEW;
+    }
+
     private void setupScrollSync() {
         // Sync vertical scrolling
         leftScrollPane.getVerticalScrollBar().addAdjustmentListener(new AdjustmentListener() {
@@ -246,223 +470,34 @@ public class SimpleDiffPanel extends JPanel {
         });
     }
 
-    private void displayDiff(String leftContent, String rightContent) {
-        List<String> leftLines = leftContent.isEmpty() ? List.of() : Arrays.asList(leftContent.split("\n", -1));
-        List<String> rightLines = rightContent.isEmpty() ? List.of() : Arrays.asList(rightContent.split("\n", -1));
-
-        Patch<String> patch = DiffUtils.diff(leftLines, rightLines);
-
-        StyledDocument leftDoc = leftPane.getStyledDocument();
-        StyledDocument rightDoc = rightPane.getStyledDocument();
-
-        // Normal style (no background) — used for unchanged text and as base for changed lines
-        Style normalStyle = leftDoc.addStyle("normal", null);
-        rightDoc.addStyle("normal", null);
-
-        // Character-level highlight styles for inline word diffs (darker colors)
-        Style highlightOldStyle = leftDoc.addStyle("highlightOld", null);
-        StyleConstants.setBackground(highlightOldStyle, COLOR_HIGHLIGHT_OLD);
-
-        Style highlightNewStyle = rightDoc.addStyle("highlightNew", null);
-        StyleConstants.setBackground(highlightNewStyle, COLOR_HIGHLIGHT_NEW);
-
-        // Base styles for changed lines — light background on characters
-        Style changedOldCharStyle = leftDoc.addStyle("changedOldChar", null);
-        StyleConstants.setBackground(changedOldCharStyle, COLOR_CHANGED_OLD);
-
-        Style changedNewCharStyle = rightDoc.addStyle("changedNewChar", null);
-        StyleConstants.setBackground(changedNewCharStyle, COLOR_CHANGED_NEW);
-
-        try {
-            // Track current position in each file
-            int leftLine = 0;
-            int rightLine = 0;
-
-            for (AbstractDelta<String> delta : patch.getDeltas()) {
-                int sourceStart = delta.getSource().getPosition();
-                int targetStart = delta.getTarget().getPosition();
-
-                // Add unchanged lines before this delta
-                while (leftLine < sourceStart) {
-                    appendLine(leftPane, leftLines.get(leftLine), normalStyle, null, leftLineNumBuilder, leftLine + 1);
-                    leftLine++;
-                }
-                while (rightLine < targetStart) {
-                    appendLine(rightPane, rightLines.get(rightLine), normalStyle, null, rightLineNumBuilder, rightLine + 1);
-                    rightLine++;
-                }
-
-                // Handle the delta based on type
-                switch (delta.getType()) {
-                    case DELETE:
-                        // Lines deleted from left (not in right)
-                        for (String line : delta.getSource().getLines()) {
-                            appendLine(leftPane, line, normalStyle, COLOR_DELETED, leftLineNumBuilder, leftLine + 1);
-                            leftLine++;
-                        }
-                        // Add gray padding lines on right to keep alignment
-                        for (int i = 0; i < delta.getSource().getLines().size(); i++) {
-                            appendLine(rightPane, "", normalStyle, COLOR_PADDING, rightLineNumBuilder, -1);
-                        }
-                        break;
-
-                    case INSERT:
-                        // Gray padding lines on left to keep alignment
-                        for (int i = 0; i < delta.getTarget().getLines().size(); i++) {
-                            appendLine(leftPane, "", normalStyle, COLOR_PADDING, leftLineNumBuilder, -1);
-                        }
-                        // Lines added to right
-                        for (String line : delta.getTarget().getLines()) {
-                            appendLine(rightPane, line, normalStyle, COLOR_ADDED, rightLineNumBuilder, rightLine + 1);
-                            rightLine++;
-                        }
-                        break;
-
-                    case CHANGE:
-                        // Lines changed - show old on left, new on right with word-level highlights
-                        List<String> oldLines = delta.getSource().getLines();
-                        List<String> newLines = delta.getTarget().getLines();
-                        int maxLines = Math.max(oldLines.size(), newLines.size());
-
-                        for (int i = 0; i < maxLines; i++) {
-                            if (i < oldLines.size() && i < newLines.size()) {
-                                // Both sides have a line — do inline character-level diff
-                                String oldLine = oldLines.get(i);
-                                String newLine = newLines.get(i);
-                                Patch<String> charPatch = DiffUtils.diff(toCharList(oldLine), toCharList(newLine));
-
-                                boolean[] oldHighlights = computeInlineHighlights(oldLine.length(), charPatch, true);
-                                boolean[] newHighlights = computeInlineHighlights(newLine.length(), charPatch, false);
-
-                                appendLineWithHighlights(leftPane, oldLine, changedOldCharStyle, highlightOldStyle, COLOR_CHANGED_OLD, oldHighlights, leftLineNumBuilder, leftLine + 1);
-                                leftLine++;
-                                appendLineWithHighlights(rightPane, newLine, changedNewCharStyle, highlightNewStyle, COLOR_CHANGED_NEW, newHighlights, rightLineNumBuilder, rightLine + 1);
-                                rightLine++;
-                            } else if (i < oldLines.size()) {
-                                appendLine(leftPane, oldLines.get(i), normalStyle, COLOR_CHANGED_OLD, leftLineNumBuilder, leftLine + 1);
-                                leftLine++;
-                                appendLine(rightPane, "", normalStyle, COLOR_PADDING, rightLineNumBuilder, -1);
-                            } else {
-                                appendLine(leftPane, "", normalStyle, COLOR_PADDING, leftLineNumBuilder, -1);
-                                appendLine(rightPane, newLines.get(i), normalStyle, COLOR_CHANGED_NEW, rightLineNumBuilder, rightLine + 1);
-                                rightLine++;
-                            }
-                        }
-                        break;
-
-                    default:
-                        break;
-                }
-            }
-
-            // Add remaining unchanged lines
-            while (leftLine < leftLines.size()) {
-                appendLine(leftPane, leftLines.get(leftLine), normalStyle, null, leftLineNumBuilder, leftLine + 1);
-                leftLine++;
-            }
-            while (rightLine < rightLines.size()) {
-                appendLine(rightPane, rightLines.get(rightLine), normalStyle, null, rightLineNumBuilder, rightLine + 1);
-                rightLine++;
-            }
-
-        } catch (BadLocationException e) {
-            log.error("Error rendering diff", e);
-        }
-
-        // Set line numbers text
-        leftLineNumbers.setText(leftLineNumBuilder.toString());
-        rightLineNumbers.setText(rightLineNumBuilder.toString());
-
-        // Calculate width needed for line numbers
-        int maxLineNum = Math.max(leftLines.size(), rightLines.size());
-        int digits = String.valueOf(maxLineNum).length();
-        FontMetrics fm = leftLineNumbers.getFontMetrics(leftLineNumbers.getFont());
-        int width = fm.charWidth('0') * (Math.max(digits, 4) + 2); // +2 for padding, min 4 to match %4d format
-
-        leftLineNumbers.setPreferredSize(new Dimension(width, leftLineNumbers.getPreferredSize().height));
-        rightLineNumbers.setPreferredSize(new Dimension(width, rightLineNumbers.getPreferredSize().height));
-
-        // Scroll to top
-        leftPane.setCaretPosition(0);
-        rightPane.setCaretPosition(0);
-    }
-
-    private void displayContent(String content) {
-        List<String> lines = content.isEmpty() ? List.of() : Arrays.asList(content.split("\n", -1));
-
-        StyledDocument doc = leftPane.getStyledDocument();
-        Style normalStyle = doc.addStyle("normal", null);
-
-        try {
-            for (int i = 0; i < lines.size(); i++) {
-                appendLine(leftPane, lines.get(i), normalStyle, null, leftLineNumBuilder, i + 1);
+    /**
+     * Appends a line number right-aligned in four columns and a space, as
+     * {@code String.format("%4d ", lineNumber)} would, or blanks for padding rows.
+     */
+    static void appendLineNumber(StringBuilder sb, int lineNumber) {
+        if (lineNumber > 0) {
+            int digits = stringSize(lineNumber);
+            for (int i = digits; i < 4; i++) {
+                sb.append(' ');
             }
-        } catch (BadLocationException e) {
-            log.error("Error rendering diff", e);
-        }
-
-        leftLineNumbers.setText(leftLineNumBuilder.toString());
-
-        int digits = String.valueOf(lines.size()).length();
-        FontMetrics fm = leftLineNumbers.getFontMetrics(leftLineNumbers.getFont());
-        int width = fm.charWidth('0') * (Math.max(digits, 4) + 2);
-        leftLineNumbers.setPreferredSize(new Dimension(width, leftLineNumbers.getPreferredSize().height));
-
-        leftPane.setCaretPosition(0);
-    }
-
-    private void appendLine(DiffTextPane pane, String line, Style style, Color bgColor,
-            StringBuilder lineNumBuilder, int lineNum) throws BadLocationException {
-        StyledDocument doc = pane.getStyledDocument();
-        int length = doc.getLength();
-        if (length > 0) {
-            doc.insertString(length, "\n", style);
-            lineNumBuilder.append("\n");
-        }
-        int lineStart = doc.getLength();
-        doc.insertString(lineStart, line.isEmpty() ? " " : line, style);
-        pane.addLineBackground(lineStart, doc.getLength(), bgColor);
-
-        if (lineNum > 0) {
-            lineNumBuilder.append(String.format("%4d ", lineNum));
+            sb.append(lineNumber);
+            sb.append(' ');
         } else {
-            lineNumBuilder.append("     ");
+            sb.append("     ");
         }
     }
 
-    private void appendLineWithHighlights(DiffTextPane pane, String line, Style baseStyle, Style highlightStyle,
-            Color bgColor, boolean[] highlights, StringBuilder lineNumBuilder, int lineNum) throws BadLocationException {
-        StyledDocument doc = pane.getStyledDocument();
-        int length = doc.getLength();
-        if (length > 0) {
-            doc.insertString(length, "\n", baseStyle);
-            lineNumBuilder.append("\n");
-        }
-
-        int lineStart = doc.getLength();
-
-        // Insert the line in runs, switching between base and highlight styles for character-level diffs
-        int i = 0;
-        while (i < line.length()) {
-            boolean hl = (i < highlights.length) && highlights[i];
-            int runStart = i;
-            while (i < line.length()) {
-                boolean nextHl = (i < highlights.length) && highlights[i];
-                if (nextHl != hl) break;
-                i++;
-            }
-            doc.insertString(doc.getLength(), line.substring(runStart, i), hl ? highlightStyle : baseStyle);
-        }
-
-        pane.addLineBackground(lineStart, doc.getLength(), bgColor);
-
-        if (lineNum > 0) {
-            lineNumBuilder.append(String.format("%4d ", lineNum));
-        } else {
-            lineNumBuilder.append("     ");
+    private static int stringSize(int n) {
+        int digits = 1;
+        while (n >= 10) {
+            n /= 10;
+            digits++;
         }
+        return digits;
     }
 
+    // Character diff through java-diff-utils, one String per character. Kept as the
+    // reference InlineDiff's character mode is checked against.
     static List<String> toCharList(String s) {
         List<String> chars = new ArrayList<>(s.length());
         for (char c : s.toCharArray()) {
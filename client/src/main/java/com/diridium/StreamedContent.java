@@ -0,0 +1,95 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import javax.ws.rs.core.Response;
+
+/**
+ * Reads the body of the server's content stream endpoints, single revisions
+ * and the {@link ContentFrames} of the bulk ones. Bodies requested with gzip
+ * are still compressed unless the HTTP client decoded them already, so the
+ * encoding is recognized by the gzip magic bytes rather than by the response
+ * headers.
+ */
+public final class StreamedContent {
+
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+
+    private StreamedContent() {
+    }
+
+    /**
+     * Returns the content of the response and closes it, or null if the body is
+     * empty because there is no such content.
+     */
+    public static String read(Response response) throws IOException {
+        try {
+            if (!response.hasEntity()) {
+                return null;
+            }
+            return read(response.readEntity(InputStream.class));
+        } finally {
+            response.close();
+        }
+    }
+
+    /**
+     * Returns the revisions in a {@link ContentFrames} response keyed by id and
+     * closes it. Revisions the server does not have are left out.
+     */
+    public static Map<String, String> readContents(Response response) throws IOException {
+        try {
+            if (!response.hasEntity()) {
+                throw new EOFException("empty contents response");
+            }
+            return readContents(response.readEntity(InputStream.class));
+        } finally {
+            response.close();
+        }
+    }
+
+    static Map<String, String> readContents(InputStream body) throws IOException {
+        try (InputStream content = decode(body)) {
+            if (content == null) {
+                throw new EOFException("empty contents response");
+            }
+            return ContentFrames.read(content);
+        }
+    }
+
+    static String read(InputStream body) throws IOException {
+        try (InputStream content = decode(body)) {
+            return content == null ? null : new String(content.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Returns the body unzipped if it is gzip encoded, or null, closing it, if
+     * it is empty. Neither XML nor content frames start with the gzip magic bytes.
+     */
+    private static InputStream decode(InputStream body) throws IOException {
+        PushbackInputStream in = new PushbackInputStream(body, 2);
+        int first = in.read();
+        if (first < 0) {
+            in.close();
+            return null;
+        }
+        int second = in.read();
+        if (second >= 0) {
+            in.unread(second);
+        }
+        in.unread(first);
+
+        return first == GZIP_MAGIC_1 && second == GZIP_MAGIC_2 ? new GZIPInputStream(in, 8192) : in;
+    }
+}
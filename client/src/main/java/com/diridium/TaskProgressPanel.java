@@ -0,0 +1,174 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.SwingWorker;
+
+/**
+ * Runs a dialog's server calls and decomposition on a background thread while
+ * showing what it is doing, with an optional Cancel button. Only one task runs
+ * at a time; tasks started meanwhile wait their turn.
+ */
+public class TaskProgressPanel extends JPanel {
+
+    private static final ExecutorService PARALLEL_EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "simple-channel-history-fetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final JProgressBar progressBar;
+    private final JLabel lblStatus;
+    private final JButton btnCancel;
+    private SwingWorker<?, ?> currentTask;
+    private final Deque<Runnable> queuedTasks = new ArrayDeque<>();
+
+    public TaskProgressPanel() {
+        super(new FlowLayout(FlowLayout.LEFT, 6, 0));
+
+        progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        progressBar.setPreferredSize(new Dimension(100, progressBar.getPreferredSize().height));
+        add(progressBar);
+
+        lblStatus = new JLabel();
+        add(lblStatus);
+
+        btnCancel = new JButton("Cancel");
+        btnCancel.addActionListener(e -> cancel());
+        add(btnCancel);
+
+        setVisible(false);
+    }
+
+    public boolean isBusy() {
+        return currentTask != null;
+    }
+
+    /**
+     * Runs {@code task} in the background and passes its result to
+     * {@code onSuccess} on the event dispatch thread. If another task is still
+     * running, the task is queued to run once it has finished and false is
+     * returned.
+     */
+    public <T> boolean run(String message, boolean cancellable, Callable<T> task,
+            Consumer<T> onSuccess, Consumer<Exception> onError) {
+        if (isBusy()) {
+            queuedTasks.add(() -> run(message, cancellable, task, onSuccess, onError));
+            return false;
+        }
+
+        lblStatus.setText(message);
+        btnCancel.setVisible(cancellable);
+        setVisible(true);
+
+        SwingWorker<T, Void> worker = new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return task.call();
+            }
+
+            @Override
+            protected void done() {
+                // a cancelled task has already been cleared
+                if (currentTask != this) {
+                    return;
+                }
+                finish();
+                try {
+                    onSuccess.accept(get());
+                } catch (ExecutionException e) {
+                    onError.accept(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    runQueued();
+                }
+            }
+        };
+        currentTask = worker;
+        worker.execute();
+        return true;
+    }
+
+    /**
+     * Abandons the running task and starts the next queued one. The abandoned
+     * task's result, if it still arrives, is discarded.
+     */
+    public void cancel() {
+        SwingWorker<?, ?> task = currentTask;
+        if (task != null) {
+            finish();
+            task.cancel(true);
+            runQueued();
+        }
+    }
+
+    /**
+     * Abandons the running task and every queued one, for a closing dialog.
+     */
+    public void cancelAll() {
+        queuedTasks.clear();
+        cancel();
+    }
+
+    private void runQueued() {
+        // a callback may have started a task of its own, the queue waits for it
+        if (!isBusy()) {
+            Runnable next = queuedTasks.poll();
+            if (next != null) {
+                next.run();
+            }
+        }
+    }
+
+    private void finish() {
+        currentTask = null;
+        setVisible(false);
+    }
+
+    /**
+     * Runs the calls concurrently and returns their results in order. If one
+     * fails or the calling thread is interrupted, the others are cancelled.
+     */
+    public static <T> List<T> invokeAll(List<Callable<T>> calls) throws Exception {
+        List<Future<T>> futures = new ArrayList<>(calls.size());
+        for (Callable<T> call : calls) {
+            futures.add(PARALLEL_EXECUTOR.submit(call));
+        }
+
+        try {
+            List<T> results = new ArrayList<>(futures.size());
+            for (Future<T> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+            return results;
+        } finally {
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,376 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import java.awt.Color;
+import java.awt.Container;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.Toolkit;
+import java.awt.datatransfer.StringSelection;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.swing.AbstractAction;
+import javax.swing.JComponent;
+import javax.swing.JMenuItem;
+import javax.swing.JPopupMenu;
+import javax.swing.JViewport;
+import javax.swing.KeyStroke;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+
+/**
+ * Read-only view of one side of a {@link DiffLineModel} that only paints the
+ * rows inside the clip, for documents too large to load into a text pane.
+ * Every row is one line high, so the rows to paint follow directly from the
+ * scroll position. Instead of a text selection, whole rows are selected by
+ * clicking or dragging and copied with the shortcut or the popup menu.
+ */
+class VirtualDiffView extends JComponent implements Scrollable {
+
+    private static final int TAB_SIZE = 8;
+    private static final int INSET = 3;
+    private static final Color COLOR_SELECTION = new Color(51, 153, 255, 70);
+
+    private final List<DiffLineModel.Row> rows;
+    // the rows before unchanged lines were collapsed, copied by Copy All
+    private final List<DiffLineModel.Row> documentRows;
+    private final boolean source;
+    private final int rowCount;
+    private final int rowHeight;
+    private final int ascent;
+    private final int contentWidth;
+    // selected rows from anchor to lead in either order, none while anchor is -1
+    private int anchor = -1;
+    private int lead = -1;
+
+    /**
+     * @param rowCount rows in the aligned model, at least {@code rows.size()}
+     * @param documentRows the uncollapsed rows of this side, or {@code rows}
+     */
+    VirtualDiffView(List<DiffLineModel.Row> rows, List<DiffLineModel.Row> documentRows, boolean source, int rowCount,
+            Font font) {
+        this.rows = rows;
+        this.documentRows = documentRows;
+        this.source = source;
+        this.rowCount = rowCount;
+        setFont(font);
+        setOpaque(true);
+        setBackground(Color.WHITE);
+        setForeground(Color.BLACK);
+
+        FontMetrics fm = getFontMetrics(font);
+        rowHeight = fm.getHeight();
+        ascent = fm.getAscent();
+        int widest = 0;
+        for (DiffLineModel.Row row : rows) {
+            widest = Math.max(widest, fm.stringWidth(expandTabs(row.text, null).text));
+        }
+        contentWidth = widest + 2 * INSET;
+        installSelection();
+    }
+
+    private void installSelection() {
+        setFocusable(true);
+        AbstractAction copy = new AbstractAction("Copy") {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                copyToClipboard(getSelectedText());
+            }
+        };
+        AbstractAction copyAll = new AbstractAction("Copy All") {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                copyToClipboard(textOf(documentRows, 0, documentRows.size() - 1));
+            }
+        };
+        AbstractAction selectAll = new AbstractAction("Select All") {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                selectRows(0, rows.size() - 1);
+            }
+        };
+        int shortcut = Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx();
+        getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_C, shortcut), "copy");
+        getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_A, shortcut), "selectAll");
+        getActionMap().put("copy", copy);
+        getActionMap().put("selectAll", selectAll);
+
+        JPopupMenu popupMenu = new JPopupMenu();
+        JMenuItem copyItem = popupMenu.add(copy);
+        popupMenu.add(copyAll);
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                requestFocusInWindow();
+                int row = rowAt(e.getPoint());
+                if (SwingUtilities.isLeftMouseButton(e)) {
+                    if (row < 0) {
+                        selectRows(-1, -1);
+                    } else {
+                        selectRows(e.isShiftDown() && anchor >= 0 ? anchor : row, row);
+                    }
+                }
+                showPopup(e);
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (SwingUtilities.isLeftMouseButton(e) && anchor >= 0) {
+                    selectRows(anchor, Math.max(0, Math.min(rows.size() - 1, e.getY() / rowHeight)));
+                    scrollRectToVisible(new Rectangle(e.getX(), e.getY(), 1, 1));
+                }
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                showPopup(e);
+            }
+
+            private void showPopup(MouseEvent e) {
+                if (e.isPopupTrigger()) {
+                    copyItem.setEnabled(anchor >= 0);
+                    popupMenu.show(VirtualDiffView.this, e.getX(), e.getY());
+                }
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+    }
+
+    /**
+     * Selects the rows from {@code anchor} to {@code lead}, or none if
+     * {@code anchor} is -1.
+     */
+    void selectRows(int anchor, int lead) {
+        this.anchor = anchor;
+        this.lead = anchor < 0 ? -1 : lead;
+        repaint();
+    }
+
+    /**
+     * Text of the selected rows, or null if none are selected.
+     */
+    String getSelectedText() {
+        return anchor < 0 ? null : textOf(rows, Math.min(anchor, lead), Math.max(anchor, lead));
+    }
+
+    /**
+     * Joins the text of rows {@code first} to {@code last} into lines, leaving
+     * out alignment padding and collapsed line placeholders.
+     */
+    static String textOf(List<DiffLineModel.Row> rows, int first, int last) {
+        StringBuilder sb = new StringBuilder();
+        boolean empty = true;
+        for (int i = first; i <= last; i++) {
+            DiffLineModel.Row row = rows.get(i);
+            if (row.type == DiffLineModel.RowType.PADDING || row.type == DiffLineModel.RowType.FOLD) {
+                continue;
+            }
+            if (!empty) {
+                sb.append('\n');
+            }
+            sb.append(row.text);
+            empty = false;
+        }
+        return sb.toString();
+    }
+
+    private static void copyToClipboard(String text) {
+        if (text != null) {
+            StringSelection selection = new StringSelection(text);
+            Toolkit.getDefaultToolkit().getSystemClipboard().setContents(selection, selection);
+        }
+    }
+
+    /**
+     * Line number gutter for a {@link VirtualDiffView}, painting only visible rows.
+     */
+    static class LineNumbers extends JComponent {
+        private final List<DiffLineModel.Row> rows;
+        private final int rowHeight;
+        private final int ascent;
+
+        LineNumbers(VirtualDiffView view, int maxLineNumber) {
+            this.rows = view.rows;
+            this.rowHeight = view.rowHeight;
+            this.ascent = view.ascent;
+            setFont(view.getFont());
+            setOpaque(true);
+            setBackground(SimpleDiffPanel.COLOR_LINE_NUMBER_BG);
+            setForeground(Color.GRAY);
+
+            FontMetrics fm = getFontMetrics(getFont());
+            int digits = String.valueOf(maxLineNumber).length();
+            int width = fm.charWidth('0') * (Math.max(digits, 4) + 2); // +2 for padding, min 4 to match %4d format
+            setPreferredSize(new Dimension(width, view.rowCount * rowHeight));
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Rectangle clip = g.getClipBounds();
+            g.setColor(getBackground());
+            g.fillRect(clip.x, clip.y, clip.width, clip.height);
+            g.setColor(getForeground());
+
+            StringBuilder number = new StringBuilder();
+            int first = Math.max(0, clip.y / rowHeight);
+            int last = Math.min(rows.size() - 1, (clip.y + clip.height) / rowHeight);
+            for (int i = first; i <= last; i++) {
+                int lineNumber = rows.get(i).lineNumber;
+                if (lineNumber > 0) {
+                    number.setLength(0);
+                    SimpleDiffPanel.appendLineNumber(number, lineNumber);
+                    g.drawString(number.toString(), 0, i * rowHeight + ascent);
+                }
+            }
+        }
+    }
+
+    /**
+     * Index of the row at {@code point}, or -1 below the last row.
+     */
+    int rowAt(Point point) {
+        int row = point.y / rowHeight;
+        return point.y >= 0 && row < rows.size() ? row : -1;
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(contentWidth, rowCount * rowHeight);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        g.setFont(getFont());
+        FontMetrics fm = g.getFontMetrics();
+
+        int first = Math.max(0, clip.y / rowHeight);
+        int last = Math.min(rows.size() - 1, (clip.y + clip.height) / rowHeight);
+        for (int i = first; i <= last; i++) {
+            DiffLineModel.Row row = rows.get(i);
+            int y = i * rowHeight;
+
+            // Full-width line background
+            Color background = SimpleDiffPanel.backgroundFor(row.type, source);
+            if (background != null) {
+                g.setColor(background);
+                g.fillRect(clip.x, y, clip.width, rowHeight);
+            }
+
+            DisplayLine line = expandTabs(row.text, row.getHighlights());
+            if (line.highlights != null) {
+                g.setColor(SimpleDiffPanel.highlightFor(source));
+                int c = 0;
+                while (c < line.highlights.length) {
+                    if (!line.highlights[c]) {
+                        c++;
+                        continue;
+                    }
+                    int runStart = c;
+                    while (c < line.highlights.length && line.highlights[c]) {
+                        c++;
+                    }
+                    int x = INSET + fm.stringWidth(line.text.substring(0, runStart));
+                    g.fillRect(x, y, fm.stringWidth(line.text.substring(runStart, c)), rowHeight);
+                }
+            }
+
+            if (anchor >= 0 && i >= Math.min(anchor, lead) && i <= Math.max(anchor, lead)) {
+                g.setColor(COLOR_SELECTION);
+                g.fillRect(clip.x, y, clip.width, rowHeight);
+            }
+
+            g.setColor(row.type == DiffLineModel.RowType.FOLD ? Color.GRAY : getForeground());
+            g.drawString(line.text, INSET, y + ascent);
+        }
+    }
+
+    private static class DisplayLine {
+        final String text;
+        final boolean[] highlights;
+
+        DisplayLine(String text, boolean[] highlights) {
+            this.text = text;
+            this.highlights = highlights;
+        }
+    }
+
+    /**
+     * Replaces tabs with spaces up to the next tab stop, since drawString doesn't
+     * expand them, stretching highlights over the spaces that replace a tab.
+     */
+    private static DisplayLine expandTabs(String text, boolean[] highlights) {
+        if (text.indexOf('\t') < 0) {
+            return new DisplayLine(text, highlights);
+        }
+        int tabs = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\t') {
+                tabs++;
+            }
+        }
+        int maxLength = text.length() + tabs * (TAB_SIZE - 1);
+        StringBuilder sb = new StringBuilder(maxLength);
+        boolean[] expanded = highlights != null ? new boolean[maxLength] : null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int start = sb.length();
+            if (c == '\t') {
+                do {
+                    sb.append(' ');
+                } while (sb.length() % TAB_SIZE != 0);
+            } else {
+                sb.append(c);
+            }
+            if (expanded != null && i < highlights.length && highlights[i]) {
+                Arrays.fill(expanded, start, sb.length(), true);
+            }
+        }
+        return new DisplayLine(sb.toString(), expanded != null ? Arrays.copyOf(expanded, sb.length()) : null);
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? rowHeight : getFontMetrics(getFont()).charWidth('0');
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL
+                ? Math.max(rowHeight, visibleRect.height - rowHeight) : visibleRect.width;
+    }
+
+    // Fill the viewport when the content is smaller, so backgrounds reach the edge
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        Container parent = getParent();
+        return parent instanceof JViewport && parent.getWidth() > contentWidth;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        Container parent = getParent();
+        return parent instanceof JViewport && parent.getHeight() > rowCount * rowHeight;
+    }
+}
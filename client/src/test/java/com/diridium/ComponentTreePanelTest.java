@@ -4,9 +4,7 @@
 package com.diridium;
 
 import static org.junit.Assert.*;
-import static org.junit.Assume.assumeFalse;
 
-import java.awt.GraphicsEnvironment;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -153,7 +151,6 @@ public class ComponentTreePanelTest {
                 new DecomposedComponent("Destination [1]/Configuration", "Configuration",
                         "config", DecomposedComponent.Category.CONNECTOR_CONFIGURATION, "Destination [1]"));
 
-        assumeFalse("Skipping Swing test in headless environment", GraphicsEnvironment.isHeadless());
         ComponentTreePanel panel = new ComponentTreePanel(left, right);
         // Panel detects the reorder — changed count should reflect that steps are modified
         // (2 steps show as modified because content at each position differs)
@@ -179,9 +176,47 @@ public class ComponentTreePanelTest {
                 new DecomposedComponent("Destination [1]/Configuration", "Configuration",
                         "config", DecomposedComponent.Category.CONNECTOR_CONFIGURATION, "Destination [1]"));
 
-        assumeFalse("Skipping Swing test in headless environment", GraphicsEnvironment.isHeadless());
         ComponentTreePanel panel = new ComponentTreePanel(left, right);
         // Content genuinely changed — should show 1 changed, NOT be flagged as reorder
         assertEquals(1, panel.getChangedCount());
     }
+
+    @Test
+    public void testGroupIndexSplitsTopLevelAndSubGroups() {
+        Map<String, String> parentGroups = new LinkedHashMap<>();
+        parentGroups.put("Channel Properties", "Channel Properties");
+        parentGroups.put("Source/Configuration", "Source");
+        parentGroups.put("Source/Filter/Rule 0", "Source/Filter");
+        parentGroups.put("Source/Filter/Rule 1", "Source/Filter");
+        parentGroups.put("Destination [1]/Transformer/Step 0", "Destination [1]/Transformer");
+        parentGroups.put("Destination [1]/Configuration", "Destination [1]");
+        // no "Orphan" group, so it stays top-level
+        parentGroups.put("Orphan/Child/x", "Orphan/Child");
+        parentGroups.put("Source Extra", "Source Extra");
+
+        ComponentTreePanel.GroupIndex index = new ComponentTreePanel.GroupIndex(parentGroups);
+
+        assertEquals(List.of("Channel Properties", "Source", "Destination [1]", "Orphan/Child", "Source Extra"),
+                index.topLevelGroups);
+        assertEquals(List.of("Source/Filter"), index.getSubGroups("Source"));
+        assertEquals(List.of("Destination [1]/Transformer"), index.getSubGroups("Destination [1]"));
+        assertEquals(List.of(), index.getSubGroups("Source Extra"));
+        assertEquals(List.of("Source/Filter/Rule 0", "Source/Filter/Rule 1"), index.getKeys("Source/Filter"));
+        assertEquals(List.of(), index.getKeys("Missing"));
+    }
+
+    @Test
+    public void testGroupIndexNestedSubGroupsListedUnderEveryAncestor() {
+        // matches comparing every pair of groups: a sub-group belongs to each group prefixing it
+        Map<String, String> parentGroups = new LinkedHashMap<>();
+        parentGroups.put("a/1", "A");
+        parentGroups.put("b/1", "A/B");
+        parentGroups.put("c/1", "A/B/C");
+
+        ComponentTreePanel.GroupIndex index = new ComponentTreePanel.GroupIndex(parentGroups);
+
+        assertEquals(List.of("A"), index.topLevelGroups);
+        assertEquals(List.of("A/B", "A/B/C"), index.getSubGroups("A"));
+        assertEquals(List.of("A/B/C"), index.getSubGroups("A/B"));
+    }
 }
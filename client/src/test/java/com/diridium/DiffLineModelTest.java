@@ -0,0 +1,117 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class DiffLineModelTest {
+
+    private static List<String> describe(List<DiffLineModel.Row> rows) {
+        List<String> result = new ArrayList<>();
+        for (DiffLineModel.Row row : rows) {
+            result.add(row.type + " " + row.lineNumber + " " + row.text);
+        }
+        return result;
+    }
+
+    @Test
+    public void testRowsAreAlignedWithPadding() {
+        DiffLineModel model = DiffLineModel.diff("a\nb\nc\nd", "a\nB\nc\nd\ne");
+
+        assertEquals(List.of("UNCHANGED 1 a", "CHANGED 2 b", "UNCHANGED 3 c", "UNCHANGED 4 d", "PADDING -1 "),
+                describe(model.getLeftRows()));
+        assertEquals(List.of("UNCHANGED 1 a", "CHANGED 2 B", "UNCHANGED 3 c", "UNCHANGED 4 d", "ADDED 5 e"),
+                describe(model.getRightRows()));
+        assertEquals(5, model.getRowCount());
+        assertEquals(5, model.getMaxLineNumber());
+    }
+
+    @Test
+    public void testDeletedLinesPadTheRight() {
+        DiffLineModel model = DiffLineModel.diff("a\nx\ny\nb", "a\nb");
+
+        assertEquals(List.of("UNCHANGED 1 a", "DELETED 2 x", "DELETED 3 y", "UNCHANGED 4 b"),
+                describe(model.getLeftRows()));
+        assertEquals(List.of("UNCHANGED 1 a", "PADDING -1 ", "PADDING -1 ", "UNCHANGED 2 b"),
+                describe(model.getRightRows()));
+    }
+
+    @Test
+    public void testOnlyPairedChangedLinesHaveHighlights() {
+        DiffLineModel model = DiffLineModel.diff("keep\nhello world", "keep\nhello earth\nextra line");
+
+        DiffLineModel.Row oldRow = model.getLeftRows().get(1);
+        DiffLineModel.Row newRow = model.getRightRows().get(1);
+        boolean[] oldHighlights = oldRow.getHighlights();
+        assertEquals("hello world".length(), oldHighlights.length);
+        assertFalse(oldHighlights[0]);
+        assertTrue(oldHighlights[6]);
+        assertTrue(newRow.getHighlights()[6]);
+
+        // unpaired changed line and unchanged lines have none
+        assertEquals(DiffLineModel.RowType.PADDING, model.getLeftRows().get(2).type);
+        assertNull(model.getRightRows().get(2).getHighlights());
+        assertNull(model.getLeftRows().get(0).getHighlights());
+    }
+
+    @Test
+    public void testViewOnly() {
+        DiffLineModel model = DiffLineModel.view("one\ntwo");
+
+        assertEquals(List.of("UNCHANGED 1 one", "UNCHANGED 2 two"), describe(model.getLeftRows()));
+        assertTrue(model.getRightRows().isEmpty());
+        assertEquals(0, DiffLineModel.view("").getRowCount());
+    }
+
+    private static String lines(int from, int to) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = from; i <= to; i++) {
+            sb.append(i == from ? "" : "\n").append("line").append(i);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testCollapseFoldsUnchangedRunsOutsideContext() {
+        DiffLineModel model = DiffLineModel.diff(lines(1, 20), lines(1, 9) + "\nchanged\n" + lines(11, 20));
+        DiffLineModel collapsed = model.collapse(2, Set.of());
+
+        List<String> left = describe(collapsed.getLeftRows());
+        assertEquals(List.of("FOLD -1 ... 7 unchanged lines, click to show ...",
+                "UNCHANGED 8 line8", "UNCHANGED 9 line9", "CHANGED 10 line10", "UNCHANGED 11 line11",
+                "UNCHANGED 12 line12", "FOLD -1 ... 8 unchanged lines, click to show ..."), left);
+        assertEquals(7, collapsed.getRightRows().size());
+        assertEquals("CHANGED 10 changed", describe(collapsed.getRightRows()).get(3));
+        assertEquals(0, collapsed.getLeftRows().get(0).foldStart);
+        assertEquals(12, collapsed.getLeftRows().get(6).foldStart);
+        assertEquals(8, collapsed.getLeftRows().get(6).foldSize);
+        assertEquals(20, collapsed.getMaxLineNumber());
+    }
+
+    @Test
+    public void testCollapseShowsExpandedFoldsAndSingleLines() {
+        DiffLineModel model = DiffLineModel.diff(lines(1, 20), lines(1, 9) + "\nchanged\n" + lines(11, 20));
+
+        DiffLineModel expanded = model.collapse(2, Set.of(0));
+        assertEquals("UNCHANGED 1 line1", describe(expanded.getLeftRows()).get(0));
+        assertEquals(13, expanded.getRowCount());
+
+        // a gap of one line between two changes' context isn't folded
+        DiffLineModel twoChanges = DiffLineModel.diff(lines(1, 7), "x\n" + lines(2, 6) + "\ny");
+        assertSame(twoChanges.getLeftRows().get(3), twoChanges.collapse(2, Set.of()).getLeftRows().get(3));
+        assertEquals(7, twoChanges.collapse(2, Set.of()).getRowCount());
+    }
+
+    @Test
+    public void testCollapseWithoutChangesReturnsSameModel() {
+        DiffLineModel model = DiffLineModel.diff(lines(1, 20), lines(1, 20));
+        assertSame(model, model.collapse(3, Set.of()));
+    }
+}
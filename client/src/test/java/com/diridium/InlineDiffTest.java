@@ -0,0 +1,148 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.patch.Patch;
+
+public class InlineDiffTest {
+
+    private static String mask(boolean[] highlights) {
+        StringBuilder sb = new StringBuilder();
+        for (boolean h : highlights) {
+            sb.append(h ? '^' : ' ');
+        }
+        return sb.toString();
+    }
+
+    private static int count(boolean[] highlights) {
+        int count = 0;
+        for (boolean h : highlights) {
+            if (h) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void assertMatchesCharacterDiff(String oldLine, String newLine) {
+        Patch<String> charPatch = DiffUtils.diff(SimpleDiffPanel.toCharList(oldLine), SimpleDiffPanel.toCharList(newLine));
+        boolean[] expectedOld = SimpleDiffPanel.computeInlineHighlights(oldLine.length(), charPatch, true);
+        boolean[] expectedNew = SimpleDiffPanel.computeInlineHighlights(newLine.length(), charPatch, false);
+
+        InlineDiff.Highlights actual = InlineDiff.compute(oldLine, newLine, false);
+
+        // both are shortest edit scripts, ties may pick different but equally long alignments
+        String message = oldLine + " -> " + newLine;
+        assertEquals(message, expectedOld.length, actual.oldHighlights.length);
+        assertEquals(message, expectedNew.length, actual.newHighlights.length);
+        assertEquals(message, count(expectedOld), count(actual.oldHighlights));
+        assertEquals(message, count(expectedNew), count(actual.newHighlights));
+    }
+
+    @Test
+    public void testCharacterModeMatchesCharacterDiff() {
+        assertMatchesCharacterDiff("hello world", "hello earth");
+        assertMatchesCharacterDiff("", "abc");
+        assertMatchesCharacterDiff("abc", "");
+        assertMatchesCharacterDiff("same", "same");
+        assertMatchesCharacterDiff("<a>1</a>", "<b>1</b>");
+
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            StringBuilder a = new StringBuilder();
+            StringBuilder b = new StringBuilder();
+            for (int j = random.nextInt(30); j > 0; j--) {
+                a.append((char) ('a' + random.nextInt(4)));
+            }
+            for (int j = random.nextInt(30); j > 0; j--) {
+                b.append((char) ('a' + random.nextInt(4)));
+            }
+            assertMatchesCharacterDiff(a.toString(), b.toString());
+        }
+    }
+
+    @Test
+    public void testCharacterModeExactMasks() {
+        InlineDiff.Highlights highlights = InlineDiff.compute("value=1;", "value=22;", false);
+
+        assertEquals("      ^ ", mask(highlights.oldHighlights));
+        assertEquals("      ^^ ", mask(highlights.newHighlights));
+    }
+
+    @Test
+    public void testWordModeHighlightsWholeWords() {
+        InlineDiff.Highlights highlights = InlineDiff.compute("var name = oldValue;", "var name = newValue;");
+
+        assertEquals("           ^^^^^^^^ ", mask(highlights.oldHighlights));
+        assertEquals("           ^^^^^^^^ ", mask(highlights.newHighlights));
+    }
+
+    @Test
+    public void testWordModeKeepsCommonWordsAroundInsertion() {
+        InlineDiff.Highlights highlights = InlineDiff.compute("<b>a</b>", "<b>a c</b>");
+
+        assertEquals("        ", mask(highlights.oldHighlights));
+        assertEquals("    ^^  ", mask(highlights.newHighlights).substring(0, 8));
+        assertEquals(2, count(highlights.newHighlights));
+    }
+
+    @Test
+    public void testLongWordFallsBackToCharacters() {
+        StringBuilder sb = new StringBuilder("data=");
+        Random random = new Random(2);
+        for (int i = 0; i < InlineDiff.MAX_LENGTH * 2; i++) {
+            sb.append((char) ('A' + random.nextInt(26)));
+        }
+        String a = sb.toString();
+        String b = a.substring(0, 1000) + "xyz" + a.substring(1003);
+
+        InlineDiff.Highlights highlights = InlineDiff.compute(a, b);
+
+        assertEquals(3, count(highlights.oldHighlights));
+        assertEquals(3, count(highlights.newHighlights));
+        assertTrue(highlights.newHighlights[1000]);
+    }
+
+    @Test
+    public void testLongDifferenceIsHighlightedWhole() {
+        StringBuilder a = new StringBuilder("{\"data\":\"");
+        StringBuilder b = new StringBuilder("{\"data\":\"");
+        Random random = new Random(1);
+        for (int i = 0; i < InlineDiff.MAX_LENGTH + 10; i++) {
+            a.append((char) ('A' + random.nextInt(26)));
+            b.append((char) ('A' + random.nextInt(26)));
+        }
+        a.append("\"}");
+        b.append("\"}");
+
+        InlineDiff.Highlights highlights = InlineDiff.compute(a.toString(), b.toString());
+
+        // common prefix and suffix stay plain, everything between is highlighted
+        assertFalse(highlights.oldHighlights[0]);
+        assertFalse(highlights.oldHighlights[a.length() - 1]);
+        assertEquals(InlineDiff.MAX_LENGTH + 10, count(highlights.oldHighlights));
+        assertEquals(InlineDiff.MAX_LENGTH + 10, count(highlights.newHighlights));
+    }
+
+    @Test
+    public void testTooManyEditsHighlightsWholeMiddle() {
+        StringBuilder a = new StringBuilder();
+        StringBuilder b = new StringBuilder();
+        for (int i = 0; i < InlineDiff.MAX_EDITS; i++) {
+            a.append("x").append(i).append(' ');
+            b.append("y").append(i).append(' ');
+        }
+
+        InlineDiff.Highlights highlights = InlineDiff.compute(a.toString(), b.toString());
+
+        assertEquals(a.length() - 1, count(highlights.oldHighlights));
+    }
+}
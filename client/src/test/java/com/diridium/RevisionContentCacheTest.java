@@ -0,0 +1,122 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import static org.junit.Assert.*;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class RevisionContentCacheTest {
+
+    private static String loadResource(String name) throws Exception {
+        try (InputStream is = RevisionContentCacheTest.class.getClassLoader().getResourceAsStream(name)) {
+            assertNotNull("Resource not found: " + name, is);
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String repeat(char c, int count) {
+        return String.valueOf(c).repeat(count);
+    }
+
+    @Test
+    public void testWalkingHistoryFetchesEachRevisionOnce() throws Exception {
+        RevisionContentCache cache = new RevisionContentCache(RevisionContentCache.DEFAULT_MAX_BYTES);
+        AtomicInteger fetches = new AtomicInteger();
+
+        // compare 2 with 1, then 3 with 2, then 4 with 3
+        for (int newer = 2; newer <= 4; newer++) {
+            for (int id : new int[] { newer - 1, newer }) {
+                String content = cache.getContent(RevisionContentCache.CHANNEL, id, () -> {
+                    fetches.incrementAndGet();
+                    return "<channel>" + id + "</channel>";
+                });
+                assertEquals("<channel>" + id + "</channel>", content);
+            }
+        }
+
+        assertEquals(4, fetches.get());
+    }
+
+    @Test
+    public void testBulkLoadFetchesOnlyUncachedRevisionsInOneCall() throws Exception {
+        RevisionContentCache cache = new RevisionContentCache(RevisionContentCache.DEFAULT_MAX_BYTES);
+        List<List<String>> requests = new ArrayList<>();
+        RevisionContentCache.BulkContentLoader loader = ids -> {
+            requests.add(ids);
+            Map<String, String> loaded = new HashMap<>();
+            for (String id : ids) {
+                if (!id.equals("9")) {
+                    loaded.put(id, "<channel>" + id + "</channel>");
+                }
+            }
+            return loaded;
+        };
+
+        cache.getContent(RevisionContentCache.CHANNEL, "2", () -> "<channel>2</channel>");
+        Map<String, String> contents = cache.getContents(RevisionContentCache.CHANNEL, List.of("3", "2", "9", "1"), loader);
+
+        assertEquals(List.of("3", "2", "1"), new ArrayList<>(contents.keySet()));
+        assertEquals("<channel>1</channel>", contents.get("1"));
+        assertEquals(List.of(List.of("3", "9", "1")), requests);
+
+        cache.getContents(RevisionContentCache.CHANNEL, List.of("1", "3"), loader);
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    public void testTypesDoNotShareEntries() throws Exception {
+        RevisionContentCache cache = new RevisionContentCache(RevisionContentCache.DEFAULT_MAX_BYTES);
+
+        cache.getContent(RevisionContentCache.CHANNEL, 7, () -> "channel");
+        assertEquals("template", cache.getContent(RevisionContentCache.CODE_TEMPLATE, 7, () -> "template"));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedByBytes() throws Exception {
+        // room for two 1000 character entries, not three
+        RevisionContentCache cache = new RevisionContentCache(5000);
+        cache.getContent(RevisionContentCache.CHANNEL, 1, () -> repeat('a', 1000));
+        cache.getContent(RevisionContentCache.CHANNEL, 2, () -> repeat('b', 1000));
+        // touch 1 so 2 is the eldest
+        assertEquals(repeat('a', 1000), cache.getContent(RevisionContentCache.CHANNEL, 1, () -> "reloaded"));
+        cache.getContent(RevisionContentCache.CHANNEL, 3, () -> repeat('c', 1000));
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.getSizeInBytes() <= 5000);
+        assertEquals(repeat('a', 1000), cache.getContent(RevisionContentCache.CHANNEL, 1, () -> "reloaded"));
+        assertEquals("reloaded", cache.getContent(RevisionContentCache.CHANNEL, 2, () -> "reloaded"));
+    }
+
+    @Test
+    public void testOversizedAndNullContentIsNotCached() throws Exception {
+        RevisionContentCache cache = new RevisionContentCache(1000);
+
+        assertEquals(repeat('a', 1000), cache.getContent(RevisionContentCache.CHANNEL, 1, () -> repeat('a', 1000)));
+        assertNull(cache.getContent(RevisionContentCache.CHANNEL, 2, () -> null));
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getSizeInBytes());
+    }
+
+    @Test
+    public void testDecompositionIsReused() throws Exception {
+        RevisionContentCache cache = new RevisionContentCache(RevisionContentCache.DEFAULT_MAX_BYTES);
+        String xml = loadResource("channel-for-diffing-version1.xml");
+
+        ChannelXmlDecomposer.DecomposeResult first = cache.getDecomposed(RevisionContentCache.CHANNEL, 1, xml);
+        ChannelXmlDecomposer.DecomposeResult second = cache.getDecomposed(RevisionContentCache.CHANNEL, 1, xml);
+
+        assertSame(first, second);
+        assertFalse(first.getComponents().isEmpty());
+    }
+}
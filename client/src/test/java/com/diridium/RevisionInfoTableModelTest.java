@@ -0,0 +1,115 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.Test;
+
+public class RevisionInfoTableModelTest {
+
+    /** Serves revisions with ids {@code count} down to 1, newest first. */
+    private static class FakeHistory implements RevisionInfoTableModel.PageLoader {
+        private final int count;
+        private final List<Long> requestedBeforeIds = new ArrayList<>();
+
+        FakeHistory(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public List<RevisionInfo> loadPage(Long beforeId, int limit) {
+            requestedBeforeIds.add(beforeId);
+            List<RevisionInfo> page = new ArrayList<>();
+            long id = beforeId == null ? count : beforeId - 1;
+            for (; id >= 1 && page.size() < limit; id--) {
+                RevisionInfo ri = new RevisionInfo();
+                ri.setHash(String.valueOf(id));
+                ri.setRevision((int) id);
+                page.add(ri);
+            }
+            return page;
+        }
+    }
+
+    @Test
+    public void testLoadsPagesUsingOldestLoadedId() throws Exception {
+        FakeHistory history = new FakeHistory(25);
+        RevisionInfoTableModel model = new RevisionInfoTableModel(history, 10);
+
+        model.loadNextPage();
+        assertEquals(10, model.getRowCount());
+        assertTrue(model.hasMore());
+
+        model.loadNextPage();
+        model.loadNextPage();
+        assertEquals(25, model.getRowCount());
+        assertFalse(model.hasMore());
+
+        assertEquals("25", model.getRevisionAt(0).getHash());
+        assertEquals("1", model.getRevisionAt(24).getHash());
+        assertEquals(Arrays.asList(null, 16L, 6L), history.requestedBeforeIds);
+    }
+
+    @Test
+    public void testNoRequestAfterLastPage() throws Exception {
+        FakeHistory history = new FakeHistory(10);
+        RevisionInfoTableModel model = new RevisionInfoTableModel(history, 10);
+
+        model.loadNextPage();
+        assertTrue(model.hasMore());
+        model.loadNextPage();
+        assertFalse(model.hasMore());
+        model.loadNextPage();
+
+        assertEquals(10, model.getRowCount());
+        assertEquals(2, history.requestedBeforeIds.size());
+    }
+
+    @Test
+    public void testListModelHasNoMorePages() {
+        List<RevisionInfo> revisions = new FakeHistory(3).loadPage(null, 10);
+        RevisionInfoTableModel model = new RevisionInfoTableModel(revisions);
+
+        assertEquals(3, model.getRowCount());
+        assertFalse(model.hasMore());
+    }
+
+    @Test
+    public void testFailedBackgroundLoadKeepsPaging() throws Exception {
+        FakeHistory history = new FakeHistory(25);
+        AtomicInteger failures = new AtomicInteger(1);
+        RevisionInfoTableModel model = new RevisionInfoTableModel((beforeId, limit) -> {
+            if (failures.getAndDecrement() > 0) {
+                throw new IllegalStateException("server unavailable");
+            }
+            return history.loadPage(beforeId, limit);
+        }, 10);
+
+        CountDownLatch failed = new CountDownLatch(1);
+        SwingUtilities.invokeAndWait(() -> model.loadNextPageInBackground(e -> failed.countDown()));
+        assertTrue(failed.await(10, TimeUnit.SECONDS));
+
+        CountDownLatch loaded = new CountDownLatch(1);
+        SwingUtilities.invokeAndWait(() -> {
+            assertTrue(model.hasMore());
+            // scrolling waits for the backoff, an explicit request does not
+            model.loadNextPageInBackground(e -> { });
+            assertFalse(model.isLoading());
+            model.loadNextPageInBackground(loaded::countDown, e -> fail(e.getMessage()));
+        });
+        assertTrue(loaded.await(10, TimeUnit.SECONDS));
+        SwingUtilities.invokeAndWait(() -> assertEquals(10, model.getRowCount()));
+        assertEquals(1, history.requestedBeforeIds.size());
+    }
+}
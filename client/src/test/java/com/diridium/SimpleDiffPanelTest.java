@@ -5,8 +5,12 @@ package com.diridium;
 
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
 import java.util.List;
 
+import javax.swing.text.StyleConstants;
+import javax.swing.text.StyledDocument;
+
 import org.junit.Test;
 
 import com.github.difflib.DiffUtils;
@@ -142,4 +146,65 @@ public class SimpleDiffPanelTest {
         List<String> nonEmptyLines = nonEmpty.isEmpty() ? List.of() : java.util.Arrays.asList(nonEmpty.split("\n", -1));
         assertEquals(2, nonEmptyLines.size());
     }
+
+    @Test
+    public void testAppendLineNumberMatchesFormat() {
+        for (int n : new int[] { 1, 9, 10, 99, 100, 999, 1000, 9999, 10000, 123456 }) {
+            StringBuilder sb = new StringBuilder();
+            SimpleDiffPanel.appendLineNumber(sb, n);
+            assertEquals(String.format("%4d ", n), sb.toString());
+        }
+        StringBuilder padding = new StringBuilder();
+        SimpleDiffPanel.appendLineNumber(padding, -1);
+        assertEquals("     ", padding.toString());
+    }
+
+    @Test
+    public void testPreparedDocumentsAreBuiltDetached() throws Exception {
+        SimpleDiffPanel.Prepared prepared = SimpleDiffPanel.prepare("same\nold value\n", "same\nnew value\n");
+
+        StyledDocument left = prepared.left.document;
+        assertEquals("same\nold value\n ", left.getText(0, left.getLength()));
+        assertEquals("   1 \n   2 \n   3 ", prepared.left.lineNumbers);
+        assertEquals(Arrays.asList(null, SimpleDiffPanel.COLOR_CHANGED_OLD, null), prepared.left.lineColors);
+
+        // changed word darker than the rest of the changed line, unchanged line untouched
+        assertEquals(SimpleDiffPanel.COLOR_HIGHLIGHT_OLD,
+                StyleConstants.getBackground(left.getCharacterElement(5).getAttributes()));
+        assertEquals(SimpleDiffPanel.COLOR_CHANGED_OLD,
+                StyleConstants.getBackground(left.getCharacterElement(9).getAttributes()));
+        assertFalse(left.getCharacterElement(0).getAttributes().isDefined(StyleConstants.Background));
+    }
+
+    @Test
+    public void testLargeDiffsAreLeftToTheVirtualView() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i <= SimpleDiffPanel.VIRTUAL_ROW_THRESHOLD; i++) {
+            sb.append(i).append('\n');
+        }
+
+        SimpleDiffPanel.Prepared prepared = SimpleDiffPanel.prepare(sb.toString(), sb.toString());
+
+        assertNull(prepared.left);
+        assertNull(prepared.right);
+    }
+
+    @Test
+    public void testCollapsedDiffFoldsUnchangedLines() throws Exception {
+        StringBuilder left = new StringBuilder();
+        StringBuilder right = new StringBuilder();
+        for (int i = 1; i <= 10; i++) {
+            left.append("line").append(i).append('\n');
+            right.append(i == 10 ? "changed" : "line" + i).append('\n');
+        }
+
+        SimpleDiffPanel.Prepared prepared = SimpleDiffPanel.prepareCollapsed(left.toString(), right.toString(), 1);
+
+        StyledDocument document = prepared.left.document;
+        assertEquals("... 8 unchanged lines, click to show ...\nline9\nline10\n ",
+                document.getText(0, document.getLength()));
+        assertEquals("     \n   9 \n  10 \n  11 ", prepared.left.lineNumbers);
+        assertEquals(SimpleDiffPanel.COLOR_FOLD, prepared.left.lineColors.get(0));
+        assertTrue(StyleConstants.isItalic(document.getCharacterElement(0).getAttributes()));
+    }
 }
@@ -0,0 +1,55 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+
+public class StreamedContentTest {
+
+    private static final String XML = "<channel version=\"4.5.0\">\n  <name>café</name>\n</channel>";
+
+    @Test
+    public void testReadsPlainAndGzipBodies() throws Exception {
+        byte[] plain = XML.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(plain);
+        }
+
+        assertEquals(XML, StreamedContent.read(new ByteArrayInputStream(plain)));
+        assertEquals(XML, StreamedContent.read(new ByteArrayInputStream(gzip.toByteArray())));
+        assertEquals("<", StreamedContent.read(new ByteArrayInputStream(new byte[] { '<' })));
+    }
+
+    @Test
+    public void testEmptyBodyIsMissingContent() throws Exception {
+        assertNull(StreamedContent.read(new ByteArrayInputStream(new byte[0])));
+    }
+
+    @Test
+    public void testReadsGzipContentFrames() throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(body)) {
+            ContentFrames.Writer frames = new ContentFrames.Writer(out);
+            frames.write("2", content -> {
+                content.write(XML.getBytes(StandardCharsets.UTF_8));
+                return true;
+            });
+            frames.write("1", content -> false);
+            frames.finish();
+        }
+
+        Map<String, String> contents = StreamedContent.readContents(new ByteArrayInputStream(body.toByteArray()));
+        assertEquals(Map.of("2", XML), contents);
+    }
+}
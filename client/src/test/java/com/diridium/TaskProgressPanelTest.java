@@ -0,0 +1,82 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.Test;
+
+public class TaskProgressPanelTest {
+
+    @Test
+    public void testInvokeAllRunsConcurrentlyAndKeepsOrder() throws Exception {
+        // each call waits for the other, so this only finishes if they run at the same time
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Callable<String> first = () -> {
+            bothStarted.countDown();
+            assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+            Thread.sleep(50);
+            return "left";
+        };
+        Callable<String> second = () -> {
+            bothStarted.countDown();
+            assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+            return "right";
+        };
+
+        assertEquals(List.of("left", "right"), TaskProgressPanel.invokeAll(List.of(first, second)));
+    }
+
+    @Test
+    public void testInvokeAllRethrowsFailure() throws Exception {
+        try {
+            TaskProgressPanel.invokeAll(List.<Callable<String>>of(
+                    () -> "left",
+                    () -> {
+                        throw new IOException("fetch failed");
+                    }));
+            fail("Expected the failed call's exception");
+        } catch (IOException e) {
+            assertEquals("fetch failed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testTaskStartedWhileBusyRunsAfterwards() throws Exception {
+        TaskProgressPanel panel = new TaskProgressPanel();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch bothDone = new CountDownLatch(2);
+        List<String> finished = new ArrayList<>();
+        boolean[] started = new boolean[2];
+
+        SwingUtilities.invokeAndWait(() -> {
+            started[0] = panel.run("first", true, () -> release.await(5, TimeUnit.SECONDS), ok -> {
+                finished.add("first");
+                bothDone.countDown();
+            }, e -> fail(e.getMessage()));
+            started[1] = panel.run("second", false, () -> "second", result -> {
+                finished.add(result);
+                bothDone.countDown();
+            }, e -> fail(e.getMessage()));
+        });
+        release.countDown();
+
+        assertTrue(bothDone.await(10, TimeUnit.SECONDS));
+        assertTrue(started[0]);
+        assertFalse(started[1]);
+        SwingUtilities.invokeAndWait(() -> {
+            assertEquals(List.of("first", "second"), finished);
+            assertFalse(panel.isBusy());
+        });
+    }
+}
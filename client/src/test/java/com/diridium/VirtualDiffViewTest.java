@@ -0,0 +1,32 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class VirtualDiffViewTest {
+
+    @Test
+    public void testCopiedTextLeavesOutPadding() {
+        DiffLineModel model = DiffLineModel.diff("a\nb\nc", "a\nB\nc\nd");
+
+        assertEquals("a\nb\nc", VirtualDiffView.textOf(model.getLeftRows(), 0, model.getRowCount() - 1));
+        assertEquals("B\nc\nd", VirtualDiffView.textOf(model.getRightRows(), 1, 3));
+        assertEquals("", VirtualDiffView.textOf(model.getLeftRows(), 3, 3));
+    }
+
+    @Test
+    public void testCopiedTextLeavesOutFolds() {
+        DiffLineModel model = DiffLineModel.diff("1\n2\n3\n4\n5\n6", "1\n2\n3\n4\n5\nsix");
+        List<DiffLineModel.Row> rows = model.collapse(1, Set.of()).getLeftRows();
+
+        assertEquals(DiffLineModel.RowType.FOLD, rows.get(0).type);
+        assertEquals("5\n6", VirtualDiffView.textOf(rows, 0, rows.size() - 1));
+    }
+}
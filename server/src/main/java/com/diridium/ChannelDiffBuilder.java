@@ -0,0 +1,60 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds a {@link ChannelDiff} from the XML of two channel revisions.
+ */
+public final class ChannelDiffBuilder {
+
+    private ChannelDiffBuilder() {
+    }
+
+    public static ChannelDiff build(String leftXml, String rightXml) throws Exception {
+        ChannelXmlDecomposer.DecomposeResult left = ChannelXmlDecomposer.decomposeWithNames(leftXml);
+        ChannelXmlDecomposer.DecomposeResult right = ChannelXmlDecomposer.decomposeWithNames(rightXml);
+        Map<String, DecomposedComponent> leftComponents = left.getComponents();
+        Map<String, DecomposedComponent> rightComponents = right.getComponents();
+
+        ChannelDiff diff = new ChannelDiff();
+        // newer display names take precedence, as in the client tree
+        diff.getGroupDisplayNames().putAll(left.getGroupDisplayNames());
+        diff.getGroupDisplayNames().putAll(right.getGroupDisplayNames());
+
+        Set<String> keys = new LinkedHashSet<>(leftComponents.keySet());
+        keys.addAll(rightComponents.keySet());
+        for (String key : keys) {
+            DecomposedComponent leftComponent = leftComponents.get(key);
+            DecomposedComponent rightComponent = rightComponents.get(key);
+            DecomposedComponent component = rightComponent != null ? rightComponent : leftComponent;
+
+            ComponentDiff componentDiff = new ComponentDiff();
+            componentDiff.setKey(key);
+            componentDiff.setDisplayName(component.getDisplayName());
+            componentDiff.setCategory(component.getCategory());
+            componentDiff.setParentGroup(component.getParentGroup());
+
+            if (leftComponent == null) {
+                componentDiff.setChangeType(ComponentDiff.ChangeType.RIGHT_ONLY);
+                componentDiff.setRightDelta(LineDelta.encode("", rightComponent.getContent()));
+            } else if (rightComponent == null) {
+                componentDiff.setChangeType(ComponentDiff.ChangeType.LEFT_ONLY);
+                componentDiff.setLeftContent(leftComponent.getContent());
+            } else if (!leftComponent.hasSameContent(rightComponent)) {
+                componentDiff.setChangeType(ComponentDiff.ChangeType.MODIFIED);
+                componentDiff.setLeftContent(leftComponent.getContent());
+                componentDiff.setRightDelta(LineDelta.encode(leftComponent.getContent(), rightComponent.getContent()));
+            } else {
+                componentDiff.setChangeType(ComponentDiff.ChangeType.UNCHANGED);
+            }
+            diff.getComponents().add(componentDiff);
+        }
+
+        return diff;
+    }
+}
@@ -4,14 +4,22 @@
 
 package com.diridium;
 
+import java.io.OutputStream;
 import java.util.Calendar;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.StreamingOutput;
 
 import com.mirth.connect.client.core.ClientException;
 import com.mirth.connect.model.Channel;
@@ -37,6 +45,10 @@ public class ChannelHistoryServlet extends MirthServlet implements ChannelHistor
 
     private static final Logger log = LoggerFactory.getLogger(ChannelHistoryServlet.class);
 
+    private interface ContentWriter {
+        boolean write(OutputStream out) throws Exception;
+    }
+
     private DatabaseHistoryRepository repo;
 
     private ChannelController channelController;
@@ -65,6 +77,18 @@ public class ChannelHistoryServlet extends MirthServlet implements ChannelHistor
         }
     }
 
+    @Override
+    @CheckAuthorizedChannelId
+    public List<RevisionInfo> getHistoryPage(String channelId, Long beforeId, int limit) throws ClientException {
+        try {
+            return repo.getChannelHistoryPage(channelId, beforeId, limit);
+        }
+        catch(Exception e) {
+            log.warn("failed to get a history page of channel {}", channelId, e);
+            throw new ClientException(e);
+        }
+    }
+
     @Override
     @CheckAuthorizedChannelId
     public String getContent(String channelId, String revision) throws ClientException {
@@ -77,6 +101,91 @@ public class ChannelHistoryServlet extends MirthServlet implements ChannelHistor
         }
     }
 
+    @Override
+    @CheckAuthorizedChannelId
+    public Response getContents(String channelId, List<String> revisions, boolean gzip) throws ClientException {
+        return streamContents(frames -> repo.writeChannelContents(channelId, revisions, frames), revisions, gzip,
+                "channel " + channelId + " at revisions " + revisions);
+    }
+
+    /**
+     * Responds with content the repository writes straight to the response body,
+     * so it is never held in memory whole. The body is empty when there is no
+     * such content.
+     */
+    private Response streamContent(ContentWriter writer, boolean gzip, String description) {
+        StreamingOutput output = out -> {
+            try {
+                if (!writer.write(out)) {
+                    log.debug("no content to stream for {}", description);
+                }
+            }
+            catch(Exception e) {
+                log.warn("failed to stream the content of {}", description, e);
+                throw new WebApplicationException(e);
+            }
+        };
+        Response.ResponseBuilder response = Response.ok(output, MediaType.APPLICATION_XML_TYPE);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.build();
+    }
+
+    /**
+     * Responds with the {@link ContentFrames} of several revisions, each written
+     * straight from the database as the response is sent.
+     */
+    private Response streamContents(Consumer<ContentFrames.Writer> writer, List<String> revisions, boolean gzip,
+            String description) throws ClientException {
+        try {
+            // reject a bad request before the response is committed
+            DatabaseHistoryRepository.checkBulkContents(revisions);
+        }
+        catch(Exception e) {
+            log.warn("failed to stream the contents of {}", description, e);
+            throw new ClientException(e);
+        }
+
+        StreamingOutput output = out -> {
+            try {
+                OutputStream body = gzip ? new GZIPOutputStream(out, 8192) : out;
+                ContentFrames.Writer frames = new ContentFrames.Writer(body);
+                writer.accept(frames);
+                frames.finish();
+                if (body instanceof GZIPOutputStream) {
+                    ((GZIPOutputStream) body).finish();
+                }
+            }
+            catch(Exception e) {
+                log.warn("failed to stream the contents of {}", description, e);
+                throw new WebApplicationException(e);
+            }
+        };
+        Response.ResponseBuilder response = Response.ok(output, MediaType.APPLICATION_OCTET_STREAM_TYPE);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.build();
+    }
+
+    @Override
+    @CheckAuthorizedChannelId
+    public ChannelDiff getChannelDiff(String channelId, String fromRevision, String toRevision) throws ClientException {
+        try {
+            String left = repo.getChannelContent(channelId, fromRevision);
+            String right = repo.getChannelContent(channelId, toRevision);
+            if (left == null || right == null) {
+                throw new IllegalArgumentException("no history " + (left == null ? fromRevision : toRevision) + " of Channel " + channelId + " exists");
+            }
+            return ChannelDiffBuilder.build(left, right);
+        }
+        catch(Exception e) {
+            log.warn("failed to diff channel {} between revisions {} and {}", channelId, fromRevision, toRevision, e);
+            throw new ClientException(e);
+        }
+    }
+
     private static final String REVERT_HISTORY_BEGIN = "--- BEGIN REVERT HISTORY (do not delete these tags) ---";
     private static final String REVERT_HISTORY_END = "--- END REVERT HISTORY ---";
 
@@ -159,6 +268,17 @@ public class ChannelHistoryServlet extends MirthServlet implements ChannelHistor
         }
     }
 
+    @Override
+    public List<RevisionInfo> getCodeTemplateHistoryPage(String codeTemplateId, Long beforeId, int limit) throws ClientException {
+        try {
+            return repo.getCodeTemplateHistoryPage(codeTemplateId, beforeId, limit);
+        }
+        catch(Exception e) {
+            log.warn("failed to get a history page of code template {}", codeTemplateId, e);
+            throw new ClientException(e);
+        }
+    }
+
     @Override
     public String getCodeTemplateContent(String codeTemplateId, String revision) throws ClientException {
         try {
@@ -170,6 +290,12 @@ public class ChannelHistoryServlet extends MirthServlet implements ChannelHistor
         }
     }
 
+    @Override
+    public Response getCodeTemplateContents(String codeTemplateId, List<String> revisions, boolean gzip) throws ClientException {
+        return streamContents(frames -> repo.writeCodeTemplateContents(codeTemplateId, revisions, frames), revisions, gzip,
+                "code template " + codeTemplateId + " at revisions " + revisions);
+    }
+
     @Override
     public boolean revertCodeTemplate(String codeTemplateId, String revision) throws ClientException {
         try {
@@ -267,6 +393,11 @@ public class ChannelHistoryServlet extends MirthServlet implements ChannelHistor
         }
     }
 
+    @Override
+    public Response getDeletedChannelContentStream(long id, boolean gzip) throws ClientException {
+        return streamContent(out -> repo.writeDeletedChannelContent(id, out, gzip), gzip, "deleted channel " + id);
+    }
+
     @Override
     public boolean purgeDeletedChannel(long id) throws ClientException {
         try {
@@ -306,6 +437,11 @@ public class ChannelHistoryServlet extends MirthServlet implements ChannelHistor
         }
     }
 
+    @Override
+    public Response getDeletedCodeTemplateContentStream(long id, boolean gzip) throws ClientException {
+        return streamContent(out -> repo.writeDeletedCodeTemplateContent(id, out, gzip), gzip, "deleted code template " + id);
+    }
+
     @Override
     public boolean purgeDeletedCodeTemplate(long id) throws ClientException {
         try {
@@ -0,0 +1,44 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.regex.Pattern;
+
+/**
+ * SHA-256 of serialized channel or code template XML, ignoring the fields every
+ * save changes even when nothing else did.
+ */
+public final class ContentHash {
+
+    private static final Pattern VOLATILE_ELEMENTS = Pattern.compile(
+            "<revision>\\d+</revision>|<lastModified>.*?</lastModified>|<userId>\\d+</userId>", Pattern.DOTALL);
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private ContentHash() {
+    }
+
+    public static String of(String xml) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(normalize(xml).getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+
+        char[] hex = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            hex[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[digest[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    static String normalize(String xml) {
+        return VOLATILE_ELEMENTS.matcher(xml).replaceAll("");
+    }
+}
@@ -4,12 +4,27 @@
 
 package com.diridium;
 
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
 
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,17 +46,60 @@ public class DatabaseHistoryRepository {
 
     private static final String NAMESPACE = "ChannelHistory";
 
-    private ObjectXMLSerializer serializer;
-    private UserController userController;
-
-    private DatabaseHistoryRepository() {
+    // bounds the number of deltas applied to rebuild a single revision
+    private static final int MAX_KEYFRAME_INTERVAL = 100;
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    // revisions can be megabytes each, so bulk content requests are kept small
+    static final int MAX_BULK_CONTENTS = 50;
+
+    private static final int MAX_CACHED_USER_NAMES = 256;
+    private static final long USER_NAME_TTL_MS = 5 * 60 * 1000L;
+
+    private final SqlSessionManager sqlSessionManager;
+    private final ObjectXMLSerializer serializer;
+    private final UserController userController;
+    private final UserNameCache userNames = new UserNameCache(MAX_CACHED_USER_NAMES, USER_NAME_TTL_MS);
+    private HistoryWriteQueue writeQueue;
+    private final Object writeLock = new Object();
+
+    // 0 when channel revisions are always stored in full
+    private int deltaKeyframeInterval;
+    private HistoryCodec.Codec compression = HistoryCodec.Codec.NONE;
+    private boolean deduplicateRevisions = true;
+    // "mysql" or "standard", read from the driver on first use
+    private volatile String dialect;
+
+    /**
+     * Creates a repository on the given session manager, starting its write queue
+     * when the settings enable one. {@link #init} uses Mirth's session manager,
+     * tests and benchmarks their own database.
+     *
+     * @param userController resolves committer names, null to show them as unknown
+     */
+    DatabaseHistoryRepository(SqlSessionManager sqlSessionManager, ObjectXMLSerializer serializer,
+            UserController userController, HistorySettings settings) {
+        this.sqlSessionManager = sqlSessionManager;
+        this.serializer = serializer;
+        this.userController = userController;
+
+        if (settings.isDeltaStorageEnabled()) {
+            deltaKeyframeInterval = Math.min(settings.getDeltaKeyframeInterval(), MAX_KEYFRAME_INTERVAL);
+        }
+        compression = settings.getCompression();
+        deduplicateRevisions = settings.isDeduplicateRevisions();
+        if (settings.isWriteQueueEnabled()) {
+            writeQueue = new HistoryWriteQueue(sqlSessionManager, settings.getWriteQueueCapacity(),
+                    settings.getWriteQueueBatchSize(), settings.getWriteQueueOverflowPolicy());
+            writeQueue.start();
+        }
     }
 
     public static synchronized void init(ObjectXMLSerializer serializer) {
         if (instance == null) {
-            instance = new DatabaseHistoryRepository();
-            instance.serializer = serializer;
-            instance.userController = ControllerFactory.getFactory().createUserController();
+            instance = new DatabaseHistoryRepository(SqlConfig.getInstance().getSqlSessionManager(), serializer,
+                    ControllerFactory.getFactory().createUserController(), HistorySettings.load());
             log.info("DatabaseHistoryRepository initialized");
         }
     }
@@ -54,25 +112,148 @@ public class DatabaseHistoryRepository {
     }
 
     public static synchronized void close() {
+        if (instance != null) {
+            instance.shutdown();
+        }
         instance = null;
     }
 
+    /**
+     * Writes out queued history and stops the write queue, if there is one.
+     */
+    void shutdown() {
+        if (writeQueue != null) {
+            writeQueue.shutdown();
+        }
+    }
+
     private static String stmt(String id) {
         return NAMESPACE + "." + id;
     }
 
+    /**
+     * Adds the parameters of the limitRows fragment, which ends a select at
+     * {@code limit} rows in the syntax of the database.
+     */
+    private void putLimit(Map<String, Object> params, int limit) {
+        params.put("limit", limit);
+        params.put("dialect", getDialect());
+    }
+
+    private String getDialect() {
+        String current = dialect;
+        if (current == null) {
+            try (SqlSession session = sqlSessionManager.openSession()) {
+                String product = session.getConnection().getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+                current = product.contains("mysql") || product.contains("mariadb") ? "mysql" : "standard";
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+            dialect = current;
+        }
+        return current;
+    }
+
+    /**
+     * Runs a history write, through the write queue when it is enabled.
+     */
+    private void writeHistory(HistoryWriteQueue.HistoryWrite write, String description) {
+        writeHistory(write, null, description);
+    }
+
+    /**
+     * Runs a history write followed by {@code afterCommit} once the write is
+     * committed, through the write queue when it is enabled.
+     */
+    private void writeHistory(HistoryWriteQueue.HistoryWrite write, Runnable afterCommit, String description) {
+        if (writeQueue != null) {
+            writeQueue.submit(write, afterCommit, description);
+        } else {
+            // serialized like the queue's writer so a write only ever sees its own row as the newest
+            synchronized (writeLock) {
+                try (SqlSession session = sqlSessionManager.openSession(true)) {
+                    write.write(session);
+                }
+                if (afterCommit != null) {
+                    afterCommit.run();
+                }
+            }
+        }
+    }
+
+    /**
+     * Puts content into the text column parameter, or encoded into the matching
+     * binary {@code *Data} parameter when compression is enabled.
+     */
+    private void putContent(Map<String, Object> params, String column, String content) {
+        if (compression != HistoryCodec.Codec.NONE) {
+            params.put(column + "Data", HistoryCodec.encode(content, compression));
+        } else {
+            params.put(column, content);
+        }
+    }
+
+    /**
+     * Reads content written by {@link #putContent}, whichever column it was stored in.
+     */
+    private static String readContent(Map<String, Object> row, String column) {
+        if (row == null) {
+            return null;
+        }
+        byte[] data = (byte[]) row.get(column + "Data");
+        return data != null ? HistoryCodec.decode(data) : (String) row.get(column);
+    }
+
+    /**
+     * Whether the newest stored revision has the given content hash, in which case
+     * storing another copy would only add an empty diff to the history. Runs in the
+     * write's transaction, so a failed lookup fails the write rather than letting it
+     * continue in a transaction the database may already have aborted.
+     */
+    private boolean isLatestRevision(SqlSession session, String statement, String id, String contentHash) {
+        if (!deduplicateRevisions) {
+            return false;
+        }
+        String latestHash = session.selectOne(stmt(statement), id);
+        return contentHash.equals(latestHash);
+    }
+
+    /**
+     * Makes queued history rows visible before they are read, pruned or deleted.
+     */
+    private void flushPendingWrites() {
+        if (writeQueue != null) {
+            writeQueue.flush();
+        }
+    }
+
+    private List<RevisionInfo> getHistoryPage(String statement, Map<String, Object> params, int limit) {
+        flushPendingWrites();
+        putLimit(params, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        List<Map<String, Object>> results = sqlSessionManager.selectList(stmt(statement), params);
+
+        List<RevisionInfo> page = new ArrayList<>(results.size());
+        for (Map<String, Object> row : results) {
+            page.add(toRevisionInfo(row));
+        }
+        return page;
+    }
+
+    private RevisionInfo toRevisionInfo(Map<String, Object> row) {
+        RevisionInfo ri = new RevisionInfo();
+        ri.setHash(String.valueOf(row.get("id")));
+        ri.setRevision((Integer) row.get("revision"));
+        Timestamp ts = (Timestamp) row.get("dateCreated");
+        ri.setTime(ts != null ? ts.getTime() : 0L);
+        ri.setCommitterName(getUserName((Integer) row.get("userId")));
+        return ri;
+    }
+
     // ========== Channel History Methods ==========
 
     public void saveChannelHistory(Channel channel, int userId) {
         try {
-            Map<String, Object> params = new HashMap<>();
-            params.put("revision", channel.getRevision());
-            params.put("channelId", channel.getId());
-            params.put("userId", userId);
-            params.put("dateCreated", new Timestamp(System.currentTimeMillis()));
-            params.put("channel", serializer.serialize(channel));
-
-            SqlConfig.getInstance().getSqlSessionManager().insert(stmt("insertChannelHistory"), params);
+            saveChannelContent(channel.getId(), channel.getRevision(), userId, serializer.serialize(channel));
             log.debug("Saved channel history for channel {} revision {}", channel.getId(), channel.getRevision());
         } catch (Exception e) {
             // Fail silent - don't block channel save if history save fails
@@ -80,21 +261,39 @@ public class DatabaseHistoryRepository {
         }
     }
 
+    /**
+     * Stores serialized channel XML as a new revision of the channel.
+     */
+    void saveChannelContent(String channelId, int revision, int userId, String content) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("revision", revision);
+        params.put("channelId", channelId);
+        params.put("userId", userId);
+        params.put("dateCreated", new Timestamp(System.currentTimeMillis()));
+
+        writeHistory(session -> {
+            String contentHash = ContentHash.of(content);
+            if (isLatestRevision(session, "getLatestChannelHash", channelId, contentHash)) {
+                log.debug("Channel {} revision {} is unchanged from the latest stored revision, skipping", channelId, revision);
+                return;
+            }
+            params.put("contentHash", contentHash);
+            putContent(params, "channel", content);
+            session.insert(stmt("insertChannelHistory"), params);
+        }, deltaKeyframeInterval > 1 ? () -> storePreviousRevisionAsDelta(channelId, revision, content) : null,
+                "channel history for channel " + channelId + " revision " + revision);
+    }
+
     public List<RevisionInfo> getChannelHistory(String channelId) {
         List<RevisionInfo> history = new ArrayList<>();
 
         try {
-            List<Map<String, Object>> results = SqlConfig.getInstance().getSqlSessionManager()
+            flushPendingWrites();
+            List<Map<String, Object>> results = sqlSessionManager
                     .selectList(stmt("getChannelHistory"), channelId);
 
             for (Map<String, Object> row : results) {
-                RevisionInfo ri = new RevisionInfo();
-                ri.setHash(String.valueOf(row.get("id")));
-                ri.setRevision((Integer) row.get("revision"));
-                Timestamp ts = (Timestamp) row.get("dateCreated");
-                ri.setTime(ts != null ? ts.getTime() : 0L);
-                ri.setCommitterName(getUserName((Integer) row.get("userId")));
-                history.add(ri);
+                history.add(toRevisionInfo(row));
             }
         } catch (Exception e) {
             log.error("Failed to get channel history for {}", channelId, e);
@@ -104,27 +303,101 @@ public class DatabaseHistoryRepository {
         return history;
     }
 
+    /**
+     * Returns up to {@code limit} revisions older than {@code beforeId}, newest
+     * first. A null {@code beforeId} starts at the latest revision.
+     */
+    public List<RevisionInfo> getChannelHistoryPage(String channelId, Long beforeId, int limit) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("channelId", channelId);
+        params.put("beforeId", beforeId);
+
+        try {
+            return getHistoryPage("getChannelHistoryPage", params, limit);
+        } catch (Exception e) {
+            log.error("Failed to get channel history page for {} before {}", channelId, beforeId, e);
+            throw new RuntimeException(e);
+        }
+    }
+
     public String getChannelContent(String channelId, String historyId) {
         try {
             Map<String, Object> params = new HashMap<>();
             params.put("id", Long.parseLong(historyId));
             params.put("channelId", channelId);
 
-            return SqlConfig.getInstance().getSqlSessionManager()
+            Map<String, Object> row = sqlSessionManager
                     .selectOne(stmt("getChannelContent"), params);
+            if (row == null) {
+                return null;
+            }
+
+            String content = readContent(row, "channel");
+            Long deltaBaseId = (Long) row.get("deltaBaseId");
+            if (deltaBaseId == null) {
+                return content;
+            }
+            return reconstructChannelContent(channelId, (Long) row.get("id"), deltaBaseId, content);
         } catch (Exception e) {
             log.error("Failed to get channel content for {} at history {}", channelId, historyId, e);
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Writes a {@link ContentFrames} frame with the content of each of several
+     * revisions of a channel, in the order requested, each streamed like
+     * {@link #writeChannelContent}. Ids that are not revisions of the channel
+     * are written as missing.
+     */
+    public void writeChannelContents(String channelId, List<String> historyIds, ContentFrames.Writer frames) {
+        checkBulkContents(historyIds);
+        try {
+            for (String historyId : historyIds) {
+                frames.write(historyId, out -> writeChannelContent(channelId, historyId, out, false));
+            }
+        } catch (Exception e) {
+            log.error("Failed to stream channel contents for {} at history {}", channelId, historyIds, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Writes the content of a channel revision to {@code out} as UTF-8, gzip
+     * compressed when {@code gzip} is set, straight from the database's stream
+     * instead of reading it into a String. Revisions stored as deltas are rebuilt
+     * in memory first.
+     *
+     * @return false if there is no such revision, in which case nothing is written
+     */
+    public boolean writeChannelContent(String channelId, String historyId, OutputStream out, boolean gzip) {
+        try {
+            Map<String, Object> params = new HashMap<>();
+            params.put("id", Long.parseLong(historyId));
+            params.put("channelId", channelId);
+
+            StoredContent stored = streamContent("streamChannelContent", params, out, gzip);
+            if (stored == StoredContent.DELTA) {
+                String content = getChannelContent(channelId, historyId);
+                try (OutputStream target = openOutput(out, gzip)) {
+                    target.write(content.getBytes(StandardCharsets.UTF_8));
+                }
+                return true;
+            }
+            return stored == StoredContent.WRITTEN;
+        } catch (Exception e) {
+            log.error("Failed to stream channel content for {} at history {}", channelId, historyId, e);
+            throw new RuntimeException(e);
+        }
+    }
+
     public int getChannelRevisionNumber(String channelId, String historyId) {
         try {
             Map<String, Object> params = new HashMap<>();
             params.put("id", Long.parseLong(historyId));
             params.put("channelId", channelId);
 
-            Integer revision = SqlConfig.getInstance().getSqlSessionManager()
+            Integer revision = sqlSessionManager
                     .selectOne(stmt("getChannelRevisionNumber"), params);
             return revision != null ? revision : -1;
         } catch (Exception e) {
@@ -136,8 +409,9 @@ public class DatabaseHistoryRepository {
 
     public Channel getChannelAtRevision(String channelId, String historyId) throws Exception {
         // First verify this isn't the latest entry
-        List<RevisionInfo> history = getChannelHistory(channelId);
-        if (!history.isEmpty() && history.get(0).getHash().equals(historyId)) {
+        flushPendingWrites();
+        Long latestId = sqlSessionManager.selectOne(stmt("getLatestChannelHistoryId"), channelId);
+        if (latestId != null && String.valueOf(latestId).equals(historyId)) {
             throw new IllegalArgumentException("cannot revert to the same revision");
         }
 
@@ -151,7 +425,8 @@ public class DatabaseHistoryRepository {
 
     public void deleteChannelHistory(String channelId) {
         try {
-            int deleted = SqlConfig.getInstance().getSqlSessionManager()
+            flushPendingWrites();
+            int deleted = sqlSessionManager
                     .delete(stmt("deleteChannelHistory"), channelId);
             log.debug("Deleted {} history entries for channel {}", deleted, channelId);
         } catch (Exception e) {
@@ -160,6 +435,112 @@ public class DatabaseHistoryRepository {
         }
     }
 
+    // ========== Channel Delta Storage ==========
+
+    /**
+     * Replaces the revision before the one just inserted with a line delta against it.
+     * Deltas point at the next newer revision, so the newest revision is always stored
+     * in full and pruning older revisions never removes a base that is still needed.
+     * At most {@code deltaKeyframeInterval - 1} deltas are chained before a full
+     * revision is kept.
+     * <p>
+     * Runs in its own transaction after the new revision is committed, so a failure
+     * rolls back only the rewrite and the previous revision stays stored in full.
+     * Newer revisions written in the same batch are skipped over, each of them
+     * rewrites its own previous revision afterwards.
+     */
+    private void storePreviousRevisionAsDelta(String channelId, int revision, String content) {
+        try (SqlSession session = sqlSessionManager.openSession(false)) {
+            Map<String, Object> recentParams = new HashMap<>();
+            recentParams.put("channelId", channelId);
+            recentParams.put("revision", revision);
+            putLimit(recentParams, deltaKeyframeInterval + 1);
+            List<Map<String, Object>> recent = session.selectList(stmt("getRecentChannelStorage"), recentParams);
+            if (recent.size() < 2
+                    || !Objects.equals(recent.get(0).get("revision"), revision)
+                    || recent.get(1).get("deltaBaseId") != null) {
+                return;
+            }
+
+            int olderDeltas = 0;
+            while (olderDeltas + 2 < recent.size() && recent.get(olderDeltas + 2).get("deltaBaseId") != null) {
+                olderDeltas++;
+            }
+            if (olderDeltas >= deltaKeyframeInterval - 1) {
+                // keep the previous revision as a keyframe
+                return;
+            }
+
+            Long previousId = (Long) recent.get(1).get("id");
+            String previous = readContent(session.selectOne(stmt("getChannelStoredContent"), previousId), "channel");
+            if (previous == null) {
+                return;
+            }
+
+            String delta = LineDelta.encode(content, previous);
+            if (delta.length() >= previous.length()) {
+                return;
+            }
+
+            Map<String, Object> params = new HashMap<>();
+            params.put("id", previousId);
+            params.put("deltaBaseId", recent.get(0).get("id"));
+            putContent(params, "channel", delta);
+            session.update(stmt("updateChannelHistoryDelta"), params);
+            session.commit();
+        } catch (Exception e) {
+            // Fail silent - the rewrite is rolled back and the previous revision stays stored in full
+            log.warn("Could not store the previous revision of channel {} as a delta", channelId, e);
+        }
+    }
+
+    /**
+     * Rebuilds a delta-encoded revision by applying the deltas between it and the
+     * nearest newer full revision.
+     */
+    private String reconstructChannelContent(String channelId, long id, long deltaBaseId, String delta) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("channelId", channelId);
+        params.put("id", id);
+
+        Map<Long, Long> baseIds = new HashMap<>();
+        Long[] keyframeId = new Long[1];
+        sqlSessionManager.select(stmt("getChannelDeltaChain"), params, context -> {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> row = (Map<String, Object>) context.getResultObject();
+            Long rowBaseId = (Long) row.get("deltaBaseId");
+            if (rowBaseId == null) {
+                keyframeId[0] = (Long) row.get("id");
+                context.stop();
+            } else {
+                baseIds.put((Long) row.get("id"), rowBaseId);
+            }
+        });
+
+        List<Long> chain = new ArrayList<>();
+        Long current = deltaBaseId;
+        while (baseIds.containsKey(current)) {
+            chain.add(current);
+            current = baseIds.get(current);
+        }
+        if (!current.equals(keyframeId[0])) {
+            throw new IllegalStateException("history of channel " + channelId + " has no full revision to rebuild " + id + " from");
+        }
+        chain.add(current);
+
+        Map<Long, String> contents = new HashMap<>();
+        List<Map<String, Object>> rows = sqlSessionManager.selectList(stmt("getChannelStoredContents"), chain);
+        for (Map<String, Object> row : rows) {
+            contents.put((Long) row.get("id"), readContent(row, "channel"));
+        }
+
+        String content = contents.get(current);
+        for (int i = chain.size() - 2; i >= 0; i--) {
+            content = LineDelta.apply(content, contents.get(chain.get(i)));
+        }
+        return LineDelta.apply(content, delta);
+    }
+
     // ========== Code Template History Methods ==========
 
     public void saveCodeTemplateHistory(CodeTemplate codeTemplate, int userId) {
@@ -169,9 +550,20 @@ public class DatabaseHistoryRepository {
             params.put("codeTemplateId", codeTemplate.getId());
             params.put("userId", userId);
             params.put("dateCreated", new Timestamp(System.currentTimeMillis()));
-            params.put("codeTemplate", serializer.serialize(codeTemplate));
-
-            SqlConfig.getInstance().getSqlSessionManager().insert(stmt("insertCodeTemplateHistory"), params);
+            String content = serializer.serialize(codeTemplate);
+
+            String codeTemplateId = codeTemplate.getId();
+            int revision = codeTemplate.getRevision();
+            writeHistory(session -> {
+                String contentHash = ContentHash.of(content);
+                if (isLatestRevision(session, "getLatestCodeTemplateHash", codeTemplateId, contentHash)) {
+                    log.debug("Code template {} revision {} is unchanged from the latest stored revision, skipping", codeTemplateId, revision);
+                    return;
+                }
+                params.put("contentHash", contentHash);
+                putContent(params, "codeTemplate", content);
+                session.insert(stmt("insertCodeTemplateHistory"), params);
+            }, "code template history for " + codeTemplateId + " revision " + revision);
             log.debug("Saved code template history for {} revision {}", codeTemplate.getId(), codeTemplate.getRevision());
         } catch (Exception e) {
             // Fail silent - don't block code template save if history save fails
@@ -183,17 +575,12 @@ public class DatabaseHistoryRepository {
         List<RevisionInfo> history = new ArrayList<>();
 
         try {
-            List<Map<String, Object>> results = SqlConfig.getInstance().getSqlSessionManager()
+            flushPendingWrites();
+            List<Map<String, Object>> results = sqlSessionManager
                     .selectList(stmt("getCodeTemplateHistory"), codeTemplateId);
 
             for (Map<String, Object> row : results) {
-                RevisionInfo ri = new RevisionInfo();
-                ri.setHash(String.valueOf(row.get("id")));
-                ri.setRevision((Integer) row.get("revision"));
-                Timestamp ts = (Timestamp) row.get("dateCreated");
-                ri.setTime(ts != null ? ts.getTime() : 0L);
-                ri.setCommitterName(getUserName((Integer) row.get("userId")));
-                history.add(ri);
+                history.add(toRevisionInfo(row));
             }
         } catch (Exception e) {
             log.error("Failed to get code template history for {}", codeTemplateId, e);
@@ -203,23 +590,75 @@ public class DatabaseHistoryRepository {
         return history;
     }
 
+    /**
+     * Returns up to {@code limit} revisions older than {@code beforeId}, newest
+     * first. A null {@code beforeId} starts at the latest revision.
+     */
+    public List<RevisionInfo> getCodeTemplateHistoryPage(String codeTemplateId, Long beforeId, int limit) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("codeTemplateId", codeTemplateId);
+        params.put("beforeId", beforeId);
+
+        try {
+            return getHistoryPage("getCodeTemplateHistoryPage", params, limit);
+        } catch (Exception e) {
+            log.error("Failed to get code template history page for {} before {}", codeTemplateId, beforeId, e);
+            throw new RuntimeException(e);
+        }
+    }
+
     public String getCodeTemplateContent(String codeTemplateId, String historyId) {
         try {
             Map<String, Object> params = new HashMap<>();
             params.put("id", Long.parseLong(historyId));
             params.put("codeTemplateId", codeTemplateId);
 
-            return SqlConfig.getInstance().getSqlSessionManager()
+            Map<String, Object> row = sqlSessionManager
                     .selectOne(stmt("getCodeTemplateContent"), params);
+            return readContent(row, "codeTemplate");
         } catch (Exception e) {
             log.error("Failed to get code template content for {} at history {}", codeTemplateId, historyId, e);
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Writes the content of several revisions of a code template, see
+     * {@link #writeChannelContents}.
+     */
+    public void writeCodeTemplateContents(String codeTemplateId, List<String> historyIds, ContentFrames.Writer frames) {
+        checkBulkContents(historyIds);
+        try {
+            for (String historyId : historyIds) {
+                frames.write(historyId, out -> writeCodeTemplateContent(codeTemplateId, historyId, out, false));
+            }
+        } catch (Exception e) {
+            log.error("Failed to stream code template contents for {} at history {}", codeTemplateId, historyIds, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Writes the content of a code template revision to {@code out}, see
+     * {@link #writeChannelContent}.
+     */
+    public boolean writeCodeTemplateContent(String codeTemplateId, String historyId, OutputStream out, boolean gzip) {
+        try {
+            Map<String, Object> params = new HashMap<>();
+            params.put("id", Long.parseLong(historyId));
+            params.put("codeTemplateId", codeTemplateId);
+
+            return streamContent("streamCodeTemplateContent", params, out, gzip) == StoredContent.WRITTEN;
+        } catch (Exception e) {
+            log.error("Failed to stream code template content for {} at history {}", codeTemplateId, historyId, e);
+            throw new RuntimeException(e);
+        }
+    }
+
     public void deleteCodeTemplateHistory(String codeTemplateId) {
         try {
-            int deleted = SqlConfig.getInstance().getSqlSessionManager()
+            flushPendingWrites();
+            int deleted = sqlSessionManager
                     .delete(stmt("deleteCodeTemplateHistory"), codeTemplateId);
             log.debug("Deleted {} history entries for code template {}", deleted, codeTemplateId);
         } catch (Exception e) {
@@ -230,8 +669,9 @@ public class DatabaseHistoryRepository {
 
     public CodeTemplate getCodeTemplateAtRevision(String codeTemplateId, String historyId) throws Exception {
         // First verify this isn't the latest entry
-        List<RevisionInfo> history = getCodeTemplateHistory(codeTemplateId);
-        if (!history.isEmpty() && history.get(0).getHash().equals(historyId)) {
+        flushPendingWrites();
+        Long latestId = sqlSessionManager.selectOne(stmt("getLatestCodeTemplateHistoryId"), codeTemplateId);
+        if (latestId != null && String.valueOf(latestId).equals(historyId)) {
             throw new IllegalArgumentException("cannot revert to the same revision");
         }
 
@@ -247,11 +687,12 @@ public class DatabaseHistoryRepository {
 
     public int pruneChannelHistoryOlderThan(String channelId, String historyId) {
         try {
+            flushPendingWrites();
             Map<String, Object> params = new HashMap<>();
             params.put("channelId", channelId);
             params.put("id", Long.parseLong(historyId));
 
-            int deleted = SqlConfig.getInstance().getSqlSessionManager()
+            int deleted = sqlSessionManager
                     .delete(stmt("pruneChannelHistory"), params);
             log.info("Pruned {} older history entries for channel {}", deleted, channelId);
             return deleted;
@@ -263,11 +704,12 @@ public class DatabaseHistoryRepository {
 
     public int pruneCodeTemplateHistoryOlderThan(String codeTemplateId, String historyId) {
         try {
+            flushPendingWrites();
             Map<String, Object> params = new HashMap<>();
             params.put("codeTemplateId", codeTemplateId);
             params.put("id", Long.parseLong(historyId));
 
-            int deleted = SqlConfig.getInstance().getSqlSessionManager()
+            int deleted = sqlSessionManager
                     .delete(stmt("pruneCodeTemplateHistory"), params);
             log.info("Pruned {} older history entries for code template {}", deleted, codeTemplateId);
             return deleted;
@@ -286,9 +728,9 @@ public class DatabaseHistoryRepository {
             params.put("name", channel.getName());
             params.put("userId", userId);
             params.put("dateDeleted", new Timestamp(System.currentTimeMillis()));
-            params.put("content", serializer.serialize(channel));
+            putContent(params, "content", serializer.serialize(channel));
 
-            SqlConfig.getInstance().getSqlSessionManager().insert(stmt("insertDeletedChannel"), params);
+            sqlSessionManager.insert(stmt("insertDeletedChannel"), params);
             log.info("Saved deleted channel snapshot for {} ({})", channel.getName(), channel.getId());
         } catch (Exception e) {
             // Fail silent - don't block channel delete if snapshot save fails
@@ -303,9 +745,9 @@ public class DatabaseHistoryRepository {
             params.put("name", codeTemplate.getName());
             params.put("userId", userId);
             params.put("dateDeleted", new Timestamp(System.currentTimeMillis()));
-            params.put("content", serializer.serialize(codeTemplate));
+            putContent(params, "content", serializer.serialize(codeTemplate));
 
-            SqlConfig.getInstance().getSqlSessionManager().insert(stmt("insertDeletedCodeTemplate"), params);
+            sqlSessionManager.insert(stmt("insertDeletedCodeTemplate"), params);
             log.info("Saved deleted code template snapshot for {} ({})", codeTemplate.getName(), codeTemplate.getId());
         } catch (Exception e) {
             // Fail silent - don't block code template delete if snapshot save fails
@@ -317,7 +759,7 @@ public class DatabaseHistoryRepository {
         List<DeletedItemInfo> items = new ArrayList<>();
 
         try {
-            List<Map<String, Object>> results = SqlConfig.getInstance().getSqlSessionManager()
+            List<Map<String, Object>> results = sqlSessionManager
                     .selectList(stmt("getDeletedChannels"));
 
             for (Map<String, Object> row : results) {
@@ -342,7 +784,7 @@ public class DatabaseHistoryRepository {
         List<DeletedItemInfo> items = new ArrayList<>();
 
         try {
-            List<Map<String, Object>> results = SqlConfig.getInstance().getSqlSessionManager()
+            List<Map<String, Object>> results = sqlSessionManager
                     .selectList(stmt("getDeletedCodeTemplates"));
 
             for (Map<String, Object> row : results) {
@@ -365,8 +807,9 @@ public class DatabaseHistoryRepository {
 
     public String getDeletedChannelContent(long id) {
         try {
-            return SqlConfig.getInstance().getSqlSessionManager()
+            Map<String, Object> row = sqlSessionManager
                     .selectOne(stmt("getDeletedChannelContent"), id);
+            return readContent(row, "content");
         } catch (Exception e) {
             log.error("Failed to get deleted channel content for id {}", id, e);
             throw new RuntimeException(e);
@@ -375,17 +818,36 @@ public class DatabaseHistoryRepository {
 
     public String getDeletedCodeTemplateContent(long id) {
         try {
-            return SqlConfig.getInstance().getSqlSessionManager()
+            Map<String, Object> row = sqlSessionManager
                     .selectOne(stmt("getDeletedCodeTemplateContent"), id);
+            return readContent(row, "content");
         } catch (Exception e) {
             log.error("Failed to get deleted code template content for id {}", id, e);
             throw new RuntimeException(e);
         }
     }
 
+    public boolean writeDeletedChannelContent(long id, OutputStream out, boolean gzip) {
+        try {
+            return streamContent("streamDeletedChannelContent", id, out, gzip) == StoredContent.WRITTEN;
+        } catch (Exception e) {
+            log.error("Failed to stream deleted channel content for id {}", id, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    public boolean writeDeletedCodeTemplateContent(long id, OutputStream out, boolean gzip) {
+        try {
+            return streamContent("streamDeletedCodeTemplateContent", id, out, gzip) == StoredContent.WRITTEN;
+        } catch (Exception e) {
+            log.error("Failed to stream deleted code template content for id {}", id, e);
+            throw new RuntimeException(e);
+        }
+    }
+
     public DeletedItemInfo getDeletedChannelInfo(long id) {
         try {
-            Map<String, Object> row = SqlConfig.getInstance().getSqlSessionManager()
+            Map<String, Object> row = sqlSessionManager
                     .selectOne(stmt("getDeletedChannelInfoById"), id);
             if (row == null) return null;
 
@@ -405,7 +867,7 @@ public class DatabaseHistoryRepository {
 
     public DeletedItemInfo getDeletedCodeTemplateInfo(long id) {
         try {
-            Map<String, Object> row = SqlConfig.getInstance().getSqlSessionManager()
+            Map<String, Object> row = sqlSessionManager
                     .selectOne(stmt("getDeletedCodeTemplateInfoById"), id);
             if (row == null) return null;
 
@@ -425,7 +887,7 @@ public class DatabaseHistoryRepository {
 
     public void purgeDeletedChannel(long id) {
         try {
-            SqlConfig.getInstance().getSqlSessionManager()
+            sqlSessionManager
                     .delete(stmt("purgeDeletedChannel"), id);
             log.info("Purged deleted channel snapshot id {}", id);
         } catch (Exception e) {
@@ -436,7 +898,7 @@ public class DatabaseHistoryRepository {
 
     public void purgeDeletedCodeTemplate(long id) {
         try {
-            SqlConfig.getInstance().getSqlSessionManager()
+            sqlSessionManager
                     .delete(stmt("purgeDeletedCodeTemplate"), id);
             log.info("Purged deleted code template snapshot id {}", id);
         } catch (Exception e) {
@@ -445,17 +907,127 @@ public class DatabaseHistoryRepository {
         }
     }
 
+    // ========== Bulk Content ==========
+
+    static void checkBulkContents(List<String> historyIds) {
+        if (historyIds == null || historyIds.isEmpty()) {
+            throw new IllegalArgumentException("no history ids given");
+        }
+        if (historyIds.size() > MAX_BULK_CONTENTS) {
+            throw new IllegalArgumentException("at most " + MAX_BULK_CONTENTS + " revisions can be fetched at once");
+        }
+    }
+
+    // ========== Content Streaming ==========
+
+    private enum StoredContent {
+        MISSING,
+        /** Stored uncompressed in the text column, not yet written. */
+        TEXT,
+        /** A channel revision stored as a delta, not written. */
+        DELTA,
+        WRITTEN
+    }
+
+    /**
+     * Copies content written by {@link #putContent} to {@code out} using the
+     * {@code <statement>Data} and {@code <statement>Text} selects. The binary
+     * column is read first and the text column only when it is empty. Content
+     * stored as GZIP is copied without recompressing when {@code gzip} is set.
+     */
+    private StoredContent streamContent(String statement, Object params, OutputStream out, boolean gzip) {
+        StoredContent[] stored = { StoredContent.MISSING };
+        sqlSessionManager.select(stmt(statement + "Data"), params, context -> {
+            context.stop();
+            @SuppressWarnings("unchecked")
+            Map<String, Object> row = (Map<String, Object>) context.getResultObject();
+            if (row.get("deltaBaseId") != null) {
+                stored[0] = StoredContent.DELTA;
+                return;
+            }
+            InputStream data = (InputStream) row.get("contentData");
+            if (data == null) {
+                stored[0] = StoredContent.TEXT;
+                return;
+            }
+            try {
+                HistoryCodec.Codec codec = HistoryCodec.readHeader(data);
+                if (gzip && codec == HistoryCodec.Codec.GZIP) {
+                    data.transferTo(out);
+                } else {
+                    try (InputStream in = HistoryCodec.decodingStream(data, codec);
+                            OutputStream target = openOutput(out, gzip)) {
+                        in.transferTo(target);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            stored[0] = StoredContent.WRITTEN;
+        });
+
+        if (stored[0] == StoredContent.TEXT) {
+            sqlSessionManager.select(stmt(statement + "Text"), params, context -> {
+                context.stop();
+                @SuppressWarnings("unchecked")
+                Map<String, Object> row = (Map<String, Object>) context.getResultObject();
+                Reader reader = row != null ? (Reader) row.get("content") : null;
+                if (reader == null) {
+                    stored[0] = StoredContent.MISSING;
+                    return;
+                }
+                try (Writer writer = new OutputStreamWriter(openOutput(out, gzip), StandardCharsets.UTF_8)) {
+                    reader.transferTo(writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                stored[0] = StoredContent.WRITTEN;
+            });
+        }
+        return stored[0];
+    }
+
+    /**
+     * Wraps {@code out} for writing one piece of content. Closing the wrapper
+     * finishes the gzip stream but leaves {@code out} open for its owner.
+     */
+    private static OutputStream openOutput(OutputStream out, boolean gzip) throws IOException {
+        OutputStream unclosed = new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+        return gzip ? new GZIPOutputStream(unclosed, 8192) : unclosed;
+    }
+
     // ========== Helper Methods ==========
 
+    /**
+     * Returns the name of the user, cached for a few minutes so listings do not
+     * look up every committer on each request.
+     */
     public String getUserName(int userId) {
+        if (userController == null) {
+            return "Unknown";
+        }
+        String name = userNames.get(userId, this::lookUpUserName);
+        return name != null ? name : "Unknown";
+    }
+
+    private String lookUpUserName(int userId) {
         try {
             User user = userController.getUser(userId, null);
-            if (user != null) {
-                return user.getUsername();
-            }
+            // a deleted user is cached as unknown
+            return user != null ? user.getUsername() : "Unknown";
         } catch (Exception e) {
             log.debug("Could not get username for user {}", userId, e);
+            return null;
         }
-        return "Unknown";
     }
 }
@@ -0,0 +1,159 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Encodes stored history content for the binary content columns. Every value
+ * starts with a two byte header, a marker byte followed by the codec id, so rows
+ * written with different codecs can be read side by side.
+ */
+public final class HistoryCodec {
+
+    private static final byte MARKER = (byte) 0xC7;
+    private static final int HEADER_LENGTH = 2;
+
+    public enum Codec {
+        /** UTF-8 bytes without compression. */
+        NONE(0),
+        GZIP(1),
+        /** Raw deflate, the same compression as GZIP without its header and checksum. */
+        DEFLATE(2);
+
+        private final byte id;
+
+        Codec(int id) {
+            this.id = (byte) id;
+        }
+
+        static Codec fromId(byte id) {
+            for (Codec codec : values()) {
+                if (codec.id == id) {
+                    return codec;
+                }
+            }
+            throw new IllegalArgumentException("unknown history codec id " + id);
+        }
+    }
+
+    private HistoryCodec() {
+    }
+
+    public static byte[] encode(String content, Codec codec) {
+        byte[] raw = content.getBytes(StandardCharsets.UTF_8);
+        // compressed XML is typically a tenth of its size
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(codec == Codec.NONE ? raw.length + HEADER_LENGTH : raw.length / 8 + 64);
+        bos.write(MARKER);
+        bos.write(codec.id);
+
+        try {
+            switch (codec) {
+                case GZIP:
+                    try (OutputStream out = new GZIPOutputStream(bos, 8192)) {
+                        out.write(raw);
+                    }
+                    break;
+                case DEFLATE:
+                    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+                    try (OutputStream out = new DeflaterOutputStream(bos, deflater, 8192)) {
+                        out.write(raw);
+                    } finally {
+                        deflater.end();
+                    }
+                    break;
+                case NONE:
+                default:
+                    bos.write(raw);
+                    break;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        return bos.toByteArray();
+    }
+
+    public static String decode(byte[] data) {
+        if (data.length < HEADER_LENGTH || data[0] != MARKER) {
+            throw new IllegalArgumentException("stored history content has no codec header");
+        }
+
+        Codec codec = Codec.fromId(data[1]);
+        if (codec == Codec.NONE) {
+            return new String(data, HEADER_LENGTH, data.length - HEADER_LENGTH, StandardCharsets.UTF_8);
+        }
+
+        InputStream bis = new ByteArrayInputStream(data, HEADER_LENGTH, data.length - HEADER_LENGTH);
+        Inflater inflater = null;
+        try {
+            InputStream in;
+            if (codec == Codec.GZIP) {
+                in = new GZIPInputStream(bis, 8192);
+            } else {
+                inflater = new Inflater(true);
+                in = new InflaterInputStream(bis, inflater, 8192);
+            }
+            try (in) {
+                return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            if (inflater != null) {
+                inflater.end();
+            }
+        }
+    }
+
+    /**
+     * Reads the header of an encoded value from the start of {@code in}, leaving
+     * the stream at the encoded content.
+     */
+    public static Codec readHeader(InputStream in) throws IOException {
+        int marker = in.read();
+        int id = in.read();
+        if (marker != (MARKER & 0xFF) || id < 0) {
+            throw new IllegalArgumentException("stored history content has no codec header");
+        }
+        return Codec.fromId((byte) id);
+    }
+
+    /**
+     * Wraps content encoded with {@code codec}, positioned after its header, in a
+     * stream of its UTF-8 bytes. Closing the returned stream closes {@code in}.
+     */
+    public static InputStream decodingStream(InputStream in, Codec codec) throws IOException {
+        switch (codec) {
+            case GZIP:
+                return new GZIPInputStream(in, 8192);
+            case DEFLATE:
+                Inflater inflater = new Inflater(true);
+                return new InflaterInputStream(in, inflater, 8192) {
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            inflater.end();
+                        }
+                    }
+                };
+            case NONE:
+            default:
+                return in;
+        }
+    }
+}
@@ -4,9 +4,17 @@
 
 package com.diridium;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
+import java.util.Scanner;
 
 import com.mirth.connect.server.migration.Migrator;
 import com.mirth.connect.model.util.MigrationException;
@@ -17,16 +25,189 @@ import org.slf4j.LoggerFactory;
 /**
  * Migrator for creating history tables used by the simple-channel-history plugin.
  * Creates channel_history, code_template_history, deleted_channel, and
- * deleted_code_template tables on first startup.
+ * deleted_code_template tables on first startup, then applies the statements
+ * of the upgrade scripts whose columns or indexes an existing install lacks.
+ * Each upgrade statement is checked against the object it changes, so an
+ * upgrade that failed part way fails the migration and is finished on the
+ * next startup. The history listing index on PostgreSQL uses INCLUDE, which
+ * needs PostgreSQL 11 or later.
  */
 public class HistoryMigrator extends Migrator {
 
     private static final Logger log = LoggerFactory.getLogger(HistoryMigrator.class);
 
+    /** Tells whether an upgrade statement still has to run. */
+    @FunctionalInterface
+    private interface SchemaCheck {
+        boolean isNeeded() throws SQLException;
+    }
+
     @Override
     public void migrate() throws MigrationException {
-        executeScriptSafely("/" + getDatabaseType() + "-history-tables.sql", "History tables");
-        executeScriptSafely("/" + getDatabaseType() + "-deleted-tables.sql", "Deleted item tables");
+        createIfTableMissing("channel_history", "-history-tables.sql", "History tables");
+        createIfTableMissing("deleted_channel", "-deleted-tables.sql", "Deleted item tables");
+
+        upgrade("-history-delta-storage.sql", "Delta storage columns",
+                columnMissing("channel_history", "delta_base_id"));
+        upgrade("-history-compression.sql", "Compressed history columns",
+                columnMissing("channel_history", "channel_data"),
+                columnMissing("code_template_history", "code_template_data"));
+        upgrade("-deleted-compression.sql", "Compressed deleted item columns",
+                columnMissing("deleted_channel", "content_data"),
+                columnMissing("deleted_code_template", "content_data"));
+        upgrade("-history-content-hash.sql", "Content hash columns",
+                columnMissing("channel_history", "content_hash"),
+                columnMissing("code_template_history", "content_hash"));
+        upgrade("-history-indexes.sql", "History listing indexes",
+                indexMissing("channel_history", "idx_channel_history_list"),
+                indexMissing("code_template_history", "idx_code_template_history_list"));
+        upgrade("-deleted-indexes.sql", "Deleted item date indexes",
+                indexMissing("deleted_channel", "idx_deleted_channel_date"),
+                indexMissing("deleted_code_template", "idx_deleted_code_template_date"));
+        // the listing indexes lead with the item id, which makes the single column ones redundant,
+        // and the latest hash is found by id, which leaves the content hash ones unused
+        upgrade("-history-drop-redundant-indexes.sql", "Redundant history indexes removal",
+                indexPresent("channel_history", "idx_channel_history_channel_id"),
+                indexPresent("code_template_history", "idx_code_template_history_ct_id"),
+                indexPresent("channel_history", "idx_channel_history_hash"),
+                indexPresent("code_template_history", "idx_code_template_history_hash"));
+    }
+
+    /**
+     * Runs a create script unless its first table already exists. Failures are
+     * only logged so the upgrades still get their chance to run.
+     */
+    private void createIfTableMissing(String table, String scriptSuffix, String description) {
+        try {
+            if (tableExists(table)) {
+                return;
+            }
+        } catch (SQLException e) {
+            log.warn("Could not check for table {}, running create script anyway", table, e);
+        }
+        executeScriptSafely("/" + getDatabaseType() + scriptSuffix, description);
+    }
+
+    /**
+     * Runs each statement of an upgrade script whose check says it is needed.
+     * The script has one statement per check, in the same order.
+     */
+    private void upgrade(String scriptSuffix, String description, SchemaCheck... checks) throws MigrationException {
+        String scriptName = "/" + getDatabaseType() + scriptSuffix;
+        List<String> statements = readStatements(scriptName);
+        if (statements.size() != checks.length) {
+            throw new MigrationException(scriptName + " has " + statements.size() + " statements, expected " + checks.length);
+        }
+
+        for (int i = 0; i < checks.length; i++) {
+            try {
+                if (!checks[i].isNeeded()) {
+                    continue;
+                }
+                try (Statement statement = getConnection().createStatement()) {
+                    statement.execute(statements.get(i));
+                }
+                if (!getConnection().getAutoCommit()) {
+                    getConnection().commit();
+                }
+                log.info("{} upgraded: {}", description, statements.get(i));
+            } catch (SQLException e) {
+                log.error("{} migration failed: {}", description, e.getMessage(), e);
+                throw new MigrationException(description + " migration failed", e);
+            }
+        }
+    }
+
+    private SchemaCheck columnMissing(String table, String column) {
+        return () -> !columnExists(table, column);
+    }
+
+    private SchemaCheck indexMissing(String table, String index) {
+        return () -> !indexExists(table, index);
+    }
+
+    private SchemaCheck indexPresent(String table, String index) {
+        return () -> indexExists(table, index);
+    }
+
+    /**
+     * Splits a script into statements the way {@link Migrator} does: statements
+     * are separated by blank lines and may end with a semicolon.
+     */
+    private List<String> readStatements(String scriptName) throws MigrationException {
+        List<String> statements = new ArrayList<>();
+        try (InputStream is = getClass().getResourceAsStream(scriptName)) {
+            if (is == null) {
+                throw new MigrationException("Script " + scriptName + " not found");
+            }
+            StringBuilder sb = new StringBuilder();
+            Scanner scanner = new Scanner(is, StandardCharsets.UTF_8);
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine();
+                if (!line.isBlank()) {
+                    sb.append(line).append(' ');
+                }
+                if (line.isBlank() || !scanner.hasNextLine()) {
+                    addStatement(statements, sb.toString().trim());
+                    sb.setLength(0);
+                }
+            }
+        } catch (MigrationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new MigrationException("Could not read " + scriptName, e);
+        }
+        return statements;
+    }
+
+    private static void addStatement(List<String> statements, String statement) {
+        if (statement.endsWith(";")) {
+            statement = statement.substring(0, statement.length() - 1).trim();
+        }
+        if (!statement.isEmpty()) {
+            statements.add(statement);
+        }
+    }
+
+    private boolean tableExists(String table) throws SQLException {
+        DatabaseMetaData metaData = getConnection().getMetaData();
+        // identifiers are stored upper case by Derby and Oracle and lower case by Postgres
+        for (String tableName : new String[] { table, table.toUpperCase(Locale.ROOT) }) {
+            try (ResultSet rs = metaData.getTables(null, null, tableName, null)) {
+                if (rs.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean indexExists(String table, String index) throws SQLException {
+        DatabaseMetaData metaData = getConnection().getMetaData();
+        for (String tableName : new String[] { table, table.toUpperCase(Locale.ROOT) }) {
+            try (ResultSet rs = metaData.getIndexInfo(null, null, tableName, false, true)) {
+                while (rs.next()) {
+                    if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean columnExists(String table, String column) throws SQLException {
+        DatabaseMetaData metaData = getConnection().getMetaData();
+        for (String tableName : new String[] { table, table.toUpperCase(Locale.ROOT) }) {
+            try (ResultSet rs = metaData.getColumns(null, null, tableName, null)) {
+                while (rs.next()) {
+                    if (column.equalsIgnoreCase(rs.getString("COLUMN_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
     }
 
     private void executeScriptSafely(String scriptName, String description) {
@@ -0,0 +1,115 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import java.util.Locale;
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mirth.connect.server.controllers.ConfigurationController;
+
+/**
+ * Server-side tuning options for the history plugin, read from the plugin
+ * properties stored under {@link ChannelHistoryServletInterface#PLUGIN_NAME}.
+ * Missing or unparseable values fall back to the defaults.
+ */
+public class HistorySettings {
+
+    private static final Logger log = LoggerFactory.getLogger(HistorySettings.class);
+
+    public static final String WRITE_QUEUE_ENABLED = "writeQueueEnabled";
+    public static final String WRITE_QUEUE_CAPACITY = "writeQueueCapacity";
+    public static final String WRITE_QUEUE_BATCH_SIZE = "writeQueueBatchSize";
+    public static final String WRITE_QUEUE_OVERFLOW_POLICY = "writeQueueOverflowPolicy";
+    public static final String DELTA_STORAGE_ENABLED = "deltaStorageEnabled";
+    public static final String DELTA_KEYFRAME_INTERVAL = "deltaKeyframeInterval";
+    public static final String COMPRESSION = "compression";
+    public static final String DEDUPLICATE_REVISIONS = "deduplicateRevisions";
+
+    private final Properties properties;
+
+    public HistorySettings(Properties properties) {
+        this.properties = properties != null ? properties : new Properties();
+    }
+
+    public static HistorySettings load() {
+        Properties properties = null;
+        try {
+            properties = ConfigurationController.getInstance().getPluginProperties(ChannelHistoryServletInterface.PLUGIN_NAME);
+        } catch (Exception e) {
+            log.warn("Could not read plugin properties, using defaults", e);
+        }
+        return new HistorySettings(properties);
+    }
+
+    public boolean isWriteQueueEnabled() {
+        return getBoolean(WRITE_QUEUE_ENABLED, false);
+    }
+
+    public int getWriteQueueCapacity() {
+        return getInt(WRITE_QUEUE_CAPACITY, 1000);
+    }
+
+    public int getWriteQueueBatchSize() {
+        return getInt(WRITE_QUEUE_BATCH_SIZE, 50);
+    }
+
+    public HistoryWriteQueue.OverflowPolicy getWriteQueueOverflowPolicy() {
+        return getEnum(WRITE_QUEUE_OVERFLOW_POLICY, HistoryWriteQueue.OverflowPolicy.class, HistoryWriteQueue.OverflowPolicy.BLOCK);
+    }
+
+    public boolean isDeltaStorageEnabled() {
+        return getBoolean(DELTA_STORAGE_ENABLED, false);
+    }
+
+    public int getDeltaKeyframeInterval() {
+        return getInt(DELTA_KEYFRAME_INTERVAL, 10);
+    }
+
+    /**
+     * Codec for newly stored content. NONE keeps writing plain text columns.
+     */
+    public HistoryCodec.Codec getCompression() {
+        return getEnum(COMPRESSION, HistoryCodec.Codec.class, HistoryCodec.Codec.NONE);
+    }
+
+    public boolean isDeduplicateRevisions() {
+        return getBoolean(DEDUPLICATE_REVISIONS, true);
+    }
+
+    private <E extends Enum<E>> E getEnum(String key, Class<E> type, E defaultValue) {
+        String value = properties.getProperty(key);
+        if (value != null) {
+            try {
+                return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring unknown {} value '{}'", key, value);
+            }
+        }
+        return defaultValue;
+    }
+
+    private boolean getBoolean(String key, boolean defaultValue) {
+        String value = properties.getProperty(key);
+        return value != null ? Boolean.parseBoolean(value.trim()) : defaultValue;
+    }
+
+    private int getInt(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value != null) {
+            try {
+                int parsed = Integer.parseInt(value.trim());
+                if (parsed > 0) {
+                    return parsed;
+                }
+            } catch (NumberFormatException e) {
+                // fall through to the default
+            }
+            log.warn("Ignoring invalid {} value '{}'", key, value);
+        }
+        return defaultValue;
+    }
+}
@@ -0,0 +1,282 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded in-memory queue of history writes drained by a background writer
+ * thread, which groups pending writes into MyBatis BATCH executor sessions.
+ * <p>
+ * Every dequeue happens while holding the write lock and the rows are committed
+ * before it is released, so rows reach the database in submission order and
+ * {@link #flush()} returning means everything submitted before the call has
+ * been written (or dropped by the overflow policy).
+ */
+public class HistoryWriteQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(HistoryWriteQueue.class);
+
+    private static final long IDLE_WAIT_MILLIS = 500;
+    private static final long SHUTDOWN_WAIT_MILLIS = 30000;
+
+    /**
+     * What {@link #submit} does when the queue is full.
+     */
+    public enum OverflowPolicy {
+        /** Wait for the writer to make room. */
+        BLOCK,
+        /** Discard the oldest queued row to make room. */
+        DROP_OLDEST,
+        /** Write the queued backlog and the new row on the calling thread. */
+        SYNCHRONOUS
+    }
+
+    /**
+     * A unit of work run against the writer's session, typically a single insert.
+     */
+    @FunctionalInterface
+    public interface HistoryWrite {
+        void write(SqlSession session);
+    }
+
+    private static class PendingWrite {
+        final HistoryWrite work;
+        final Runnable afterCommit;
+        final String description;
+
+        PendingWrite(HistoryWrite work, Runnable afterCommit, String description) {
+            this.work = work;
+            this.afterCommit = afterCommit;
+            this.description = description;
+        }
+    }
+
+    private final SqlSessionFactory sessionFactory;
+    private final BlockingQueue<PendingWrite> queue;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Object signal = new Object();
+    private final Thread writer;
+
+    private volatile boolean running;
+
+    public HistoryWriteQueue(SqlSessionFactory sessionFactory, int capacity, int batchSize, OverflowPolicy overflowPolicy) {
+        this.sessionFactory = sessionFactory;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
+        this.writer = new Thread(this::run, "simple-channel-history-writer");
+        this.writer.setDaemon(true);
+    }
+
+    public void start() {
+        running = true;
+        writer.start();
+        log.info("History write queue started (capacity {}, batch size {}, overflow policy {})",
+                queue.remainingCapacity(), batchSize, overflowPolicy);
+    }
+
+    /**
+     * Queues a write. Anything it captures must not be modified after this call.
+     */
+    public void submit(HistoryWrite historyWrite, String description) {
+        submit(historyWrite, null, description);
+    }
+
+    /**
+     * Queues a write and a follow-up that runs, still holding the write lock,
+     * once the write is committed. The follow-up must use its own session.
+     */
+    public void submit(HistoryWrite historyWrite, Runnable afterCommit, String description) {
+        PendingWrite write = new PendingWrite(historyWrite, afterCommit, description);
+
+        if (!running) {
+            writeSynchronously(write);
+            return;
+        }
+
+        if (!queue.offer(write)) {
+            switch (overflowPolicy) {
+                case BLOCK:
+                    try {
+                        queue.put(write);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        writeSynchronously(write);
+                        return;
+                    }
+                    break;
+                case DROP_OLDEST:
+                    while (!queue.offer(write)) {
+                        PendingWrite dropped = queue.poll();
+                        if (dropped != null) {
+                            log.warn("History write queue full, dropped {}", dropped.description);
+                        }
+                    }
+                    break;
+                case SYNCHRONOUS:
+                default:
+                    writeSynchronously(write);
+                    return;
+            }
+        }
+
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+    }
+
+    /**
+     * Writes everything currently queued on the calling thread and waits for any
+     * batch the writer thread is in the middle of.
+     */
+    public void flush() {
+        writeLock.lock();
+        try {
+            drainAndWrite(null);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Stops the writer thread and writes whatever is still queued. Rows submitted
+     * afterwards are written synchronously.
+     */
+    public void shutdown() {
+        running = false;
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+
+        try {
+            writer.join(SHUTDOWN_WAIT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (writer.isAlive()) {
+            log.warn("History writer thread did not stop within {} ms", SHUTDOWN_WAIT_MILLIS);
+        }
+
+        flush();
+        log.info("History write queue stopped");
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            try {
+                synchronized (signal) {
+                    if (running && queue.isEmpty()) {
+                        signal.wait(IDLE_WAIT_MILLIS);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            writeLock.lock();
+            try {
+                List<PendingWrite> batch = new ArrayList<>(batchSize);
+                queue.drainTo(batch, batchSize);
+                if (!batch.isEmpty()) {
+                    writeBatch(batch);
+                }
+            } catch (Exception e) {
+                log.error("Unexpected error in history writer", e);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    private void writeSynchronously(PendingWrite write) {
+        writeLock.lock();
+        try {
+            // write the backlog first so rows keep their submission order
+            drainAndWrite(write);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void drainAndWrite(PendingWrite last) {
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+            if (batch.size() >= batchSize) {
+                writeBatch(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (last != null) {
+            batch.add(last);
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch);
+        }
+    }
+
+    private void writeBatch(List<PendingWrite> batch) {
+        try (SqlSession session = sessionFactory.openSession(ExecutorType.BATCH)) {
+            for (PendingWrite write : batch) {
+                write.work.write(session);
+            }
+            session.commit();
+            log.debug("Wrote {} history entries", batch.size());
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                // Fail silent - the save that produced this entry has already returned
+                log.error("Failed to save {}", batch.get(0).description, e);
+                return;
+            }
+            log.warn("Batched write of {} history entries failed, retrying individually", batch.size(), e);
+            writeIndividually(batch);
+            return;
+        }
+
+        for (PendingWrite write : batch) {
+            runAfterCommit(write);
+        }
+    }
+
+    private void writeIndividually(List<PendingWrite> batch) {
+        for (PendingWrite write : batch) {
+            try (SqlSession session = sessionFactory.openSession(true)) {
+                write.work.write(session);
+            } catch (Exception e) {
+                log.error("Failed to save {}", write.description, e);
+                continue;
+            }
+            runAfterCommit(write);
+        }
+    }
+
+    private static void runAfterCommit(PendingWrite write) {
+        if (write.afterCommit == null) {
+            return;
+        }
+        try {
+            write.afterCommit.run();
+        } catch (Exception e) {
+            log.warn("Follow-up of {} failed", write.description, e);
+        }
+    }
+}
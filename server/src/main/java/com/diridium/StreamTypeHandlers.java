@@ -0,0 +1,78 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+/**
+ * MyBatis type handlers that map content columns to the driver's streams
+ * instead of reading them into a String or byte array. Unlike MyBatis' own
+ * Clob and Blob handlers they work on text and bytea columns too. A stream is
+ * only valid while its row is current and until another column of the row is
+ * read, so statements using these select the stream column last and consume it
+ * in a result handler.
+ */
+public final class StreamTypeHandlers {
+
+    private StreamTypeHandlers() {
+    }
+
+    public static class CharacterStream extends BaseTypeHandler<Reader> {
+
+        @Override
+        public void setNonNullParameter(PreparedStatement ps, int i, Reader parameter, JdbcType jdbcType) throws SQLException {
+            ps.setCharacterStream(i, parameter);
+        }
+
+        @Override
+        public Reader getNullableResult(ResultSet rs, String columnName) throws SQLException {
+            return rs.getCharacterStream(columnName);
+        }
+
+        @Override
+        public Reader getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+            return rs.getCharacterStream(columnIndex);
+        }
+
+        @Override
+        public Reader getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+            String value = cs.getString(columnIndex);
+            return value != null ? new StringReader(value) : null;
+        }
+    }
+
+    public static class BinaryStream extends BaseTypeHandler<InputStream> {
+
+        @Override
+        public void setNonNullParameter(PreparedStatement ps, int i, InputStream parameter, JdbcType jdbcType) throws SQLException {
+            ps.setBinaryStream(i, parameter);
+        }
+
+        @Override
+        public InputStream getNullableResult(ResultSet rs, String columnName) throws SQLException {
+            return rs.getBinaryStream(columnName);
+        }
+
+        @Override
+        public InputStream getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+            return rs.getBinaryStream(columnIndex);
+        }
+
+        @Override
+        public InputStream getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+            byte[] value = cs.getBytes(columnIndex);
+            return value != null ? new ByteArrayInputStream(value) : null;
+        }
+    }
+}
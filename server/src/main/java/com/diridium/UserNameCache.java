@@ -0,0 +1,62 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Least recently used cache of user names, so listing history and deleted
+ * items does not look every committer up again on each request. Entries
+ * expire after a time to pick up renamed users.
+ */
+class UserNameCache {
+
+    private static class Entry {
+        final String name;
+        final long loadedAt;
+
+        Entry(String name, long loadedAt) {
+            this.name = name;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final long ttlNanos;
+    private final Map<Integer, Entry> entries;
+
+    UserNameCache(int maxEntries, long ttlMillis) {
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.entries = new LinkedHashMap<Integer, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached name of the user, calling {@code lookup} when it is not
+     * cached or has expired. A null name is a failed lookup and is not cached.
+     */
+    String get(int userId, IntFunction<String> lookup) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(userId);
+            if (entry != null && now - entry.loadedAt < ttlNanos) {
+                return entry.name;
+            }
+        }
+
+        // looked up outside the lock, two threads may both load a name
+        String name = lookup.apply(userId);
+        if (name != null) {
+            synchronized (entries) {
+                entries.put(userId, new Entry(name, now));
+            }
+        }
+        return name;
+    }
+}
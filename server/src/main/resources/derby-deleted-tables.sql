@@ -4,14 +4,20 @@ CREATE TABLE deleted_channel (
     name            VARCHAR(255),
     user_id         INTEGER NOT NULL,
     date_deleted    TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    content         CLOB
+    content         CLOB,
+    content_data    BLOB
 )
 
+CREATE INDEX idx_deleted_channel_date ON deleted_channel(date_deleted)
+
 CREATE TABLE deleted_code_template (
     id                  INTEGER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
     code_template_id    CHAR(36) NOT NULL,
     name                VARCHAR(255),
     user_id             INTEGER NOT NULL,
     date_deleted        TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    content             CLOB
+    content             CLOB,
+    content_data        BLOB
 )
+
+CREATE INDEX idx_deleted_code_template_date ON deleted_code_template(date_deleted)
@@ -0,0 +1,3 @@
+ALTER TABLE channel_history ADD COLUMN content_hash CHAR(64)
+
+ALTER TABLE code_template_history ADD COLUMN content_hash CHAR(64)
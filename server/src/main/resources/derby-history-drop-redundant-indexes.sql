@@ -0,0 +1,7 @@
+DROP INDEX idx_channel_history_channel_id
+
+DROP INDEX idx_code_template_history_ct_id
+
+DROP INDEX idx_channel_history_hash
+
+DROP INDEX idx_code_template_history_hash
@@ -0,0 +1,3 @@
+ALTER TABLE deleted_channel ADD COLUMN content_data LONGBLOB;
+
+ALTER TABLE deleted_code_template ADD COLUMN content_data LONGBLOB;
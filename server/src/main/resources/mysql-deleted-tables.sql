@@ -4,7 +4,9 @@ CREATE TABLE IF NOT EXISTS deleted_channel (
     name            VARCHAR(255),
     user_id         INTEGER NOT NULL,
     date_deleted    TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    content         LONGTEXT
+    content         LONGTEXT,
+    content_data    LONGBLOB,
+    INDEX idx_deleted_channel_date (date_deleted)
 );
 
 CREATE TABLE IF NOT EXISTS deleted_code_template (
@@ -13,5 +15,7 @@ CREATE TABLE IF NOT EXISTS deleted_code_template (
     name                VARCHAR(255),
     user_id             INTEGER NOT NULL,
     date_deleted        TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    content             LONGTEXT
+    content             LONGTEXT,
+    content_data        LONGBLOB,
+    INDEX idx_deleted_code_template_date (date_deleted)
 );
@@ -0,0 +1,3 @@
+ALTER TABLE channel_history ADD COLUMN channel_data LONGBLOB;
+
+ALTER TABLE code_template_history ADD COLUMN code_template_data LONGBLOB;
@@ -0,0 +1 @@
+ALTER TABLE channel_history ADD COLUMN delta_base_id INTEGER;
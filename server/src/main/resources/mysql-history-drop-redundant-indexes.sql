@@ -0,0 +1,7 @@
+DROP INDEX idx_channel_history_channel_id ON channel_history;
+
+DROP INDEX idx_code_template_history_ct_id ON code_template_history;
+
+DROP INDEX idx_channel_history_hash ON channel_history;
+
+DROP INDEX idx_code_template_history_hash ON code_template_history;
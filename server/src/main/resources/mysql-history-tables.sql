@@ -5,7 +5,10 @@ CREATE TABLE IF NOT EXISTS channel_history (
     user_id         INTEGER NOT NULL,
     date_created    TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     channel         LONGTEXT,
-    INDEX idx_channel_history_channel_id (channel_id)
+    delta_base_id   INTEGER,
+    channel_data    LONGBLOB,
+    content_hash    CHAR(64),
+    INDEX idx_channel_history_list (channel_id, id, revision, user_id, date_created)
 );
 
 CREATE TABLE IF NOT EXISTS code_template_history (
@@ -15,5 +18,7 @@ CREATE TABLE IF NOT EXISTS code_template_history (
     user_id             INTEGER NOT NULL,
     date_created        TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     code_template       LONGTEXT,
-    INDEX idx_code_template_history_ct_id (code_template_id)
+    code_template_data  LONGBLOB,
+    content_hash        CHAR(64),
+    INDEX idx_code_template_history_list (code_template_id, id, revision, user_id, date_created)
 );
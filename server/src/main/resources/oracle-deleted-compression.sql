@@ -0,0 +1,3 @@
+ALTER TABLE deleted_channel ADD content_data BLOB
+
+ALTER TABLE deleted_code_template ADD content_data BLOB
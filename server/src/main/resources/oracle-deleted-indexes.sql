@@ -0,0 +1,3 @@
+CREATE INDEX idx_deleted_channel_date ON deleted_channel(date_deleted)
+
+CREATE INDEX idx_deleted_code_template_date ON deleted_code_template(date_deleted)
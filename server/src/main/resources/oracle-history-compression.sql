@@ -0,0 +1,3 @@
+ALTER TABLE channel_history ADD channel_data BLOB
+
+ALTER TABLE code_template_history ADD code_template_data BLOB
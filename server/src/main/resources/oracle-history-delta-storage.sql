@@ -0,0 +1 @@
+ALTER TABLE channel_history ADD delta_base_id NUMBER
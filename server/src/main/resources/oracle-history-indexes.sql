@@ -0,0 +1,3 @@
+CREATE INDEX idx_channel_history_list ON channel_history(channel_id, id, revision, user_id, date_created)
+
+CREATE INDEX idx_code_template_history_list ON code_template_history(code_template_id, id, revision, user_id, date_created)
@@ -4,10 +4,13 @@ CREATE TABLE channel_history (
     channel_id      CHAR(36) NOT NULL,
     user_id         NUMBER NOT NULL,
     date_created    TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    channel         CLOB
+    channel         CLOB,
+    delta_base_id   NUMBER,
+    channel_data    BLOB,
+    content_hash    CHAR(64)
 )
 
-CREATE INDEX idx_channel_history_channel_id ON channel_history(channel_id)
+CREATE INDEX idx_channel_history_list ON channel_history(channel_id, id, revision, user_id, date_created)
 
 CREATE TABLE code_template_history (
     id                  NUMBER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -15,7 +18,9 @@ CREATE TABLE code_template_history (
     code_template_id    CHAR(36) NOT NULL,
     user_id             NUMBER NOT NULL,
     date_created        TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    code_template       CLOB
+    code_template       CLOB,
+    code_template_data  BLOB,
+    content_hash        CHAR(64)
 )
 
-CREATE INDEX idx_code_template_history_ct_id ON code_template_history(code_template_id)
+CREATE INDEX idx_code_template_history_list ON code_template_history(code_template_id, id, revision, user_id, date_created)
@@ -0,0 +1,3 @@
+ALTER TABLE deleted_channel ADD COLUMN IF NOT EXISTS content_data BYTEA;
+
+ALTER TABLE deleted_code_template ADD COLUMN IF NOT EXISTS content_data BYTEA;
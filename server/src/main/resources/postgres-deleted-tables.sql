@@ -4,14 +4,20 @@ CREATE TABLE IF NOT EXISTS deleted_channel (
     name            VARCHAR(255),
     user_id         INTEGER NOT NULL,
     date_deleted    TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    content         TEXT
+    content         TEXT,
+    content_data    BYTEA
 );
 
+CREATE INDEX IF NOT EXISTS idx_deleted_channel_date ON deleted_channel(date_deleted);
+
 CREATE TABLE IF NOT EXISTS deleted_code_template (
     id                  SERIAL PRIMARY KEY,
     code_template_id    CHAR(36) NOT NULL,
     name                VARCHAR(255),
     user_id             INTEGER NOT NULL,
     date_deleted        TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    content             TEXT
+    content             TEXT,
+    content_data        BYTEA
 );
+
+CREATE INDEX IF NOT EXISTS idx_deleted_code_template_date ON deleted_code_template(date_deleted);
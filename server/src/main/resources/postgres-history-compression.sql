@@ -0,0 +1,3 @@
+ALTER TABLE channel_history ADD COLUMN IF NOT EXISTS channel_data BYTEA;
+
+ALTER TABLE code_template_history ADD COLUMN IF NOT EXISTS code_template_data BYTEA;
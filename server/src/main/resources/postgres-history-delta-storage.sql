@@ -0,0 +1 @@
+ALTER TABLE channel_history ADD COLUMN IF NOT EXISTS delta_base_id INTEGER;
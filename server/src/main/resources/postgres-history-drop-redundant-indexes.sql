@@ -0,0 +1,7 @@
+DROP INDEX IF EXISTS idx_channel_history_channel_id;
+
+DROP INDEX IF EXISTS idx_code_template_history_ct_id;
+
+DROP INDEX IF EXISTS idx_channel_history_hash;
+
+DROP INDEX IF EXISTS idx_code_template_history_hash;
@@ -0,0 +1,3 @@
+CREATE INDEX IF NOT EXISTS idx_channel_history_list ON channel_history(channel_id, id) INCLUDE (revision, user_id, date_created);
+
+CREATE INDEX IF NOT EXISTS idx_code_template_history_list ON code_template_history(code_template_id, id) INCLUDE (revision, user_id, date_created);
@@ -4,10 +4,13 @@ CREATE TABLE IF NOT EXISTS channel_history (
     channel_id      CHAR(36) NOT NULL,
     user_id         INTEGER NOT NULL,
     date_created    TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    channel         TEXT
+    channel         TEXT,
+    delta_base_id   INTEGER,
+    channel_data    BYTEA,
+    content_hash    CHAR(64)
 );
 
-CREATE INDEX IF NOT EXISTS idx_channel_history_channel_id ON channel_history(channel_id);
+CREATE INDEX IF NOT EXISTS idx_channel_history_list ON channel_history(channel_id, id) INCLUDE (revision, user_id, date_created);
 
 CREATE TABLE IF NOT EXISTS code_template_history (
     id                  SERIAL PRIMARY KEY,
@@ -15,7 +18,9 @@ CREATE TABLE IF NOT EXISTS code_template_history (
     code_template_id    CHAR(36) NOT NULL,
     user_id             INTEGER NOT NULL,
     date_created        TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    code_template       TEXT
+    code_template       TEXT,
+    code_template_data  BYTEA,
+    content_hash        CHAR(64)
 );
 
-CREATE INDEX IF NOT EXISTS idx_code_template_history_ct_id ON code_template_history(code_template_id);
+CREATE INDEX IF NOT EXISTS idx_code_template_history_list ON code_template_history(code_template_id, id) INCLUDE (revision, user_id, date_created);
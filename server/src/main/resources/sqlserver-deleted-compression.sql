@@ -0,0 +1,5 @@
+IF COL_LENGTH('deleted_channel', 'content_data') IS NULL
+ALTER TABLE deleted_channel ADD content_data VARBINARY(MAX)
+
+IF COL_LENGTH('deleted_code_template', 'content_data') IS NULL
+ALTER TABLE deleted_code_template ADD content_data VARBINARY(MAX)
@@ -0,0 +1,5 @@
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_deleted_channel_date')
+CREATE INDEX idx_deleted_channel_date ON deleted_channel(date_deleted)
+
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_deleted_code_template_date')
+CREATE INDEX idx_deleted_code_template_date ON deleted_code_template(date_deleted)
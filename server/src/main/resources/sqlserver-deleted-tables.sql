@@ -5,9 +5,13 @@ CREATE TABLE deleted_channel (
     name            NVARCHAR(255),
     user_id         INTEGER NOT NULL,
     date_deleted    DATETIME2 DEFAULT GETDATE(),
-    content         NVARCHAR(MAX)
+    content         NVARCHAR(MAX),
+    content_data    VARBINARY(MAX)
 )
 
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_deleted_channel_date')
+CREATE INDEX idx_deleted_channel_date ON deleted_channel(date_deleted)
+
 IF NOT EXISTS (SELECT * FROM sys.objects WHERE object_id = OBJECT_ID(N'deleted_code_template') AND type in (N'U'))
 CREATE TABLE deleted_code_template (
     id                  INTEGER IDENTITY(1,1) PRIMARY KEY,
@@ -15,5 +19,9 @@ CREATE TABLE deleted_code_template (
     name                NVARCHAR(255),
     user_id             INTEGER NOT NULL,
     date_deleted        DATETIME2 DEFAULT GETDATE(),
-    content             NVARCHAR(MAX)
+    content             NVARCHAR(MAX),
+    content_data        VARBINARY(MAX)
 )
+
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_deleted_code_template_date')
+CREATE INDEX idx_deleted_code_template_date ON deleted_code_template(date_deleted)
@@ -0,0 +1,5 @@
+IF COL_LENGTH('channel_history', 'channel_data') IS NULL
+ALTER TABLE channel_history ADD channel_data VARBINARY(MAX)
+
+IF COL_LENGTH('code_template_history', 'code_template_data') IS NULL
+ALTER TABLE code_template_history ADD code_template_data VARBINARY(MAX)
@@ -0,0 +1,5 @@
+IF COL_LENGTH('channel_history', 'content_hash') IS NULL
+ALTER TABLE channel_history ADD content_hash CHAR(64)
+
+IF COL_LENGTH('code_template_history', 'content_hash') IS NULL
+ALTER TABLE code_template_history ADD content_hash CHAR(64)
@@ -0,0 +1,2 @@
+IF COL_LENGTH('channel_history', 'delta_base_id') IS NULL
+ALTER TABLE channel_history ADD delta_base_id INTEGER
@@ -0,0 +1,11 @@
+IF EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_channel_history_channel_id')
+DROP INDEX idx_channel_history_channel_id ON channel_history
+
+IF EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_code_template_history_ct_id')
+DROP INDEX idx_code_template_history_ct_id ON code_template_history
+
+IF EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_channel_history_hash')
+DROP INDEX idx_channel_history_hash ON channel_history
+
+IF EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_code_template_history_hash')
+DROP INDEX idx_code_template_history_hash ON code_template_history
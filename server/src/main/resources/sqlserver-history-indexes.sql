@@ -0,0 +1,5 @@
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_channel_history_list')
+CREATE INDEX idx_channel_history_list ON channel_history(channel_id, id) INCLUDE (revision, user_id, date_created)
+
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_code_template_history_list')
+CREATE INDEX idx_code_template_history_list ON code_template_history(code_template_id, id) INCLUDE (revision, user_id, date_created)
@@ -5,11 +5,14 @@ CREATE TABLE channel_history (
     channel_id      CHAR(36) NOT NULL,
     user_id         INTEGER NOT NULL,
     date_created    DATETIME2 DEFAULT GETDATE(),
-    channel         NVARCHAR(MAX)
+    channel         NVARCHAR(MAX),
+    delta_base_id   INTEGER,
+    channel_data    VARBINARY(MAX),
+    content_hash    CHAR(64)
 )
 
-IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_channel_history_channel_id')
-CREATE INDEX idx_channel_history_channel_id ON channel_history(channel_id)
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_channel_history_list')
+CREATE INDEX idx_channel_history_list ON channel_history(channel_id, id) INCLUDE (revision, user_id, date_created)
 
 IF NOT EXISTS (SELECT * FROM sys.objects WHERE object_id = OBJECT_ID(N'code_template_history') AND type in (N'U'))
 CREATE TABLE code_template_history (
@@ -18,8 +21,10 @@ CREATE TABLE code_template_history (
     code_template_id    CHAR(36) NOT NULL,
     user_id             INTEGER NOT NULL,
     date_created        DATETIME2 DEFAULT GETDATE(),
-    code_template       NVARCHAR(MAX)
+    code_template       NVARCHAR(MAX),
+    code_template_data  VARBINARY(MAX),
+    content_hash        CHAR(64)
 )
 
-IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_code_template_history_ct_id')
-CREATE INDEX idx_code_template_history_ct_id ON code_template_history(code_template_id)
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'idx_code_template_history_list')
+CREATE INDEX idx_code_template_history_list ON code_template_history(code_template_id, id) INCLUDE (revision, user_id, date_created)
@@ -0,0 +1,87 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import static org.junit.Assert.*;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ChannelDiffBuilderTest {
+
+    private static String loadResource(String name) throws Exception {
+        try (InputStream is = ChannelDiffBuilderTest.class.getClassLoader().getResourceAsStream(name)) {
+            assertNotNull("Resource not found: " + name, is);
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, ComponentDiff> byKey(ChannelDiff diff) {
+        Map<String, ComponentDiff> components = new HashMap<>();
+        for (ComponentDiff component : diff.getComponents()) {
+            components.put(component.getKey(), component);
+        }
+        return components;
+    }
+
+    @Test
+    public void testChangeTypesMatchDecomposedComponents() throws Exception {
+        String xml1 = loadResource("channel-for-diffing-version1.xml");
+        String xml2 = loadResource("channel-for-diffing-version2.xml");
+
+        Map<String, ComponentDiff> components = byKey(ChannelDiffBuilder.build(xml1, xml2));
+
+        assertEquals(ComponentDiff.ChangeType.MODIFIED, components.get("Channel Scripts/Deploy Script").getChangeType());
+        assertEquals(ComponentDiff.ChangeType.UNCHANGED, components.get("Channel Scripts/Preprocessing Script").getChangeType());
+        assertEquals(ComponentDiff.ChangeType.RIGHT_ONLY, components.get("Destination [2]/Transformer/Step 0").getChangeType());
+        assertEquals(ComponentDiff.ChangeType.UNCHANGED, components.get("Destination Order").getChangeType());
+    }
+
+    @Test
+    public void testOnlyChangedComponentsCarryContent() throws Exception {
+        String xml1 = loadResource("channel-for-diffing-version1.xml");
+        String xml2 = loadResource("channel-for-diffing-version2.xml");
+        Map<String, DecomposedComponent> left = ChannelXmlDecomposer.decompose(xml1);
+        Map<String, DecomposedComponent> right = ChannelXmlDecomposer.decompose(xml2);
+
+        for (ComponentDiff component : ChannelDiffBuilder.build(xml1, xml2).getComponents()) {
+            switch (component.getChangeType()) {
+                case UNCHANGED -> {
+                    assertNull(component.getLeftContent());
+                    assertNull(component.getRightDelta());
+                }
+                case MODIFIED -> {
+                    assertEquals(left.get(component.getKey()).getContent(), component.getLeftContent());
+                    assertEquals(right.get(component.getKey()).getContent(),
+                            LineDelta.apply(component.getLeftContent(), component.getRightDelta()));
+                }
+                case LEFT_ONLY -> {
+                    assertEquals(left.get(component.getKey()).getContent(), component.getLeftContent());
+                    assertNull(component.getRightDelta());
+                }
+                case RIGHT_ONLY -> {
+                    assertNull(component.getLeftContent());
+                    assertEquals(right.get(component.getKey()).getContent(), LineDelta.apply("", component.getRightDelta()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testIdenticalRevisionsHaveNoContent() throws Exception {
+        String xml = loadResource("channel-for-diffing-version1.xml");
+
+        ChannelDiff diff = ChannelDiffBuilder.build(xml, xml);
+
+        assertFalse(diff.getComponents().isEmpty());
+        for (ComponentDiff component : diff.getComponents()) {
+            assertEquals(ComponentDiff.ChangeType.UNCHANGED, component.getChangeType());
+        }
+        assertTrue(diff.getGroupDisplayNames().containsKey("Destination [2]"));
+    }
+}
@@ -0,0 +1,47 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ContentHashTest {
+
+    private static final String CHANNEL = "<channel version=\"4.5.2\">\n"
+            + "  <id>3e20c9e5-3b32-4dd1-96b6-cc027d61386e</id>\n"
+            + "  <name>test</name>\n"
+            + "  <revision>%d</revision>\n"
+            + "  <script>%s</script>\n"
+            + "  <exportData>\n"
+            + "    <metadata>\n"
+            + "      <lastModified>\n"
+            + "        <time>%d</time>\n"
+            + "        <timezone>Europe/Amsterdam</timezone>\n"
+            + "      </lastModified>\n"
+            + "      <userId>%d</userId>\n"
+            + "    </metadata>\n"
+            + "  </exportData>\n"
+            + "</channel>";
+
+    @Test
+    public void testIgnoresRevisionTimestampAndUser() {
+        String first = ContentHash.of(String.format(CHANNEL, 1, "return true;", 1599396309502L, 1));
+        String second = ContentHash.of(String.format(CHANNEL, 7, "return true;", 1700000000000L, 2));
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void testDetectsContentChange() {
+        String first = ContentHash.of(String.format(CHANNEL, 1, "return true;", 1599396309502L, 1));
+        String second = ContentHash.of(String.format(CHANNEL, 2, "return false;", 1599396309502L, 1));
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    public void testHashIsLowerCaseHexSha256() {
+        String hash = ContentHash.of("");
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855", hash);
+    }
+}
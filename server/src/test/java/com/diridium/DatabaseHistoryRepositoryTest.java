@@ -0,0 +1,241 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DatabaseHistoryRepositoryTest {
+
+    private EmbeddedHistoryDatabase database;
+    private DatabaseHistoryRepository repository;
+
+    @Before
+    public void setUp() {
+        database = new EmbeddedHistoryDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        if (repository != null) {
+            repository.shutdown();
+        }
+        database.close();
+    }
+
+    private DatabaseHistoryRepository createRepository(String... settings) {
+        Properties properties = new Properties();
+        for (int i = 0; i < settings.length; i += 2) {
+            properties.setProperty(settings[i], settings[i + 1]);
+        }
+        repository = database.createRepository(new HistorySettings(properties));
+        return repository;
+    }
+
+    /** Saves the revisions in order and returns their history ids, oldest first. */
+    private String[] save(String channelId, List<String> revisions) {
+        for (int i = 0; i < revisions.size(); i++) {
+            repository.saveChannelContent(channelId, i + 1, 1, revisions.get(i));
+        }
+        List<RevisionInfo> history = repository.getChannelHistory(channelId);
+        String[] ids = new String[history.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = history.get(ids.length - 1 - i).getHash();
+        }
+        return ids;
+    }
+
+    @Test
+    public void testSavedRevisionsAreListedNewestFirst() {
+        createRepository();
+        ChannelFixtureGenerator generator = new ChannelFixtureGenerator(1).mutationRate(0.3);
+        String channelId = generator.getChannelId();
+        List<String> revisions = generator.revisions(3);
+        save(channelId, revisions);
+
+        List<RevisionInfo> history = repository.getChannelHistory(channelId);
+        assertEquals(3, history.size());
+        assertEquals(3, history.get(0).getRevision());
+        assertEquals(1, history.get(2).getRevision());
+        assertEquals("Unknown", history.get(0).getCommitterName());
+        assertEquals(revisions.get(0), repository.getChannelContent(channelId, history.get(2).getHash()));
+        assertEquals(2, repository.getChannelRevisionNumber(channelId, history.get(1).getHash()));
+        assertNull(repository.getChannelContent(channelId, "0"));
+    }
+
+    @Test
+    public void testUnchangedRevisionIsNotStoredAgain() {
+        createRepository();
+        // without mutations only the revision number and last modified time differ
+        ChannelFixtureGenerator generator = new ChannelFixtureGenerator(2).mutationRate(0);
+        String channelId = generator.getChannelId();
+
+        assertEquals(1, save(channelId, generator.revisions(3)).length);
+    }
+
+    @Test
+    public void testHistoryPages() {
+        createRepository();
+        ChannelFixtureGenerator generator = new ChannelFixtureGenerator(3).mutationRate(0.3);
+        String channelId = generator.getChannelId();
+        String[] ids = save(channelId, generator.revisions(5));
+
+        List<RevisionInfo> first = repository.getChannelHistoryPage(channelId, null, 2);
+        assertEquals(ids[4], first.get(0).getHash());
+        assertEquals(ids[3], first.get(1).getHash());
+
+        List<RevisionInfo> last = repository.getChannelHistoryPage(channelId, Long.valueOf(ids[1]), 2);
+        assertEquals(1, last.size());
+        assertEquals(ids[0], last.get(0).getHash());
+    }
+
+    @Test
+    public void testRevertToLatestRevisionIsRejected() throws Exception {
+        createRepository();
+        ChannelFixtureGenerator generator = new ChannelFixtureGenerator(3).mutationRate(0.3);
+        String channelId = generator.getChannelId();
+        String[] ids = save(channelId, generator.revisions(2));
+
+        try {
+            repository.getChannelAtRevision(channelId, ids[1]);
+            fail("reverted to the latest revision");
+        } catch (IllegalArgumentException e) {
+            assertEquals("cannot revert to the same revision", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testDeltaStoredAndCompressedRevisionsAreRebuilt() {
+        createRepository(HistorySettings.DELTA_STORAGE_ENABLED, "true", HistorySettings.DELTA_KEYFRAME_INTERVAL, "3",
+                HistorySettings.COMPRESSION, "GZIP");
+        ChannelFixtureGenerator generator = new ChannelFixtureGenerator(4).destinations(4).mutationRate(0.1);
+        String channelId = generator.getChannelId();
+        List<String> revisions = generator.revisions(8);
+        String[] ids = save(channelId, revisions);
+
+        assertEquals(8, ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals("revision " + (i + 1), revisions.get(i), repository.getChannelContent(channelId, ids[i]));
+        }
+    }
+
+    @Test
+    public void testBatchedWritesAreDeltaStoredAfterCommit() throws Exception {
+        createRepository(HistorySettings.DELTA_STORAGE_ENABLED, "true", HistorySettings.WRITE_QUEUE_ENABLED, "true",
+                HistorySettings.WRITE_QUEUE_BATCH_SIZE, "4");
+        ChannelFixtureGenerator generator = new ChannelFixtureGenerator(12).destinations(4).mutationRate(0.1);
+        List<String> revisions = generator.revisions(8);
+        String[] ids = save(generator.getChannelId(), revisions);
+
+        assertEquals(8, ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals("revision " + (i + 1), revisions.get(i), repository.getChannelContent(generator.getChannelId(), ids[i]));
+        }
+        try (Connection connection = database.getConnection(); Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM channel_history WHERE delta_base_id IS NOT NULL")) {
+            rs.next();
+            assertEquals(7, rs.getInt(1));
+        }
+    }
+
+    @Test
+    public void testContentsAreStreamedTogether() throws Exception {
+        createRepository(HistorySettings.DELTA_STORAGE_ENABLED, "true");
+        ChannelFixtureGenerator generator = new ChannelFixtureGenerator(10).mutationRate(0.3);
+        List<String> revisions = generator.revisions(4);
+        String[] ids = save(generator.getChannelId(), revisions);
+        ChannelFixtureGenerator other = new ChannelFixtureGenerator(11);
+        String[] otherIds = save(other.getChannelId(), other.revisions(1));
+
+        // the older revisions are deltas, the revision of the other channel is left out
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ContentFrames.Writer frames = new ContentFrames.Writer(out);
+        repository.writeChannelContents(generator.getChannelId(), List.of(ids[3], ids[0], otherIds[0], ids[2]), frames);
+        frames.finish();
+        Map<String, String> contents = ContentFrames.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(List.of(ids[3], ids[0], ids[2]), new ArrayList<>(contents.keySet()));
+        assertEquals(revisions.get(0), contents.get(ids[0]));
+        assertEquals(revisions.get(2), contents.get(ids[2]));
+        assertEquals(revisions.get(3), contents.get(ids[3]));
+    }
+
+    @Test
+    public void testContentIsStreamed() throws Exception {
+        // uncompressed revisions come from the text column, the others from the binary one
+        ChannelFixtureGenerator generator = new ChannelFixtureGenerator(8).mutationRate(0.3);
+        List<String> revisions = generator.revisions(4);
+        createRepository();
+        String[] textIds = save(generator.getChannelId(), revisions);
+        repository.shutdown();
+        createRepository(HistorySettings.DELTA_STORAGE_ENABLED, "true", HistorySettings.COMPRESSION, "GZIP");
+        String[] dataIds = save(generator.getChannelId(), new ChannelFixtureGenerator(9).mutationRate(0.3).revisions(4));
+
+        for (String[] ids : new String[][] { textIds, dataIds }) {
+            for (String id : ids) {
+                String expected = repository.getChannelContent(generator.getChannelId(), id);
+                assertEquals(expected, stream(generator.getChannelId(), id, false));
+                assertEquals(expected, stream(generator.getChannelId(), id, true));
+            }
+        }
+        assertEquals(revisions.get(0), stream(generator.getChannelId(), textIds[0], true));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertFalse(repository.writeChannelContent(generator.getChannelId(), "0", out, true));
+        assertEquals(0, out.size());
+    }
+
+    private String stream(String channelId, String id, boolean gzip) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertTrue(repository.writeChannelContent(channelId, id, out, gzip));
+        InputStream in = new ByteArrayInputStream(out.toByteArray());
+        try (InputStream content = gzip ? new GZIPInputStream(in) : in) {
+            return new String(content.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void testPruneAndDelete() {
+        createRepository(HistorySettings.DELTA_STORAGE_ENABLED, "true");
+        ChannelFixtureGenerator generator = new ChannelFixtureGenerator(5).mutationRate(0.3);
+        String channelId = generator.getChannelId();
+        List<String> revisions = generator.revisions(6);
+        String[] ids = save(channelId, revisions);
+
+        assertEquals(2, repository.pruneChannelHistoryOlderThan(channelId, ids[2]));
+        List<RevisionInfo> history = repository.getChannelHistory(channelId);
+        assertEquals(4, history.size());
+        assertEquals(revisions.get(2), repository.getChannelContent(channelId, ids[2]));
+
+        ChannelFixtureGenerator other = new ChannelFixtureGenerator(6);
+        save(other.getChannelId(), other.revisions(1));
+        repository.deleteChannelHistory(channelId);
+        assertTrue(repository.getChannelHistory(channelId).isEmpty());
+        assertEquals(1, repository.getChannelHistory(other.getChannelId()).size());
+    }
+
+    @Test
+    public void testQueuedWritesAreVisibleToReads() {
+        createRepository(HistorySettings.WRITE_QUEUE_ENABLED, "true", HistorySettings.WRITE_QUEUE_BATCH_SIZE, "4");
+        ChannelFixtureGenerator generator = new ChannelFixtureGenerator(7).mutationRate(0.3);
+        String channelId = generator.getChannelId();
+
+        assertEquals(10, save(channelId, generator.revisions(10)).length);
+    }
+}
@@ -0,0 +1,226 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Throughput and latency of the repository operations on a channel_history
+ * table of 10k to 1M rows, in an on-disk Derby database. Loading a million rows
+ * takes minutes, so it only runs when the table sizes are given:
+ *
+ * <pre>
+ * mvn test -pl server -Dtest=DatabaseHistoryRepositoryThroughputTest -Dhistory.throughput.rows=10000,100000,1000000
+ * </pre>
+ *
+ * Add {@code -Dhistory.throughput.compression=GZIP} to store compressed content.
+ */
+public class DatabaseHistoryRepositoryThroughputTest {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseHistoryRepositoryThroughputTest.class);
+
+    private static final String ROWS_PROPERTY = "history.throughput.rows";
+    private static final String COMPRESSION_PROPERTY = "history.throughput.compression";
+
+    private static final int REVISIONS_PER_CHANNEL = 100;
+    // operations timed per measurement
+    private static final int SAMPLES = 200;
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testThroughputAndLatency() throws Exception {
+        String rows = System.getProperty(ROWS_PROPERTY);
+        assumeTrue("Set -D" + ROWS_PROPERTY + "=10000,100000,1000000 to run", rows != null);
+
+        for (String count : rows.split(",")) {
+            measure(Integer.parseInt(count.trim()));
+        }
+    }
+
+    private void measure(int rows) throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty(HistorySettings.COMPRESSION, System.getProperty(COMPRESSION_PROPERTY, "NONE"));
+        HistorySettings settings = new HistorySettings(properties);
+
+        try (EmbeddedHistoryDatabase database = new EmbeddedHistoryDatabase(folder.getRoot().toPath().resolve("db" + rows))) {
+            int channels = Math.max(2, rows / REVISIONS_PER_CHANNEL);
+            long start = System.nanoTime();
+            load(database, settings, channels);
+            report(rows, "load (JDBC batches)", channels * REVISIONS_PER_CHANNEL, System.nanoTime() - start, null);
+
+            DatabaseHistoryRepository repository = database.createRepository(settings);
+            try {
+                measureOperations(repository, rows, channels);
+            } finally {
+                repository.shutdown();
+            }
+        }
+    }
+
+    private void measureOperations(DatabaseHistoryRepository repository, int rows, int channels) {
+        Random random = new Random(rows);
+        String target = channelId(channels / 2);
+
+        // a revision the generator left unchanged is skipped like any unchanged save
+        List<String> revisions = generator(rows).revisions(SAMPLES);
+        int stored = REVISIONS_PER_CHANNEL;
+        String previous = null;
+        for (String revision : revisions) {
+            String hash = ContentHash.of(revision);
+            if (!hash.equals(previous)) {
+                stored++;
+            }
+            previous = hash;
+        }
+        long[] insert = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            repository.saveChannelContent(target, REVISIONS_PER_CHANNEL + i + 1, 1, revisions.get(i));
+            insert[i] = System.nanoTime() - start;
+        }
+        report(rows, "insert", insert);
+
+        long[] listPage = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            assertEquals(50, repository.getChannelHistoryPage(target, null, 50).size());
+            listPage[i] = System.nanoTime() - start;
+        }
+        report(rows, "list first page of 50", listPage);
+
+        long[] listAll = new long[SAMPLES];
+        List<RevisionInfo> history = null;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            history = repository.getChannelHistory(target);
+            listAll[i] = System.nanoTime() - start;
+        }
+        assertEquals(stored, history.size());
+        report(rows, "list all " + history.size(), listAll);
+
+        long[] content = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            String id = history.get(random.nextInt(history.size())).getHash();
+            long start = System.nanoTime();
+            assertNotNull(repository.getChannelContent(target, id));
+            content[i] = System.nanoTime() - start;
+        }
+        report(rows, "content", content);
+
+        // prune half of the revisions of channels before the target, delete channels after it
+        int others = Math.min(SAMPLES, channels / 2 - 1);
+        long[] prune = new long[others];
+        for (int i = 0; i < others; i++) {
+            String channelId = channelId(i);
+            List<RevisionInfo> newest = repository.getChannelHistoryPage(channelId, null, REVISIONS_PER_CHANNEL / 2);
+            long start = System.nanoTime();
+            assertEquals(REVISIONS_PER_CHANNEL / 2,
+                    repository.pruneChannelHistoryOlderThan(channelId, newest.get(newest.size() - 1).getHash()));
+            prune[i] = System.nanoTime() - start;
+        }
+        report(rows, "prune " + REVISIONS_PER_CHANNEL / 2 + " revisions", prune);
+
+        long[] delete = new long[others];
+        for (int i = 0; i < others; i++) {
+            String channelId = channelId(channels - 1 - i);
+            long start = System.nanoTime();
+            repository.deleteChannelHistory(channelId);
+            delete[i] = System.nanoTime() - start;
+        }
+        assertTrue(repository.getChannelHistoryPage(channelId(channels - 1), null, 1).isEmpty());
+        report(rows, "delete " + REVISIONS_PER_CHANNEL + " revisions", delete);
+    }
+
+    /**
+     * Stores {@link #REVISIONS_PER_CHANNEL} revisions of each channel the way the
+     * repository would, compressed if the settings say so but never delta stored.
+     */
+    private static void load(EmbeddedHistoryDatabase database, HistorySettings settings, int channels) throws Exception {
+        List<String> contents = generator(0).revisions(REVISIONS_PER_CHANNEL);
+        List<String> hashes = new ArrayList<>();
+        List<byte[]> encoded = new ArrayList<>();
+        for (String content : contents) {
+            hashes.add(ContentHash.of(content));
+            encoded.add(settings.getCompression() != HistoryCodec.Codec.NONE
+                    ? HistoryCodec.encode(content, settings.getCompression()) : null);
+        }
+
+        String sql = "INSERT INTO channel_history (revision, channel_id, user_id, date_created, content_hash, channel, channel_data)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (Connection connection = database.getConnection(); PreparedStatement insert = connection.prepareStatement(sql)) {
+            connection.setAutoCommit(false);
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            int pending = 0;
+            // revisions of all channels interleave like they do when channels are saved over time
+            for (int revision = 0; revision < REVISIONS_PER_CHANNEL; revision++) {
+                for (int channel = 0; channel < channels; channel++) {
+                    insert.setInt(1, revision + 1);
+                    insert.setString(2, channelId(channel));
+                    insert.setInt(3, 1);
+                    insert.setTimestamp(4, now);
+                    insert.setString(5, hashes.get(revision));
+                    insert.setString(6, encoded.get(revision) == null ? contents.get(revision) : null);
+                    insert.setBytes(7, encoded.get(revision));
+                    insert.addBatch();
+                    if (++pending == LOAD_BATCH_SIZE) {
+                        insert.executeBatch();
+                        connection.commit();
+                        pending = 0;
+                    }
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+    }
+
+    private static ChannelFixtureGenerator generator(long seed) {
+        return new ChannelFixtureGenerator(seed).destinations(2).stepsPerTransformer(2).scriptLines(4).mutationRate(0.2);
+    }
+
+    private static String channelId(int channel) {
+        return new UUID(0, channel).toString();
+    }
+
+    private static void report(int rows, String operation, long[] nanos) {
+        long total = 0;
+        for (long n : nanos) {
+            total += n;
+        }
+        report(rows, operation, nanos.length, total, nanos);
+    }
+
+    private static void report(int rows, String operation, int count, long totalNanos, long[] nanos) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%,9d rows  %-28s %8.1f ops/s", rows, operation, count * 1e9 / Math.max(1, totalNanos)));
+        if (nanos != null && nanos.length > 0) {
+            long[] sorted = nanos.clone();
+            Arrays.sort(sorted);
+            sb.append(String.format("  mean %8.3f ms  p50 %8.3f ms  p99 %8.3f ms",
+                    totalNanos / 1e6 / nanos.length, sorted[sorted.length / 2] / 1e6,
+                    sorted[Math.min(sorted.length - 1, sorted.length * 99 / 100)] / 1e6));
+        }
+        log.info("{}", sb);
+    }
+}
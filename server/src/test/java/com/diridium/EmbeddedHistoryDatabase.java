@@ -0,0 +1,127 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.session.SqlSessionManager;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+
+/**
+ * Embedded Derby database with the plugin's tables and the ChannelHistory
+ * mapper from sqlmap.xml, so {@link DatabaseHistoryRepository} can run outside
+ * of Mirth. Each in-memory instance is a separate database, dropped on close.
+ * Databases too large for the heap can be kept in a directory instead.
+ */
+final class EmbeddedHistoryDatabase implements AutoCloseable {
+
+    private static final String DRIVER = "org.apache.derby.jdbc.EmbeddedDriver";
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private final String url;
+    private final boolean inMemory;
+    private final PooledDataSource dataSource;
+    private final SqlSessionManager sqlSessionManager;
+
+    EmbeddedHistoryDatabase() {
+        this(null);
+    }
+
+    /**
+     * @param directory a directory that doesn't exist yet, or null for an in-memory database
+     */
+    EmbeddedHistoryDatabase(Path directory) {
+        String name = "history" + DATABASES.incrementAndGet();
+        inMemory = directory == null;
+        url = inMemory ? "jdbc:derby:memory:" + name : "jdbc:derby:" + directory.toAbsolutePath();
+        try {
+            Class.forName(DRIVER);
+            try (Connection connection = DriverManager.getConnection(url + ";create=true")) {
+                executeScript(connection, "/derby-history-tables.sql");
+                executeScript(connection, "/derby-deleted-tables.sql");
+            }
+
+            dataSource = new PooledDataSource(DRIVER, url, null, null);
+            Configuration configuration = new Configuration(
+                    new Environment(name, new JdbcTransactionFactory(), dataSource));
+            try (InputStream is = open("/sqlmap.xml")) {
+                new XMLMapperBuilder(is, configuration, "sqlmap.xml", configuration.getSqlFragments()).parse();
+            }
+            sqlSessionManager = SqlSessionManager.newInstance(new SqlSessionFactoryBuilder().build(configuration));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    SqlSessionManager getSqlSessionManager() {
+        return sqlSessionManager;
+    }
+
+    /**
+     * A new connection to the database, for loading rows faster than the
+     * repository inserts them.
+     */
+    Connection getConnection() throws SQLException {
+        return DriverManager.getConnection(url);
+    }
+
+    /**
+     * A repository on this database. Without a serializer only the content-level
+     * methods work, and without a user controller every committer is "Unknown".
+     */
+    DatabaseHistoryRepository createRepository(HistorySettings settings) {
+        return new DatabaseHistoryRepository(sqlSessionManager, null, null, settings);
+    }
+
+    @Override
+    public void close() {
+        dataSource.forceCloseAll();
+        try {
+            DriverManager.getConnection(url + (inMemory ? ";drop=true" : ";shutdown=true")).close();
+        } catch (SQLException e) {
+            // Derby reports a successful drop or shutdown as an exception
+            if (!"08006".equals(e.getSQLState())) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Runs a table script the way Mirth's migrator does, one statement per
+     * block of lines separated by blank lines.
+     */
+    private static void executeScript(Connection connection, String resource) throws Exception {
+        String script;
+        try (InputStream is = open(resource)) {
+            script = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : script.split("\\R\\s*\\R")) {
+                if (!sql.isBlank()) {
+                    statement.execute(sql.trim());
+                }
+            }
+        }
+    }
+
+    private static InputStream open(String resource) {
+        InputStream is = EmbeddedHistoryDatabase.class.getResourceAsStream(resource);
+        if (is == null) {
+            throw new IllegalStateException(resource + " not found on the classpath");
+        }
+        return is;
+    }
+}
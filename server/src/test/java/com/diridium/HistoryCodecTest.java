@@ -0,0 +1,71 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class HistoryCodecTest {
+
+    private static String loadResource(String name) throws Exception {
+        try (InputStream is = HistoryCodecTest.class.getClassLoader().getResourceAsStream(name)) {
+            assertNotNull("Resource not found: " + name, is);
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void testRoundTripAllCodecs() throws Exception {
+        String xml = loadResource("channel-for-diffing-version1.xml");
+        for (HistoryCodec.Codec codec : HistoryCodec.Codec.values()) {
+            assertEquals(codec.name(), xml, HistoryCodec.decode(HistoryCodec.encode(xml, codec)));
+        }
+    }
+
+    @Test
+    public void testCompressesChannelXml() throws Exception {
+        String xml = loadResource("channel-for-diffing-version1.xml");
+        int rawLength = xml.getBytes(StandardCharsets.UTF_8).length;
+
+        assertTrue(HistoryCodec.encode(xml, HistoryCodec.Codec.GZIP).length < rawLength / 4);
+        assertTrue(HistoryCodec.encode(xml, HistoryCodec.Codec.DEFLATE).length < rawLength / 4);
+        assertEquals(rawLength + 2, HistoryCodec.encode(xml, HistoryCodec.Codec.NONE).length);
+    }
+
+    @Test
+    public void testRoundTripNonAsciiAndEmpty() {
+        String text = "café 日本 😀\r\n";
+        for (HistoryCodec.Codec codec : HistoryCodec.Codec.values()) {
+            assertEquals(text, HistoryCodec.decode(HistoryCodec.encode(text, codec)));
+            assertEquals("", HistoryCodec.decode(HistoryCodec.encode("", codec)));
+        }
+    }
+
+    @Test
+    public void testDecodingStreamMatchesDecode() throws Exception {
+        String xml = loadResource("channel-for-diffing-version1.xml");
+        for (HistoryCodec.Codec codec : HistoryCodec.Codec.values()) {
+            InputStream in = new ByteArrayInputStream(HistoryCodec.encode(xml, codec));
+            assertEquals(codec, HistoryCodec.readHeader(in));
+            try (InputStream decoded = HistoryCodec.decodingStream(in, codec)) {
+                assertEquals(codec.name(), xml, new String(decoded.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeWithoutHeaderFails() {
+        HistoryCodec.decode("<channel/>".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeUnknownCodecFails() {
+        HistoryCodec.decode(new byte[] { (byte) 0xC7, 42, 1, 2, 3 });
+    }
+}
@@ -0,0 +1,165 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import static org.junit.Assert.*;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs the Derby migration on an empty database and on the tables of the
+ * first release, twice each since it runs on every startup.
+ */
+public class HistoryMigratorTest {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    // the tables as the first release created them, before any upgrade script existed
+    private static final String[] FIRST_RELEASE_TABLES = {
+            "CREATE TABLE channel_history (id INTEGER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,"
+                    + " revision INTEGER NOT NULL, channel_id CHAR(36) NOT NULL, user_id INTEGER NOT NULL,"
+                    + " date_created TIMESTAMP DEFAULT CURRENT_TIMESTAMP, channel CLOB)",
+            "CREATE INDEX idx_channel_history_channel_id ON channel_history(channel_id)",
+            "CREATE TABLE code_template_history (id INTEGER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,"
+                    + " revision INTEGER NOT NULL, code_template_id CHAR(36) NOT NULL, user_id INTEGER NOT NULL,"
+                    + " date_created TIMESTAMP DEFAULT CURRENT_TIMESTAMP, code_template CLOB)",
+            "CREATE INDEX idx_code_template_history_ct_id ON code_template_history(code_template_id)",
+            "CREATE TABLE deleted_channel (id INTEGER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,"
+                    + " channel_id CHAR(36) NOT NULL, name VARCHAR(255), user_id INTEGER NOT NULL,"
+                    + " date_deleted TIMESTAMP DEFAULT CURRENT_TIMESTAMP, content CLOB)",
+            "CREATE TABLE deleted_code_template (id INTEGER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,"
+                    + " code_template_id CHAR(36) NOT NULL, name VARCHAR(255), user_id INTEGER NOT NULL,"
+                    + " date_deleted TIMESTAMP DEFAULT CURRENT_TIMESTAMP, content CLOB)" };
+
+    private String url;
+    private Connection connection;
+
+    @Before
+    public void setUp() throws SQLException {
+        url = "jdbc:derby:memory:migrator" + DATABASES.incrementAndGet();
+        connection = DriverManager.getConnection(url + ";create=true");
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        connection.close();
+        try {
+            DriverManager.getConnection(url + ";drop=true").close();
+        } catch (SQLException e) {
+            // Derby reports a successful drop as an exception
+            if (!"08006".equals(e.getSQLState())) {
+                throw e;
+            }
+        }
+    }
+
+    @Test
+    public void testFreshInstall() throws Exception {
+        migrate();
+        migrate();
+        assertCurrentSchema();
+    }
+
+    @Test
+    public void testUpgradeFromFirstRelease() throws Exception {
+        execute(FIRST_RELEASE_TABLES);
+        migrate();
+        migrate();
+        assertCurrentSchema();
+    }
+
+    @Test
+    public void testUnusedHashIndexesAreDropped() throws Exception {
+        execute(FIRST_RELEASE_TABLES);
+        // the content hash upgrade used to index the hash
+        execute("ALTER TABLE channel_history ADD COLUMN content_hash CHAR(64)",
+                "ALTER TABLE code_template_history ADD COLUMN content_hash CHAR(64)",
+                "CREATE INDEX idx_channel_history_hash ON channel_history(channel_id, content_hash)",
+                "CREATE INDEX idx_code_template_history_hash ON code_template_history(code_template_id, content_hash)");
+        migrate();
+        assertCurrentSchema();
+    }
+
+    @Test
+    public void testPartialUpgradeIsFinished() throws Exception {
+        execute(FIRST_RELEASE_TABLES);
+        // an earlier startup created the first listing index and then failed
+        execute("CREATE INDEX idx_channel_history_list ON channel_history(channel_id, id, revision, user_id, date_created)");
+        migrate();
+        assertCurrentSchema();
+    }
+
+    private void migrate() throws Exception {
+        HistoryMigrator migrator = new HistoryMigrator();
+        migrator.setConnection(connection);
+        migrator.setDatabaseType("derby");
+        migrator.migrate();
+    }
+
+    private void execute(String... statements) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    private void assertCurrentSchema() throws SQLException {
+        Set<String> channelHistory = columns("CHANNEL_HISTORY");
+        assertTrue(channelHistory.contains("DELTA_BASE_ID"));
+        assertTrue(channelHistory.contains("CHANNEL_DATA"));
+        assertTrue(channelHistory.contains("CONTENT_HASH"));
+        Set<String> codeTemplateHistory = columns("CODE_TEMPLATE_HISTORY");
+        assertTrue(codeTemplateHistory.contains("CODE_TEMPLATE_DATA"));
+        assertTrue(codeTemplateHistory.contains("CONTENT_HASH"));
+        assertTrue(columns("DELETED_CHANNEL").contains("CONTENT_DATA"));
+        assertTrue(columns("DELETED_CODE_TEMPLATE").contains("CONTENT_DATA"));
+
+        Set<String> channelIndexes = indexes("CHANNEL_HISTORY");
+        assertTrue(channelIndexes.contains("IDX_CHANNEL_HISTORY_LIST"));
+        assertFalse(channelIndexes.contains("IDX_CHANNEL_HISTORY_CHANNEL_ID"));
+        assertFalse(channelIndexes.contains("IDX_CHANNEL_HISTORY_HASH"));
+        Set<String> codeTemplateIndexes = indexes("CODE_TEMPLATE_HISTORY");
+        assertTrue(codeTemplateIndexes.contains("IDX_CODE_TEMPLATE_HISTORY_LIST"));
+        assertFalse(codeTemplateIndexes.contains("IDX_CODE_TEMPLATE_HISTORY_CT_ID"));
+        assertFalse(codeTemplateIndexes.contains("IDX_CODE_TEMPLATE_HISTORY_HASH"));
+        assertTrue(indexes("DELETED_CHANNEL").contains("IDX_DELETED_CHANNEL_DATE"));
+        assertTrue(indexes("DELETED_CODE_TEMPLATE").contains("IDX_DELETED_CODE_TEMPLATE_DATE"));
+    }
+
+    private Set<String> columns(String table) throws SQLException {
+        Set<String> columns = new HashSet<>();
+        try (ResultSet rs = connection.getMetaData().getColumns(null, null, table, null)) {
+            while (rs.next()) {
+                columns.add(rs.getString("COLUMN_NAME"));
+            }
+        }
+        return columns;
+    }
+
+    private Set<String> indexes(String table) throws SQLException {
+        Set<String> indexes = new HashSet<>();
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet rs = metaData.getIndexInfo(null, null, table, false, true)) {
+            while (rs.next()) {
+                if (rs.getString("INDEX_NAME") != null) {
+                    indexes.add(rs.getString("INDEX_NAME"));
+                }
+            }
+        }
+        return indexes;
+    }
+}
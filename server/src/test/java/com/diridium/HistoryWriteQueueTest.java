@@ -0,0 +1,185 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.After;
+import org.junit.Test;
+
+public class HistoryWriteQueueTest {
+
+    /** Rows committed by the fake sessions, in commit order. */
+    private final List<Object> committed = Collections.synchronizedList(new ArrayList<>());
+
+    /** When set, the first insert on the writer thread waits for it. */
+    private volatile CountDownLatch writerGate;
+    private final CountDownLatch writerBlocked = new CountDownLatch(1);
+
+    private HistoryWriteQueue queue;
+
+    @After
+    public void tearDown() {
+        if (writerGate != null) {
+            writerGate.countDown();
+        }
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    private SqlSessionFactory fakeFactory() {
+        return (SqlSessionFactory) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { SqlSessionFactory.class }, (factoryProxy, factoryMethod, factoryArgs) -> {
+                    if (!factoryMethod.getName().equals("openSession")) {
+                        throw new UnsupportedOperationException(factoryMethod.getName());
+                    }
+                    List<Object> pending = new ArrayList<>();
+                    boolean autoCommit = factoryArgs != null && factoryArgs.length == 1 && Boolean.TRUE.equals(factoryArgs[0]);
+                    return Proxy.newProxyInstance(getClass().getClassLoader(),
+                            new Class<?>[] { SqlSession.class }, (sessionProxy, method, args) -> {
+                                switch (method.getName()) {
+                                    case "insert":
+                                        awaitGate();
+                                        Object row = ((Map<?, ?>) args[1]).get("row");
+                                        if (autoCommit) {
+                                            committed.add(row);
+                                        } else {
+                                            pending.add(row);
+                                        }
+                                        return 1;
+                                    case "commit":
+                                        committed.addAll(pending);
+                                        pending.clear();
+                                        return null;
+                                    case "close":
+                                        return null;
+                                    default:
+                                        throw new UnsupportedOperationException(method.getName());
+                                }
+                            });
+                });
+    }
+
+    private void awaitGate() throws InterruptedException {
+        CountDownLatch gate = writerGate;
+        if (gate != null && Thread.currentThread().getName().equals("simple-channel-history-writer")) {
+            writerBlocked.countDown();
+            assertTrue(gate.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    private void submit(int n) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("row", n);
+        queue.submit(session -> session.insert("ChannelHistory.insertChannelHistory", params), "row " + n);
+    }
+
+    private void stallWriter() throws InterruptedException {
+        writerGate = new CountDownLatch(1);
+        submit(0);
+        assertTrue("writer should pick up the first row", writerBlocked.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFlushWritesAllSubmittedRowsInOrder() {
+        queue = new HistoryWriteQueue(fakeFactory(), 100, 7, HistoryWriteQueue.OverflowPolicy.BLOCK);
+        queue.start();
+
+        for (int i = 0; i < 40; i++) {
+            submit(i);
+        }
+        queue.flush();
+
+        assertEquals(40, committed.size());
+        for (int i = 0; i < 40; i++) {
+            assertEquals(i, committed.get(i));
+        }
+    }
+
+    @Test
+    public void testShutdownDrainsQueue() {
+        queue = new HistoryWriteQueue(fakeFactory(), 100, 10, HistoryWriteQueue.OverflowPolicy.BLOCK);
+        queue.start();
+
+        for (int i = 0; i < 25; i++) {
+            submit(i);
+        }
+        queue.shutdown();
+
+        assertEquals(25, committed.size());
+        assertEquals(0, queue.size());
+
+        // after shutdown rows are written on the caller thread
+        submit(25);
+        assertEquals(26, committed.size());
+    }
+
+    @Test
+    public void testSynchronousOverflowPreservesOrder() throws Exception {
+        queue = new HistoryWriteQueue(fakeFactory(), 2, 10, HistoryWriteQueue.OverflowPolicy.SYNCHRONOUS);
+        queue.start();
+        stallWriter();
+
+        submit(1);
+        submit(2);
+        assertEquals(2, queue.size());
+
+        // the queue is full, so this write happens on the caller thread once the writer finishes
+        Thread caller = new Thread(() -> submit(3));
+        caller.start();
+        writerGate.countDown();
+        caller.join(10000);
+
+        queue.flush();
+        assertEquals(List.of(0, 1, 2, 3), new ArrayList<>(committed));
+    }
+
+    @Test
+    public void testDropOldestOverflow() throws Exception {
+        queue = new HistoryWriteQueue(fakeFactory(), 2, 10, HistoryWriteQueue.OverflowPolicy.DROP_OLDEST);
+        queue.start();
+        stallWriter();
+
+        submit(1);
+        submit(2);
+        submit(3);
+        assertEquals(2, queue.size());
+
+        writerGate.countDown();
+        queue.flush();
+        assertEquals(List.of(0, 2, 3), new ArrayList<>(committed));
+    }
+
+    @Test
+    public void testBlockOverflowWaitsForRoom() throws Exception {
+        queue = new HistoryWriteQueue(fakeFactory(), 1, 10, HistoryWriteQueue.OverflowPolicy.BLOCK);
+        queue.start();
+        stallWriter();
+
+        submit(1);
+        Thread caller = new Thread(() -> submit(2));
+        caller.start();
+        caller.join(200);
+        assertTrue("submit should block while the queue is full", caller.isAlive());
+
+        writerGate.countDown();
+        caller.join(10000);
+        assertFalse(caller.isAlive());
+
+        queue.flush();
+        assertEquals(List.of(0, 1, 2), new ArrayList<>(committed));
+    }
+}
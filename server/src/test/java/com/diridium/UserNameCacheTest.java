@@ -0,0 +1,57 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import org.junit.Test;
+
+public class UserNameCacheTest {
+
+    private final List<Integer> lookups = new ArrayList<>();
+
+    private final IntFunction<String> lookup = userId -> {
+        lookups.add(userId);
+        return "user" + userId;
+    };
+
+    @Test
+    public void testNamesAreLookedUpOnce() {
+        UserNameCache cache = new UserNameCache(10, 60_000);
+        assertEquals("user1", cache.get(1, lookup));
+        assertEquals("user2", cache.get(2, lookup));
+        assertEquals("user1", cache.get(1, lookup));
+        assertEquals(List.of(1, 2), lookups);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedNameIsEvicted() {
+        UserNameCache cache = new UserNameCache(2, 60_000);
+        cache.get(1, lookup);
+        cache.get(2, lookup);
+        cache.get(1, lookup);
+        cache.get(3, lookup);
+        lookups.clear();
+
+        cache.get(1, lookup);
+        cache.get(2, lookup);
+        assertEquals(List.of(2), lookups);
+    }
+
+    @Test
+    public void testExpiredAndFailedLookupsAreRepeated() {
+        UserNameCache expiring = new UserNameCache(10, 0);
+        expiring.get(1, lookup);
+        expiring.get(1, lookup);
+        assertEquals(List.of(1, 1), lookups);
+
+        UserNameCache cache = new UserNameCache(10, 60_000);
+        assertNull(cache.get(1, userId -> null));
+        assertEquals("user1", cache.get(1, lookup));
+    }
+}
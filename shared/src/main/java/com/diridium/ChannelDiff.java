@@ -0,0 +1,39 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Component-level diff between two revisions of a channel, computed on the
+ * server so only the changed components have to be sent to the client.
+ */
+public class ChannelDiff {
+
+    // every component of both revisions, older revision order first
+    private List<ComponentDiff> components = new ArrayList<>();
+    private Map<String, String> groupDisplayNames = new LinkedHashMap<>();
+
+    public ChannelDiff() {
+    }
+
+    public List<ComponentDiff> getComponents() {
+        return components;
+    }
+
+    public void setComponents(List<ComponentDiff> components) {
+        this.components = components;
+    }
+
+    public Map<String, String> getGroupDisplayNames() {
+        return groupDisplayNames;
+    }
+
+    public void setGroupDisplayNames(Map<String, String> groupDisplayNames) {
+        this.groupDisplayNames = groupDisplayNames;
+    }
+}
@@ -13,6 +13,7 @@ import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 
 import com.mirth.connect.client.core.Operation.ExecuteType;
 import com.mirth.connect.client.core.ClientException;
@@ -46,6 +47,17 @@ public interface ChannelHistoryServletInterface extends BaseServletInterface {
     @MirthOperation(name = "getHistory", display = "Get all revisions of a channel", permission = Permissions.CHANNELS_VIEW, type = ExecuteType.ASYNC, auditable = false)
     List<RevisionInfo> getHistory(@Param("channelId") @Parameter(description = "The ID of the channel", required = true) @QueryParam("channelId") String channelId) throws ClientException;
 
+    @GET
+    @Path("/historyPage")
+    @Operation(summary = "Returns a page of revisions of the given channel, newest first")
+    @ApiResponse(content = {
+            @Content(mediaType = MediaType.APPLICATION_XML),
+            @Content(mediaType = MediaType.APPLICATION_JSON) })
+    @MirthOperation(name = "getHistoryPage", display = "Get a page of revisions of a channel", permission = Permissions.CHANNELS_VIEW, type = ExecuteType.ASYNC, auditable = false)
+    List<RevisionInfo> getHistoryPage(@Param("channelId") @Parameter(description = "The ID of the channel", required = true) @QueryParam("channelId") String channelId,
+            @Param("beforeId") @Parameter(description = "Only return revisions older than this revision ID, omit for the latest revisions") @QueryParam("beforeId") Long beforeId,
+            @Param("limit") @Parameter(description = "The maximum number of revisions to return (at most 500)", required = true) @QueryParam("limit") int limit) throws ClientException;
+
     @GET
     @Path("/content")
     @Produces(MediaType.APPLICATION_XML)
@@ -54,6 +66,26 @@ public interface ChannelHistoryServletInterface extends BaseServletInterface {
     String getContent(@Param("channelId") @Parameter(description = "The ID of the channel", required = true) @QueryParam("channelId") String channelId,
             @Param("revision") @Parameter(description = "The revision ID", required = true) @QueryParam("revision") String revision) throws ClientException;
 
+    @GET
+    @Path("/contents")
+    @Produces(MediaType.APPLICATION_OCTET_STREAM)
+    @Operation(summary = "Streams the content of several revisions of the given channel in the ContentFrames format")
+    @MirthOperation(name = "getContents", display = "Get the content of several revisions of a channel", permission = Permissions.CHANNELS_VIEW, type = ExecuteType.SYNC, auditable = false)
+    Response getContents(@Param("channelId") @Parameter(description = "The ID of the channel", required = true) @QueryParam("channelId") String channelId,
+            @Param("revision") @Parameter(description = "The revision IDs, at most 50", required = true) @QueryParam("revision") List<String> revisions,
+            @Param("gzip") @Parameter(description = "Gzip encode the response") @QueryParam("gzip") boolean gzip) throws ClientException;
+
+    @GET
+    @Path("/channelDiff")
+    @Operation(summary = "Returns the component-level diff between two revisions of the given channel")
+    @ApiResponse(content = {
+            @Content(mediaType = MediaType.APPLICATION_XML),
+            @Content(mediaType = MediaType.APPLICATION_JSON) })
+    @MirthOperation(name = "getChannelDiff", display = "Get the diff between two revisions of a channel", permission = Permissions.CHANNELS_VIEW, type = ExecuteType.SYNC, auditable = false)
+    ChannelDiff getChannelDiff(@Param("channelId") @Parameter(description = "The ID of the channel", required = true) @QueryParam("channelId") String channelId,
+            @Param("fromRevision") @Parameter(description = "The older revision ID", required = true) @QueryParam("fromRevision") String fromRevision,
+            @Param("toRevision") @Parameter(description = "The newer revision ID", required = true) @QueryParam("toRevision") String toRevision) throws ClientException;
+
     @POST
     @Path("/revertChannel")
     @Operation(summary = "Revert the given Channel to the specified revision")
@@ -73,6 +105,17 @@ public interface ChannelHistoryServletInterface extends BaseServletInterface {
     @MirthOperation(name = "getCodeTemplateHistory", display = "Get all revisions of a code template", permission = Permissions.CODE_TEMPLATES_VIEW, type = ExecuteType.ASYNC, auditable = false)
     List<RevisionInfo> getCodeTemplateHistory(@Param("codeTemplateId") @Parameter(description = "The ID of the code template", required = true) @QueryParam("codeTemplateId") String codeTemplateId) throws ClientException;
 
+    @GET
+    @Path("/codeTemplateHistoryPage")
+    @Operation(summary = "Returns a page of revisions of the given code template, newest first")
+    @ApiResponse(content = {
+            @Content(mediaType = MediaType.APPLICATION_XML),
+            @Content(mediaType = MediaType.APPLICATION_JSON) })
+    @MirthOperation(name = "getCodeTemplateHistoryPage", display = "Get a page of revisions of a code template", permission = Permissions.CODE_TEMPLATES_VIEW, type = ExecuteType.ASYNC, auditable = false)
+    List<RevisionInfo> getCodeTemplateHistoryPage(@Param("codeTemplateId") @Parameter(description = "The ID of the code template", required = true) @QueryParam("codeTemplateId") String codeTemplateId,
+            @Param("beforeId") @Parameter(description = "Only return revisions older than this revision ID, omit for the latest revisions") @QueryParam("beforeId") Long beforeId,
+            @Param("limit") @Parameter(description = "The maximum number of revisions to return (at most 500)", required = true) @QueryParam("limit") int limit) throws ClientException;
+
     @GET
     @Path("/codeTemplateContent")
     @Produces(MediaType.APPLICATION_XML)
@@ -81,6 +124,15 @@ public interface ChannelHistoryServletInterface extends BaseServletInterface {
     String getCodeTemplateContent(@Param("codeTemplateId") @Parameter(description = "The ID of the code template", required = true) @QueryParam("codeTemplateId") String codeTemplateId,
             @Param("revision") @Parameter(description = "The value of revision", required = true) @QueryParam("revision") String revision) throws ClientException;
 
+    @GET
+    @Path("/codeTemplateContents")
+    @Produces(MediaType.APPLICATION_OCTET_STREAM)
+    @Operation(summary = "Streams the content of several revisions of the given code template in the ContentFrames format")
+    @MirthOperation(name = "getCodeTemplateContents", display = "Get the content of several revisions of a code template", permission = Permissions.CODE_TEMPLATES_VIEW, type = ExecuteType.SYNC, auditable = false)
+    Response getCodeTemplateContents(@Param("codeTemplateId") @Parameter(description = "The ID of the code template", required = true) @QueryParam("codeTemplateId") String codeTemplateId,
+            @Param("revision") @Parameter(description = "The revision IDs, at most 50", required = true) @QueryParam("revision") List<String> revisions,
+            @Param("gzip") @Parameter(description = "Gzip encode the response") @QueryParam("gzip") boolean gzip) throws ClientException;
+
     @POST
     @Path("/revertCodeTemplate")
     @Operation(summary = "Revert the given CodeTemplate to the specified revision")
@@ -129,6 +181,14 @@ public interface ChannelHistoryServletInterface extends BaseServletInterface {
     @MirthOperation(name = "getDeletedChannelContent", display = "Get deleted channel content", permission = Permissions.CHANNELS_MANAGE, type = ExecuteType.SYNC, auditable = false)
     String getDeletedChannelContent(@Param("id") @Parameter(description = "The database row ID of the deleted channel snapshot", required = true) @QueryParam("id") long id) throws ClientException;
 
+    @GET
+    @Path("/deletedChannelContentStream")
+    @Produces(MediaType.APPLICATION_XML)
+    @Operation(summary = "Streams the XML content of a deleted channel snapshot, empty if there is no such snapshot")
+    @MirthOperation(name = "getDeletedChannelContentStream", display = "Stream deleted channel content", permission = Permissions.CHANNELS_MANAGE, type = ExecuteType.SYNC, auditable = false)
+    Response getDeletedChannelContentStream(@Param("id") @Parameter(description = "The database row ID of the deleted channel snapshot", required = true) @QueryParam("id") long id,
+            @Param("gzip") @Parameter(description = "Gzip encode the response") @QueryParam("gzip") boolean gzip) throws ClientException;
+
     @POST
     @Path("/purgeDeletedChannel")
     @Operation(summary = "Permanently remove a deleted channel snapshot")
@@ -151,6 +211,14 @@ public interface ChannelHistoryServletInterface extends BaseServletInterface {
     @MirthOperation(name = "getDeletedCodeTemplateContent", display = "Get deleted code template content", permission = Permissions.CODE_TEMPLATES_MANAGE, type = ExecuteType.SYNC, auditable = false)
     String getDeletedCodeTemplateContent(@Param("id") @Parameter(description = "The database row ID of the deleted code template snapshot", required = true) @QueryParam("id") long id) throws ClientException;
 
+    @GET
+    @Path("/deletedCodeTemplateContentStream")
+    @Produces(MediaType.APPLICATION_XML)
+    @Operation(summary = "Streams the XML content of a deleted code template snapshot, empty if there is no such snapshot")
+    @MirthOperation(name = "getDeletedCodeTemplateContentStream", display = "Stream deleted code template content", permission = Permissions.CODE_TEMPLATES_MANAGE, type = ExecuteType.SYNC, auditable = false)
+    Response getDeletedCodeTemplateContentStream(@Param("id") @Parameter(description = "The database row ID of the deleted code template snapshot", required = true) @QueryParam("id") long id,
+            @Param("gzip") @Parameter(description = "Gzip encode the response") @QueryParam("gzip") boolean gzip) throws ClientException;
+
     @POST
     @Path("/purgeDeletedCodeTemplate")
     @Operation(summary = "Permanently remove a deleted code template snapshot")
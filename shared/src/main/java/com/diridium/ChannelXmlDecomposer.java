@@ -9,17 +9,14 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
-import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
+import javax.xml.xpath.XPathExpression;
 
 import com.mirth.connect.util.MirthXmlUtil;
 
@@ -31,6 +28,28 @@ import org.xml.sax.InputSource;
 
 public class ChannelXmlDecomposer {
 
+    // Channels with at least this many destinations decompose them in parallel on the DOM path
+    static final int PARALLEL_DESTINATION_THRESHOLD = 8;
+
+    // Compiled once per thread, XPathExpression isn't thread-safe
+    private static final ThreadLocal<Expressions> EXPRESSIONS = ThreadLocal.withInitial(Expressions::new);
+
+    private static class Expressions {
+        final XPathExpression preprocessingScript = XmlProcessors.compile("/channel/preprocessingScript");
+        final XPathExpression postprocessingScript = XmlProcessors.compile("/channel/postprocessingScript");
+        final XPathExpression deployScript = XmlProcessors.compile("/channel/deployScript");
+        final XPathExpression undeployScript = XmlProcessors.compile("/channel/undeployScript");
+        final XPathExpression sourceConnector = XmlProcessors.compile("/channel/sourceConnector");
+        final XPathExpression destinationConnectors = XmlProcessors.compile("/channel/destinationConnectors/connector");
+        final XPathExpression destinationConnectorsWrapper = XmlProcessors.compile("/channel/destinationConnectors");
+        final XPathExpression propertiesScript = XmlProcessors.compile("properties/script");
+        final XPathExpression pluginProperties = XmlProcessors.compile("properties/pluginProperties");
+        // first <elements> of the first filter/transformer, as evaluating them one at a time did
+        final XPathExpression filterElements = XmlProcessors.compile("filter[1]/elements[1]");
+        final XPathExpression transformerElements = XmlProcessors.compile("transformer[1]/elements[1]");
+        final XPathExpression responseTransformerElements = XmlProcessors.compile("responseTransformer[1]/elements[1]");
+    }
+
     /**
      * Result of decomposing a channel XML, containing the component map and
      * a mapping from stable group keys to human-readable display names.
@@ -65,35 +84,47 @@ public class ChannelXmlDecomposer {
 
     private static Map<String, DecomposedComponent> decomposeInternal(String channelXml,
             Map<String, String> groupDisplayNames) throws Exception {
-        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-        dbf.setFeature(javax.xml.XMLConstants.FEATURE_SECURE_PROCESSING, true);
-        dbf.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-        dbf.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-        dbf.setFeature("http://xml.org/sax/features/external-general-entities", false);
-        dbf.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
-        DocumentBuilder db = dbf.newDocumentBuilder();
-        db.setErrorHandler(new org.xml.sax.helpers.DefaultHandler());
-        Document doc = db.parse(new InputSource(new StringReader(channelXml)));
-
-        XPath xpath = XPathFactory.newInstance().newXPath();
+        Map<String, String> streamedNames = groupDisplayNames != null ? new LinkedHashMap<>() : null;
+        try {
+            Map<String, DecomposedComponent> components = StreamingChannelXmlDecomposer.decompose(channelXml, streamedNames);
+            if (groupDisplayNames != null) {
+                groupDisplayNames.putAll(streamedNames);
+            }
+            return components;
+        } catch (StreamingChannelXmlDecomposer.UnsupportedContentException e) {
+            // rare constructs the streaming writer can't lay out like the DOM serializer
+            return decomposeWithDom(channelXml, groupDisplayNames);
+        }
+    }
+
+    static Map<String, DecomposedComponent> decomposeWithDom(String channelXml,
+            Map<String, String> groupDisplayNames) throws Exception {
+        return decomposeWithDom(channelXml, groupDisplayNames, true);
+    }
+
+    static Map<String, DecomposedComponent> decomposeWithDom(String channelXml,
+            Map<String, String> groupDisplayNames, boolean parallel) throws Exception {
+        Document doc = XmlProcessors.documentBuilder().parse(new InputSource(new StringReader(channelXml)));
+
+        Expressions xpath = EXPRESSIONS.get();
         Map<String, DecomposedComponent> components = new LinkedHashMap<>();
 
         // Channel-level scripts
-        extractChannelScript(doc, xpath, components, "preprocessingScript", "Preprocessing Script");
-        extractChannelScript(doc, xpath, components, "postprocessingScript", "Postprocessing Script");
-        extractChannelScript(doc, xpath, components, "deployScript", "Deploy Script");
-        extractChannelScript(doc, xpath, components, "undeployScript", "Undeploy Script");
+        extractChannelScript(doc, xpath.preprocessingScript, components, "Preprocessing Script");
+        extractChannelScript(doc, xpath.postprocessingScript, components, "Postprocessing Script");
+        extractChannelScript(doc, xpath.deployScript, components, "Deploy Script");
+        extractChannelScript(doc, xpath.undeployScript, components, "Undeploy Script");
 
         // Source connector
-        Node sourceConnector = (Node) xpath.evaluate("/channel/sourceConnector", doc, XPathConstants.NODE);
+        Node sourceConnector = (Node) xpath.sourceConnector.evaluate(doc, XPathConstants.NODE);
         if (sourceConnector != null) {
             String srcGroup = "Source Connector";
             extractConnectorScript(xpath, components, (Element) sourceConnector, srcGroup);
             extractPluginProperties(xpath, components, (Element) sourceConnector, srcGroup);
-            extractStepsFromSubElement(xpath, components, (Element) sourceConnector, srcGroup,
-                    "filter", "Filter", DecomposedComponent.Category.FILTER);
-            extractStepsFromSubElement(xpath, components, (Element) sourceConnector, srcGroup,
-                    "transformer", "Transformer", DecomposedComponent.Category.TRANSFORMER);
+            extractStepsFromSubElement(xpath.filterElements, components, (Element) sourceConnector, srcGroup,
+                    "Filter", DecomposedComponent.Category.FILTER);
+            extractStepsFromSubElement(xpath.transformerElements, components, (Element) sourceConnector, srcGroup,
+                    "Transformer", DecomposedComponent.Category.TRANSFORMER);
 
             // Serialize remaining source connector as Configuration
             String srcConfigXml = serializeNode(sourceConnector);
@@ -104,8 +135,7 @@ public class ChannelXmlDecomposer {
         }
 
         // Destination connectors
-        NodeList destConnectors = (NodeList) xpath.evaluate(
-                "/channel/destinationConnectors/connector", doc, XPathConstants.NODESET);
+        NodeList destConnectors = (NodeList) xpath.destinationConnectors.evaluate(doc, XPathConstants.NODESET);
         List<Element> destElements = new ArrayList<>();
         List<String> destGroupNames = new ArrayList<>();
         StringBuilder destOrderBuilder = new StringBuilder();
@@ -125,32 +155,44 @@ public class ChannelXmlDecomposer {
                 destOrderBuilder.append("\n");
             }
             destOrderBuilder.append(i + 1).append(". ").append(connName).append(" [").append(metaDataId).append("]");
-
-            extractConnectorScript(xpath, components, connector, groupName);
-            extractPluginProperties(xpath, components, connector, groupName);
-            extractStepsFromSubElement(xpath, components, connector, groupName,
-                    "filter", "Filter", DecomposedComponent.Category.FILTER);
-            extractStepsFromSubElement(xpath, components, connector, groupName,
-                    "transformer", "Transformer", DecomposedComponent.Category.TRANSFORMER);
-            extractStepsFromSubElement(xpath, components, connector, groupName,
-                    "responseTransformer", "Response Transformer", DecomposedComponent.Category.RESPONSE_TRANSFORMER);
         }
 
-        // Extract each destination connector configuration (after sub-elements removed)
-        for (int i = 0; i < destElements.size(); i++) {
-            Element connector = destElements.get(i);
-            String groupName = destGroupNames.get(i);
-            if (connector.getParentNode() != null) {
-                String configXml = serializeNode(connector);
-                String configKey = groupName + "/Configuration";
-                components.put(configKey, new DecomposedComponent(configKey, "Configuration", configXml,
-                        DecomposedComponent.Category.CONNECTOR_CONFIGURATION, groupName));
+        List<DestinationResult> destinations = new ArrayList<>();
+        if (parallel && destElements.size() >= PARALLEL_DESTINATION_THRESHOLD) {
+            // Destinations are independent, but a DOM can't be shared between threads,
+            // so each one is moved into its own document before it is handed to the pool
+            List<Future<DestinationResult>> tasks = new ArrayList<>();
+            for (int i = 0; i < destElements.size(); i++) {
+                Element connector = destElements.get(i);
+                Document copy = XmlProcessors.documentBuilder().newDocument();
+                copy.appendChild(copy.importNode(connector, true));
                 connector.getParentNode().removeChild(connector);
+                String groupName = destGroupNames.get(i);
+                tasks.add(ForkJoinPool.commonPool().submit(() -> decomposeDestination(copy.getDocumentElement(), groupName)));
+            }
+            for (Future<DestinationResult> task : tasks) {
+                try {
+                    destinations.add(task.get());
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
             }
+        } else {
+            for (int i = 0; i < destElements.size(); i++) {
+                destinations.add(decomposeDestination(destElements.get(i), destGroupNames.get(i)));
+            }
+        }
+
+        // Merge in document order: each destination's components, then every configuration
+        for (DestinationResult destination : destinations) {
+            components.putAll(destination.components);
+        }
+        for (DestinationResult destination : destinations) {
+            components.put(destination.configuration.getKey(), destination.configuration);
         }
 
         // Remove the now-empty destinationConnectors wrapper element
-        Node destConnectorsWrapper = (Node) xpath.evaluate("/channel/destinationConnectors", doc, XPathConstants.NODE);
+        Node destConnectorsWrapper = (Node) xpath.destinationConnectorsWrapper.evaluate(doc, XPathConstants.NODE);
         if (destConnectorsWrapper != null) {
             destConnectorsWrapper.getParentNode().removeChild(destConnectorsWrapper);
         }
@@ -174,10 +216,38 @@ public class ChannelXmlDecomposer {
         return ordered;
     }
 
-    private static void extractChannelScript(Document doc, XPath xpath,
+    private static class DestinationResult {
+        final Map<String, DecomposedComponent> components = new LinkedHashMap<>();
+        DecomposedComponent configuration;
+    }
+
+    /**
+     * Extracts a destination's components and then its remaining configuration,
+     * removing the connector from its document.
+     */
+    private static DestinationResult decomposeDestination(Element connector, String groupName) throws Exception {
+        Expressions xpath = EXPRESSIONS.get();
+        DestinationResult result = new DestinationResult();
+        extractConnectorScript(xpath, result.components, connector, groupName);
+        extractPluginProperties(xpath, result.components, connector, groupName);
+        extractStepsFromSubElement(xpath.filterElements, result.components, connector, groupName,
+                "Filter", DecomposedComponent.Category.FILTER);
+        extractStepsFromSubElement(xpath.transformerElements, result.components, connector, groupName,
+                "Transformer", DecomposedComponent.Category.TRANSFORMER);
+        extractStepsFromSubElement(xpath.responseTransformerElements, result.components, connector, groupName,
+                "Response Transformer", DecomposedComponent.Category.RESPONSE_TRANSFORMER);
+
+        String configKey = groupName + "/Configuration";
+        result.configuration = new DecomposedComponent(configKey, "Configuration", serializeNode(connector),
+                DecomposedComponent.Category.CONNECTOR_CONFIGURATION, groupName);
+        connector.getParentNode().removeChild(connector);
+        return result;
+    }
+
+    private static void extractChannelScript(Document doc, XPathExpression path,
             Map<String, DecomposedComponent> components,
-            String elementName, String displayName) throws Exception {
-        Node node = (Node) xpath.evaluate("/channel/" + elementName, doc, XPathConstants.NODE);
+            String displayName) throws Exception {
+        Node node = (Node) path.evaluate(doc, XPathConstants.NODE);
         if (node != null) {
             String content = node.getTextContent();
             String group = "Channel Scripts";
@@ -188,10 +258,10 @@ public class ChannelXmlDecomposer {
         }
     }
 
-    private static void extractConnectorScript(XPath xpath,
+    private static void extractConnectorScript(Expressions xpath,
             Map<String, DecomposedComponent> components,
             Element connector, String groupName) throws Exception {
-        Node node = (Node) xpath.evaluate("properties/script", connector, XPathConstants.NODE);
+        Node node = (Node) xpath.propertiesScript.evaluate(connector, XPathConstants.NODE);
         if (node != null) {
             String content = node.getTextContent();
             String compKey = groupName + "/Script";
@@ -201,10 +271,10 @@ public class ChannelXmlDecomposer {
         }
     }
 
-    private static void extractPluginProperties(XPath xpath,
+    private static void extractPluginProperties(Expressions xpath,
             Map<String, DecomposedComponent> components,
             Element connector, String groupName) throws Exception {
-        Node pluginProps = (Node) xpath.evaluate("properties/pluginProperties", connector, XPathConstants.NODE);
+        Node pluginProps = (Node) xpath.pluginProperties.evaluate(connector, XPathConstants.NODE);
         if (pluginProps == null) {
             return;
         }
@@ -227,18 +297,12 @@ public class ChannelXmlDecomposer {
         }
     }
 
-    private static void extractStepsFromSubElement(XPath xpath,
+    private static void extractStepsFromSubElement(XPathExpression elementsPath,
             Map<String, DecomposedComponent> components,
             Element connector, String connectorGroup,
-            String elementName, String displayName,
+            String displayName,
             DecomposedComponent.Category category) throws Exception {
-        Node node = (Node) xpath.evaluate(elementName, connector, XPathConstants.NODE);
-        if (node == null) {
-            return;
-        }
-
-        Element subElement = (Element) node;
-        Node elementsNode = (Node) xpath.evaluate("elements", subElement, XPathConstants.NODE);
+        Node elementsNode = (Node) elementsPath.evaluate(connector, XPathConstants.NODE);
         if (elementsNode == null) {
             return;
         }
@@ -302,15 +366,9 @@ public class ChannelXmlDecomposer {
         return null;
     }
 
-    private static String serializeNode(Node node) throws Exception {
-        TransformerFactory tf = TransformerFactory.newInstance();
-        tf.setFeature(javax.xml.XMLConstants.FEATURE_SECURE_PROCESSING, true);
-        tf.setAttribute(javax.xml.XMLConstants.ACCESS_EXTERNAL_DTD, "");
-        tf.setAttribute(javax.xml.XMLConstants.ACCESS_EXTERNAL_STYLESHEET, "");
-        Transformer transformer = tf.newTransformer();
-        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+    static String serializeNode(Node node) throws Exception {
         StringWriter writer = new StringWriter();
-        transformer.transform(new DOMSource(node), new StreamResult(writer));
+        XmlProcessors.transformer().transform(new DOMSource(node), new StreamResult(writer));
         return MirthXmlUtil.prettyPrint(writer.toString().trim()).trim();
     }
 
@@ -0,0 +1,114 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+/**
+ * Splits a code template XML into its code, properties, context set and
+ * remaining metadata so a diff only has to look at the parts that changed.
+ * The code is returned as plain script rather than escaped XML.
+ */
+public class CodeTemplateXmlDecomposer {
+
+    static final String GROUP = "Code Template";
+    static final String CODE_KEY = GROUP + "/Code";
+    static final String PROPERTIES_KEY = GROUP + "/Properties";
+    static final String CONTEXT_SET_KEY = GROUP + "/Context Set";
+    static final String METADATA_KEY = GROUP + "/Metadata";
+
+    public static ChannelXmlDecomposer.DecomposeResult decomposeWithNames(String codeTemplateXml) throws Exception {
+        Map<String, String> groupDisplayNames = new LinkedHashMap<>();
+        Map<String, DecomposedComponent> components = decompose(codeTemplateXml, groupDisplayNames);
+        return new ChannelXmlDecomposer.DecomposeResult(components, groupDisplayNames);
+    }
+
+    public static Map<String, DecomposedComponent> decompose(String codeTemplateXml) throws Exception {
+        return decompose(codeTemplateXml, null);
+    }
+
+    private static Map<String, DecomposedComponent> decompose(String codeTemplateXml,
+            Map<String, String> groupDisplayNames) throws Exception {
+        Map<String, DecomposedComponent> components = new LinkedHashMap<>();
+        Document doc = XmlProcessors.documentBuilder().parse(new InputSource(new StringReader(codeTemplateXml)));
+        Element root = doc.getDocumentElement();
+
+        if (groupDisplayNames != null) {
+            String name = getDirectChildText(root, "name");
+            groupDisplayNames.put(GROUP, name != null && !name.isEmpty() ? GROUP + ": " + name : GROUP);
+        }
+
+        // Templates saved before code template properties existed keep the code at the top level
+        Element properties = getDirectChild(root, "properties");
+        Element code = properties != null ? getDirectChild(properties, "code") : null;
+        if (code == null) {
+            code = getDirectChild(root, "code");
+        }
+        if (code != null) {
+            components.put(CODE_KEY, new DecomposedComponent(CODE_KEY, "Code", code.getTextContent(),
+                    DecomposedComponent.Category.CODE_TEMPLATE_CODE, GROUP));
+            code.getParentNode().removeChild(code);
+        }
+
+        if (properties != null) {
+            components.put(PROPERTIES_KEY, new DecomposedComponent(PROPERTIES_KEY, "Properties",
+                    ChannelXmlDecomposer.serializeNode(properties),
+                    DecomposedComponent.Category.CODE_TEMPLATE_PROPERTIES, GROUP));
+            root.removeChild(properties);
+        }
+
+        Element contextSet = getDirectChild(root, "contextSet");
+        if (contextSet != null) {
+            components.put(CONTEXT_SET_KEY, new DecomposedComponent(CONTEXT_SET_KEY, "Context Set",
+                    getContextTypes(contextSet), DecomposedComponent.Category.CODE_TEMPLATE_CONTEXT, GROUP));
+            root.removeChild(contextSet);
+        }
+
+        components.put(METADATA_KEY, new DecomposedComponent(METADATA_KEY, "Metadata",
+                ChannelXmlDecomposer.serializeNode(doc), DecomposedComponent.Category.CODE_TEMPLATE_METADATA, GROUP));
+
+        return components;
+    }
+
+    /**
+     * One context type per line. The set is serialized from a hash set, so the
+     * types are sorted to keep an unchanged context set from showing as changed.
+     */
+    private static String getContextTypes(Element contextSet) {
+        List<String> types = new ArrayList<>();
+        NodeList nodes = contextSet.getElementsByTagName("contextType");
+        for (int i = 0; i < nodes.getLength(); i++) {
+            types.add(nodes.item(i).getTextContent().trim());
+        }
+        Collections.sort(types);
+        return String.join("\n", types);
+    }
+
+    private static Element getDirectChild(Element parent, String childName) {
+        NodeList children = parent.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            Node child = children.item(i);
+            if (child instanceof Element && child.getNodeName().equals(childName)) {
+                return (Element) child;
+            }
+        }
+        return null;
+    }
+
+    private static String getDirectChildText(Element parent, String childName) {
+        Element child = getDirectChild(parent, childName);
+        return child != null ? child.getTextContent() : null;
+    }
+}
@@ -0,0 +1,86 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+/**
+ * One decomposed component of a {@link ChannelDiff}. Unchanged components only
+ * carry their tree metadata; changed components carry the old text and the
+ * {@link LineDelta} hunks that turn it into the new text.
+ */
+public class ComponentDiff {
+
+    public enum ChangeType {
+        UNCHANGED,
+        MODIFIED,
+        LEFT_ONLY,
+        RIGHT_ONLY
+    }
+
+    private String key;
+    private String displayName;
+    private DecomposedComponent.Category category;
+    private String parentGroup;
+    private ChangeType changeType;
+    private String leftContent; // null when unchanged or only in the newer revision
+    private String rightDelta;  // delta against leftContent (or ""), null when unchanged or only in the older revision
+
+    public ComponentDiff() {
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public void setDisplayName(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public DecomposedComponent.Category getCategory() {
+        return category;
+    }
+
+    public void setCategory(DecomposedComponent.Category category) {
+        this.category = category;
+    }
+
+    public String getParentGroup() {
+        return parentGroup;
+    }
+
+    public void setParentGroup(String parentGroup) {
+        this.parentGroup = parentGroup;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public void setChangeType(ChangeType changeType) {
+        this.changeType = changeType;
+    }
+
+    public String getLeftContent() {
+        return leftContent;
+    }
+
+    public void setLeftContent(String leftContent) {
+        this.leftContent = leftContent;
+    }
+
+    public String getRightDelta() {
+        return rightDelta;
+    }
+
+    public void setRightDelta(String rightDelta) {
+        this.rightDelta = rightDelta;
+    }
+}
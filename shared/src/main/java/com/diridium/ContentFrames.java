@@ -0,0 +1,158 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Body format of the bulk content endpoints, which write several revisions to
+ * one response as they are read from the database instead of collecting them
+ * in a map first. Each revision is a frame:
+ * <pre>
+ * boolean true   another frame follows
+ * UTF     id     the revision id
+ * int n, n bytes UTF-8 content in chunks of any size
+ * int 0          end of the content, or -1 if there is no such revision
+ * </pre>
+ * and the body ends with {@code boolean false}. A body cut short by a server
+ * error fails to read instead of returning some of the revisions.
+ */
+public final class ContentFrames {
+
+    private static final int CHUNK_SIZE = 8192;
+    private static final int END = 0;
+    private static final int MISSING = -1;
+
+    /** Writes the content of one revision, returning false if there is none. */
+    @FunctionalInterface
+    public interface ContentSource {
+        boolean writeTo(OutputStream out) throws Exception;
+    }
+
+    private ContentFrames() {
+    }
+
+    public static class Writer {
+
+        private final DataOutputStream out;
+
+        /**
+         * Writes frames to {@code out}, which is left open.
+         */
+        public Writer(OutputStream out) {
+            this.out = new DataOutputStream(out);
+        }
+
+        /**
+         * Writes a frame for the revision {@code id} with the content
+         * {@code source} writes, or marks it missing if it writes none.
+         */
+        public void write(String id, ContentSource source) throws Exception {
+            out.writeBoolean(true);
+            out.writeUTF(id);
+            ChunkOutputStream chunks = new ChunkOutputStream(out);
+            boolean found = source.writeTo(chunks);
+            chunks.flushChunk();
+            out.writeInt(found ? END : MISSING);
+        }
+
+        public void finish() throws IOException {
+            out.writeBoolean(false);
+            out.flush();
+        }
+    }
+
+    /**
+     * Reads a whole body, returning the content of each revision found keyed by
+     * id in the order written.
+     */
+    public static Map<String, String> read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        Map<String, String> contents = new LinkedHashMap<>();
+        byte[] buffer = new byte[CHUNK_SIZE];
+        while (data.readBoolean()) {
+            String id = data.readUTF();
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            int length;
+            while ((length = data.readInt()) > 0) {
+                while (length > 0) {
+                    int n = Math.min(length, buffer.length);
+                    data.readFully(buffer, 0, n);
+                    content.write(buffer, 0, n);
+                    length -= n;
+                }
+            }
+            if (length == END) {
+                contents.put(id, content.toString(StandardCharsets.UTF_8));
+            } else if (length != MISSING) {
+                throw new IOException("invalid frame end " + length + " for revision " + id);
+            }
+        }
+        return contents;
+    }
+
+    /**
+     * Buffers the content of a frame and writes it as length-prefixed chunks.
+     * Closing it only writes the buffered chunk, the frame is ended by its writer.
+     */
+    private static class ChunkOutputStream extends OutputStream {
+
+        private final DataOutputStream out;
+        private final byte[] buffer = new byte[CHUNK_SIZE];
+        private int count;
+
+        ChunkOutputStream(DataOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == buffer.length) {
+                flushChunk();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (count == buffer.length) {
+                    flushChunk();
+                }
+                int n = Math.min(len, buffer.length - count);
+                System.arraycopy(b, off, buffer, count, n);
+                count += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushChunk();
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flushChunk();
+        }
+
+        void flushChunk() throws IOException {
+            if (count > 0) {
+                out.writeInt(count);
+                out.write(buffer, 0, count);
+                count = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import java.util.regex.Pattern;
+
+public class DecomposedComponent {
+
+    // Fields that only record a step's position, they always change when steps are reordered
+    private static final Pattern POSITIONAL_FIELDS_PATTERN =
+            Pattern.compile("<sequenceNumber>\\d+</sequenceNumber>|<operator>[^<]*</operator>");
+    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    public enum Category {
+        CHANNEL_SCRIPT,
+        CONNECTOR_CONFIGURATION,
+        CONNECTOR_SCRIPT,
+        CONNECTOR_PLUGIN,
+        FILTER,
+        TRANSFORMER,
+        RESPONSE_TRANSFORMER,
+        CHANNEL_PROPERTIES,
+        CODE_TEMPLATE_CODE,
+        CODE_TEMPLATE_PROPERTIES,
+        CODE_TEMPLATE_CONTEXT,
+        CODE_TEMPLATE_METADATA
+    }
+
+    private final String key;
+    private final String displayName;
+    private final String content;
+    private final Category category;
+    private final String parentGroup;
+    // Computed on first use, 0 means not yet computed. Components are immutable,
+    // so concurrent callers can only race to store the same value.
+    private transient volatile long contentHash;
+    private transient volatile long normalizedHash;
+
+    public DecomposedComponent(String key, String displayName, String content, Category category, String parentGroup) {
+        this.key = key;
+        this.displayName = displayName;
+        this.content = content;
+        this.category = category;
+        this.parentGroup = parentGroup;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public Category getCategory() {
+        return category;
+    }
+
+    public String getParentGroup() {
+        return parentGroup;
+    }
+
+    /**
+     * 64-bit fingerprint of the content. Different fingerprints mean different
+     * content, equal ones still need {@link #hasSameContent} to be certain.
+     */
+    public long getContentHash() {
+        long hash = contentHash;
+        if (hash == 0) {
+            hash = fingerprint(content);
+            contentHash = hash;
+        }
+        return hash;
+    }
+
+    /**
+     * Fingerprint of the content with positional fields removed and whitespace
+     * collapsed, as returned by {@link #normalizePositionalFields}.
+     */
+    public long getNormalizedHash() {
+        long hash = normalizedHash;
+        if (hash == 0) {
+            hash = fingerprint(normalizePositionalFields(content));
+            normalizedHash = hash;
+        }
+        return hash;
+    }
+
+    /**
+     * Compares content, checking the cached fingerprints before the full text.
+     */
+    public boolean hasSameContent(DecomposedComponent other) {
+        if (content == null || other.content == null) {
+            return content == other.content;
+        }
+        return getContentHash() == other.getContentHash() && content.equals(other.content);
+    }
+
+    /**
+     * Removes fields that only record a step's position and collapses whitespace,
+     * so the same step compares equal wherever it sits in its list.
+     */
+    public static String normalizePositionalFields(String content) {
+        if (content == null) {
+            return "";
+        }
+        String stripped = POSITIONAL_FIELDS_PATTERN.matcher(content).replaceAll("");
+        return WHITESPACE_PATTERN.matcher(stripped).replaceAll(" ").trim();
+    }
+
+    // FNV-1a over the UTF-16 code units, never 0 so 0 can mark an uncomputed hash
+    private static long fingerprint(String s) {
+        long hash = FNV_OFFSET_BASIS;
+        if (s != null) {
+            for (int i = 0; i < s.length(); i++) {
+                hash ^= s.charAt(i);
+                hash *= FNV_PRIME;
+            }
+        } else {
+            hash = 1;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+}
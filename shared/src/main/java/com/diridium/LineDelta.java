@@ -0,0 +1,118 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.patch.AbstractDelta;
+import com.github.difflib.patch.Chunk;
+
+/**
+ * Line-level delta encoding used to store history revisions against a
+ * neighbouring revision, and to send the changes of a component in a
+ * {@link ChannelDiff}.
+ * <p>
+ * The encoded form is plain text so it fits the existing content columns:
+ * <pre>
+ * #delta:1:&lt;base line count&gt;
+ * =n   copy the next n base lines
+ * -n   skip the next n base lines
+ * +n   insert the n lines that follow
+ * </pre>
+ * Lines are split on {@code \n} only, so any {@code \r} and a trailing newline
+ * survive a round trip unchanged.
+ */
+public final class LineDelta {
+
+    private static final String HEADER = "#delta:1:";
+
+    private LineDelta() {
+    }
+
+    public static boolean isDelta(String content) {
+        return content != null && content.startsWith(HEADER);
+    }
+
+    /**
+     * Encodes the edits that turn {@code base} into {@code target}.
+     */
+    public static String encode(String base, String target) {
+        List<String> baseLines = split(base);
+        List<String> targetLines = split(target);
+
+        StringBuilder sb = new StringBuilder(HEADER).append(baseLines.size());
+        int position = 0;
+        for (AbstractDelta<String> delta : DiffUtils.diff(baseLines, targetLines).getDeltas()) {
+            Chunk<String> source = delta.getSource();
+            if (source.getPosition() > position) {
+                sb.append("\n=").append(source.getPosition() - position);
+            }
+            if (source.size() > 0) {
+                sb.append("\n-").append(source.size());
+            }
+            List<String> added = delta.getTarget().getLines();
+            if (!added.isEmpty()) {
+                sb.append("\n+").append(added.size());
+                for (String line : added) {
+                    sb.append('\n').append(line);
+                }
+            }
+            position = source.getPosition() + source.size();
+        }
+        if (position < baseLines.size()) {
+            sb.append("\n=").append(baseLines.size() - position);
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Applies a delta produced by {@link #encode} to the same base it was encoded against.
+     */
+    public static String apply(String base, String delta) {
+        if (!isDelta(delta)) {
+            throw new IllegalArgumentException("content is not a line delta");
+        }
+
+        String[] ops = delta.split("\n", -1);
+        List<String> baseLines = split(base);
+        int expectedBaseLines = Integer.parseInt(ops[0].substring(HEADER.length()));
+        if (expectedBaseLines != baseLines.size()) {
+            throw new IllegalArgumentException("delta expects a base of " + expectedBaseLines
+                    + " lines but the base has " + baseLines.size());
+        }
+
+        List<String> result = new ArrayList<>(baseLines.size());
+        int position = 0;
+        int i = 1;
+        while (i < ops.length) {
+            String op = ops[i++];
+            int count = Integer.parseInt(op.substring(1));
+            switch (op.charAt(0)) {
+                case '=':
+                    result.addAll(baseLines.subList(position, position + count));
+                    position += count;
+                    break;
+                case '-':
+                    position += count;
+                    break;
+                case '+':
+                    result.addAll(Arrays.asList(ops).subList(i, i + count));
+                    i += count;
+                    break;
+                default:
+                    throw new IllegalArgumentException("invalid delta operation: " + op);
+            }
+        }
+
+        return String.join("\n", result);
+    }
+
+    private static List<String> split(String content) {
+        return Arrays.asList(content.split("\n", -1));
+    }
+}
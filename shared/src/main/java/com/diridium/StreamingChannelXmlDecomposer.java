@@ -0,0 +1,692 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Single-pass StAX implementation of {@link ChannelXmlDecomposer}. Each component
+ * is written straight into its own pretty-printed buffer as the channel is read,
+ * instead of building a DOM, querying it with XPath and serializing and
+ * re-parsing every extracted node.
+ *
+ * <p>The output matches the DOM decomposer exactly. Content the pretty printer
+ * could lay out differently (mixed text and elements, CDATA sections,
+ * processing instructions, namespaces, DTDs) is reported with
+ * {@link UnsupportedContentException} so the caller can use the DOM decomposer.
+ */
+final class StreamingChannelXmlDecomposer {
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private static final String[][] CHANNEL_SCRIPTS = {
+            { "preprocessingScript", "Preprocessing Script" },
+            { "postprocessingScript", "Postprocessing Script" },
+            { "deployScript", "Deploy Script" },
+            { "undeployScript", "Undeploy Script" } };
+
+    /**
+     * The channel contains something the streaming decomposer can't reproduce exactly.
+     */
+    static class UnsupportedContentException extends Exception {
+        UnsupportedContentException(String message) {
+            super(message);
+        }
+    }
+
+    private final XMLStreamReader reader;
+    private final String[] channelScripts = new String[CHANNEL_SCRIPTS.length];
+    private Connector sourceConnector;
+    private final List<Connector> destinations = new ArrayList<>();
+    private boolean destinationWrapperSeen;
+
+    private StreamingChannelXmlDecomposer(XMLStreamReader reader) {
+        this.reader = reader;
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        try {
+            // without this the JDK parser reports CDATA sections as plain characters
+            factory.setProperty("http://java.sun.com/xml/stream/properties/report-cdata-event", Boolean.TRUE);
+        } catch (IllegalArgumentException e) {
+            // not the JDK parser
+        }
+        return factory;
+    }
+
+    /**
+     * Decomposes the channel, adding destination display names to
+     * {@code groupDisplayNames} when it is not null.
+     */
+    static Map<String, DecomposedComponent> decompose(String channelXml, Map<String, String> groupDisplayNames)
+            throws Exception {
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(new StringReader(channelXml));
+        try {
+            return new StreamingChannelXmlDecomposer(reader).decomposeDocument(groupDisplayNames);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private Map<String, DecomposedComponent> decomposeDocument(Map<String, String> groupDisplayNames) throws Exception {
+        XmlWriter remainder = new XmlWriter();
+        while (reader.hasNext()) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    if (qualifiedName(reader).equals("channel")) {
+                        readChannel(remainder);
+                    } else {
+                        copyElement(remainder, null);
+                    }
+                    break;
+                case XMLStreamConstants.COMMENT:
+                case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                case XMLStreamConstants.DTD:
+                    throw new UnsupportedContentException("Unsupported content outside the root element");
+                default:
+                    break;
+            }
+        }
+
+        // Same order as the DOM decomposer: channel scripts, source connector, destinations, then their configurations
+        Map<String, DecomposedComponent> components = new LinkedHashMap<>();
+        for (int i = 0; i < CHANNEL_SCRIPTS.length; i++) {
+            if (channelScripts[i] != null) {
+                String displayName = CHANNEL_SCRIPTS[i][1];
+                String group = "Channel Scripts";
+                String compKey = group + "/" + displayName;
+                components.put(compKey, new DecomposedComponent(compKey, displayName, channelScripts[i],
+                        DecomposedComponent.Category.CHANNEL_SCRIPT, group));
+            }
+        }
+
+        if (sourceConnector != null) {
+            String srcGroup = "Source Connector";
+            sourceConnector.putExtracted(components, srcGroup);
+            String srcKey = srcGroup + "/Configuration";
+            components.put(srcKey, new DecomposedComponent(srcKey, "Configuration", sourceConnector.configuration,
+                    DecomposedComponent.Category.CONNECTOR_CONFIGURATION, srcGroup));
+        }
+
+        StringBuilder destOrderBuilder = new StringBuilder();
+        for (int i = 0; i < destinations.size(); i++) {
+            Connector connector = destinations.get(i);
+            String groupName = connector.getGroupName();
+            if (groupDisplayNames != null) {
+                groupDisplayNames.put(groupName, "Destination: " + connector.name + " [" + connector.metaDataId + "]");
+            }
+
+            if (!destOrderBuilder.isEmpty()) {
+                destOrderBuilder.append("\n");
+            }
+            destOrderBuilder.append(i + 1).append(". ").append(connector.name).append(" [").append(connector.metaDataId).append("]");
+
+            connector.putExtracted(components, groupName);
+        }
+
+        for (Connector connector : destinations) {
+            String groupName = connector.getGroupName();
+            String configKey = groupName + "/Configuration";
+            components.put(configKey, new DecomposedComponent(configKey, "Configuration", connector.configuration,
+                    DecomposedComponent.Category.CONNECTOR_CONFIGURATION, groupName));
+        }
+
+        String key = "Channel Properties";
+        Map<String, DecomposedComponent> ordered = new LinkedHashMap<>();
+        ordered.put(key, new DecomposedComponent(key, "Channel Properties", remainder.toString(),
+                DecomposedComponent.Category.CHANNEL_PROPERTIES, key));
+        if (!destOrderBuilder.isEmpty()) {
+            String destOrderKey = "Destination Order";
+            ordered.put(destOrderKey, new DecomposedComponent(destOrderKey, "Destination Order",
+                    destOrderBuilder.toString(),
+                    DecomposedComponent.Category.CHANNEL_PROPERTIES, destOrderKey));
+        }
+        ordered.putAll(components);
+        return ordered;
+    }
+
+    private void readChannel(XmlWriter remainder) throws Exception {
+        remainder.startElement(reader);
+        while (true) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                remainder.endElement();
+                return;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                copyNode(event, remainder, null);
+                continue;
+            }
+
+            String name = reader.getLocalName();
+            int script = channelScriptIndex(name);
+            if (script >= 0 && channelScripts[script] == null) {
+                channelScripts[script] = readTextContent();
+            } else if (name.equals("sourceConnector") && sourceConnector == null) {
+                sourceConnector = readConnector(false);
+            } else if (name.equals("destinationConnectors")) {
+                readDestinationConnectors(remainder);
+            } else {
+                copyElement(remainder, null);
+            }
+        }
+    }
+
+    private static int channelScriptIndex(String name) {
+        for (int i = 0; i < CHANNEL_SCRIPTS.length; i++) {
+            if (CHANNEL_SCRIPTS[i][0].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void readDestinationConnectors(XmlWriter remainder) throws Exception {
+        // the DOM decomposer drops the first wrapper entirely, later ones keep anything but their connectors
+        XmlWriter wrapper = destinationWrapperSeen ? remainder : null;
+        destinationWrapperSeen = true;
+        if (wrapper != null) {
+            wrapper.startElement(reader);
+        }
+        while (true) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                if (wrapper != null) {
+                    wrapper.endElement();
+                }
+                return;
+            }
+            if (event == XMLStreamConstants.START_ELEMENT && reader.getLocalName().equals("connector")) {
+                destinations.add(readConnector(true));
+            } else if (wrapper != null) {
+                copyNode(event, wrapper, null);
+            } else if (event == XMLStreamConstants.START_ELEMENT) {
+                skipElement();
+            }
+        }
+    }
+
+    private Connector readConnector(boolean destination) throws Exception {
+        Connector connector = new Connector();
+        XmlWriter config = new XmlWriter();
+        config.startElement(reader);
+        boolean filterSeen = false;
+        boolean transformerSeen = false;
+        boolean responseTransformerSeen = false;
+        while (true) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                config.endElement();
+                break;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                copyNode(event, config, null);
+                continue;
+            }
+
+            String name = reader.getLocalName();
+            if (name.equals("properties")) {
+                readConnectorProperties(connector, config);
+            } else if (name.equals("filter") && !filterSeen) {
+                filterSeen = true;
+                readSteps(connector.filterSteps, config);
+            } else if (name.equals("transformer") && !transformerSeen) {
+                transformerSeen = true;
+                readSteps(connector.transformerSteps, config);
+            } else if (destination && name.equals("responseTransformer") && !responseTransformerSeen) {
+                responseTransformerSeen = true;
+                readSteps(connector.responseTransformerSteps, config);
+            } else if (destination && name.equals("name") && connector.name == null) {
+                StringBuilder text = new StringBuilder();
+                copyElement(config, text);
+                connector.name = text.toString();
+            } else if (destination && name.equals("metaDataId") && connector.metaDataId == null) {
+                StringBuilder text = new StringBuilder();
+                copyElement(config, text);
+                connector.metaDataId = text.toString();
+            } else {
+                copyElement(config, null);
+            }
+        }
+        connector.configuration = config.toString();
+        return connector;
+    }
+
+    private void readConnectorProperties(Connector connector, XmlWriter config) throws Exception {
+        config.startElement(reader);
+        while (true) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                config.endElement();
+                return;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                copyNode(event, config, null);
+                continue;
+            }
+
+            String name = reader.getLocalName();
+            if (name.equals("script") && connector.script == null) {
+                connector.script = readTextContent();
+            } else if (name.equals("pluginProperties") && !connector.pluginPropertiesSeen) {
+                connector.pluginPropertiesSeen = true;
+                readPluginProperties(connector, config);
+            } else {
+                copyElement(config, null);
+            }
+        }
+    }
+
+    private void readPluginProperties(Connector connector, XmlWriter config) throws Exception {
+        config.startElement(reader);
+        while (true) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                config.endElement();
+                return;
+            }
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String pluginName = ChannelXmlDecomposer.getStepTypeName(qualifiedName(reader));
+                XmlWriter plugin = new XmlWriter();
+                copyElement(plugin, null);
+                connector.plugins.add(new String[] { pluginName, plugin.toString() });
+            } else {
+                copyNode(event, config, null);
+            }
+        }
+    }
+
+    /**
+     * Reads a filter or transformer, extracting the children of its first
+     * {@code elements} child as steps.
+     */
+    private void readSteps(List<String[]> steps, XmlWriter config) throws Exception {
+        config.startElement(reader);
+        boolean elementsSeen = false;
+        while (true) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                config.endElement();
+                return;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                copyNode(event, config, null);
+            } else if (reader.getLocalName().equals("elements") && !elementsSeen) {
+                elementsSeen = true;
+                readStepElements(steps, config);
+            } else {
+                copyElement(config, null);
+            }
+        }
+    }
+
+    private void readStepElements(List<String[]> steps, XmlWriter config) throws Exception {
+        config.startElement(reader);
+        while (true) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                config.endElement();
+                return;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                copyNode(event, config, null);
+                continue;
+            }
+
+            String tagName = qualifiedName(reader);
+            XmlWriter step = new XmlWriter();
+            String[] childText = new String[2]; // sequenceNumber, name
+            step.startElement(reader);
+            while (true) {
+                int stepEvent = reader.next();
+                if (stepEvent == XMLStreamConstants.END_ELEMENT) {
+                    step.endElement();
+                    break;
+                }
+                if (stepEvent != XMLStreamConstants.START_ELEMENT) {
+                    copyNode(stepEvent, step, null);
+                    continue;
+                }
+
+                String name = reader.getLocalName();
+                int index = name.equals("sequenceNumber") ? 0 : name.equals("name") ? 1 : -1;
+                if (index >= 0 && childText[index] == null) {
+                    StringBuilder text = new StringBuilder();
+                    copyElement(step, text);
+                    childText[index] = text.toString();
+                } else {
+                    copyElement(step, null);
+                }
+            }
+
+            String seq = childText[0] != null ? childText[0] : String.valueOf(steps.size());
+            String stepName = childText[1];
+            if (stepName == null || stepName.isEmpty()) {
+                stepName = ChannelXmlDecomposer.getStepTypeName(tagName);
+            }
+            steps.add(new String[] { seq, stepName, step.toString() });
+        }
+    }
+
+    /**
+     * Copies the element at the reader's position, and everything in it, to
+     * {@code out}. Its text content is also appended to {@code text} if not null.
+     */
+    private void copyElement(XmlWriter out, StringBuilder text) throws Exception {
+        out.startElement(reader);
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                out.startElement(reader);
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                out.endElement();
+                depth--;
+            } else {
+                copyNode(event, out, text);
+            }
+        }
+    }
+
+    private void copyNode(int event, XmlWriter out, StringBuilder text) throws Exception {
+        switch (event) {
+            case XMLStreamConstants.START_ELEMENT:
+                copyElement(out, text);
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.SPACE:
+                out.characters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                if (text != null) {
+                    text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                }
+                break;
+            case XMLStreamConstants.COMMENT:
+                out.comment(reader.getText());
+                break;
+            default:
+                throw new UnsupportedContentException("Unsupported XML event " + event);
+        }
+    }
+
+    /**
+     * Reads the text content of the element at the reader's position, as
+     * {@code Node.getTextContent()} would return it.
+     */
+    private String readTextContent() throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE) {
+                text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+            }
+        }
+        return text.toString();
+    }
+
+    private void skipElement() throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static String qualifiedName(XMLStreamReader reader) {
+        String prefix = reader.getPrefix();
+        return prefix == null || prefix.isEmpty() ? reader.getLocalName() : prefix + ":" + reader.getLocalName();
+    }
+
+    /** Components extracted from one connector, keyed once the group name is known. */
+    private static class Connector {
+        String name;
+        String metaDataId;
+        String script;
+        boolean pluginPropertiesSeen;
+        final List<String[]> plugins = new ArrayList<>();                  // type name, content
+        final List<String[]> filterSteps = new ArrayList<>();              // sequence, name, content
+        final List<String[]> transformerSteps = new ArrayList<>();
+        final List<String[]> responseTransformerSteps = new ArrayList<>();
+        String configuration;
+
+        String getGroupName() {
+            return "Destination [" + metaDataId + "]";
+        }
+
+        void putExtracted(Map<String, DecomposedComponent> components, String groupName) {
+            if (script != null) {
+                String compKey = groupName + "/Script";
+                components.put(compKey, new DecomposedComponent(compKey, "Script", script,
+                        DecomposedComponent.Category.CONNECTOR_SCRIPT, groupName));
+            }
+            for (String[] plugin : plugins) {
+                String compKey = groupName + "/Plugin: " + plugin[0];
+                components.put(compKey, new DecomposedComponent(compKey, "Plugin: " + plugin[0], plugin[1],
+                        DecomposedComponent.Category.CONNECTOR_PLUGIN, groupName));
+            }
+            putSteps(components, groupName + "/Filter", filterSteps, DecomposedComponent.Category.FILTER);
+            putSteps(components, groupName + "/Transformer", transformerSteps, DecomposedComponent.Category.TRANSFORMER);
+            putSteps(components, groupName + "/Response Transformer", responseTransformerSteps,
+                    DecomposedComponent.Category.RESPONSE_TRANSFORMER);
+        }
+
+        private static void putSteps(Map<String, DecomposedComponent> components, String subGroupKey,
+                List<String[]> steps, DecomposedComponent.Category category) {
+            for (String[] step : steps) {
+                String stepKey = subGroupKey + "/Step " + step[0];
+                components.put(stepKey, new DecomposedComponent(stepKey, "Step " + step[0] + ": " + step[1], step[2],
+                        category, subGroupKey));
+            }
+        }
+    }
+
+    /**
+     * Writes elements the way {@code MirthXmlUtil.prettyPrint} lays out a
+     * serialized node: whitespace-only text dropped, two space indentation,
+     * attributes sorted by name and text-only elements kept on one line.
+     */
+    private static class XmlWriter {
+        private static final String LINE_SEPARATOR = System.lineSeparator();
+
+        private final StringBuilder out = new StringBuilder();
+        // per open element: its name, and whether it has element/comment children
+        private final Deque<String> names = new ArrayDeque<>();
+        private final Deque<boolean[]> hasChildren = new ArrayDeque<>();
+        private final StringBuilder pendingText = new StringBuilder();
+        private boolean startTagOpen;
+
+        void startElement(XMLStreamReader reader) throws UnsupportedContentException {
+            if (reader.getNamespaceCount() > 0) {
+                throw new UnsupportedContentException("Namespace declarations are not supported");
+            }
+            String name = qualifiedName(reader);
+            startChild();
+            out.append('<').append(name);
+
+            int count = reader.getAttributeCount();
+            if (count == 1) {
+                appendAttribute(attributeName(reader, 0), reader.getAttributeValue(0));
+            } else if (count > 1) {
+                // the DOM keeps attributes sorted by name
+                Map<String, String> attributes = new TreeMap<>();
+                for (int i = 0; i < count; i++) {
+                    attributes.put(attributeName(reader, i), reader.getAttributeValue(i));
+                }
+                for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+                    appendAttribute(attribute.getKey(), attribute.getValue());
+                }
+            }
+
+            names.push(name);
+            hasChildren.push(new boolean[1]);
+            startTagOpen = true;
+        }
+
+        void characters(char[] text, int start, int length) {
+            pendingText.append(text, start, length);
+        }
+
+        void comment(String text) throws UnsupportedContentException {
+            startChild();
+            out.append("<!--").append(text).append("-->");
+        }
+
+        void endElement() throws UnsupportedContentException {
+            String name = names.pop();
+            boolean children = hasChildren.pop()[0];
+            flushText(children);
+            if (startTagOpen) {
+                out.append("/>");
+                startTagOpen = false;
+            } else if (children) {
+                newLine(names.size());
+                out.append("</").append(name).append('>');
+            } else {
+                out.append("</").append(name).append('>');
+            }
+        }
+
+        @Override
+        public String toString() {
+            return out.toString().trim();
+        }
+
+        private void startChild() throws UnsupportedContentException {
+            flushText(true);
+            closeStartTag();
+            if (!hasChildren.isEmpty()) {
+                hasChildren.peek()[0] = true;
+            }
+            if (out.length() > 0) {
+                newLine(names.size());
+            }
+        }
+
+        private void flushText(boolean hasElementChildren) throws UnsupportedContentException {
+            if (pendingText.length() == 0) {
+                return;
+            }
+            if (isWhitespace(pendingText)) {
+                pendingText.setLength(0);
+                return;
+            }
+            if (hasElementChildren) {
+                throw new UnsupportedContentException("Mixed content is not supported");
+            }
+            closeStartTag();
+            appendText(pendingText);
+            pendingText.setLength(0);
+        }
+
+        private void closeStartTag() {
+            if (startTagOpen) {
+                out.append('>');
+                startTagOpen = false;
+            }
+        }
+
+        private void newLine(int depth) {
+            out.append(LINE_SEPARATOR);
+            for (int i = 0; i < depth; i++) {
+                out.append("  ");
+            }
+        }
+
+        private static String attributeName(XMLStreamReader reader, int index) {
+            String prefix = reader.getAttributePrefix(index);
+            String localName = reader.getAttributeLocalName(index);
+            return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+        }
+
+        private void appendAttribute(String name, String value) {
+            out.append(' ').append(name).append("=\"");
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '&' -> out.append("&amp;");
+                    case '<' -> out.append("&lt;");
+                    case '>' -> out.append("&gt;");
+                    case '"' -> out.append("&quot;");
+                    case '\n' -> out.append("&#10;");
+                    case '\r' -> out.append("&#13;");
+                    case '\t' -> out.append("&#9;");
+                    default -> i = appendChar(value, i, false);
+                }
+            }
+            out.append('"');
+        }
+
+        private void appendText(CharSequence text) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '&' -> out.append("&amp;");
+                    case '<' -> out.append("&lt;");
+                    case '>' -> out.append("&gt;");
+                    case '\n' -> out.append(LINE_SEPARATOR);
+                    case '\r' -> out.append("&#13;");
+                    case '\t' -> out.append('\t');
+                    default -> i = appendChar(text, i, true);
+                }
+            }
+        }
+
+        /**
+         * Appends the character at {@code index}, returning the index of its last
+         * char. Surrogate pairs, and in text control characters, are written as
+         * character references.
+         */
+        private int appendChar(CharSequence text, int index, boolean escapeControls) {
+            char c = text.charAt(index);
+            if (escapeControls && (c <= 0x1F || (c >= 0x7F && c <= 0x9F))) {
+                out.append("&#").append((int) c).append(';');
+            } else if (Character.isHighSurrogate(c) && index + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(index + 1))) {
+                out.append("&#").append(Character.toCodePoint(c, text.charAt(index + 1))).append(';');
+                return index + 1;
+            } else {
+                out.append(c);
+            }
+            return index;
+        }
+
+        private static boolean isWhitespace(CharSequence text) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
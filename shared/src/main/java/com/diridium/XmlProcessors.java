@@ -0,0 +1,93 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathFactory;
+
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Reusable parsers, transformers and XPath compilers with secure processing
+ * enabled. Looking up the factories is expensive and the objects they create
+ * aren't thread-safe, so each thread keeps its own and they are reset before
+ * every use.
+ */
+final class XmlProcessors {
+
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER =
+            ThreadLocal.withInitial(XmlProcessors::createDocumentBuilder);
+    private static final ThreadLocal<Transformer> TRANSFORMER =
+            ThreadLocal.withInitial(XmlProcessors::createTransformer);
+    private static final ThreadLocal<XPath> XPATH =
+            ThreadLocal.withInitial(() -> XPathFactory.newInstance().newXPath());
+
+    private XmlProcessors() {
+    }
+
+    /**
+     * Returns this thread's document builder. Only use it until the next call on the same thread.
+     */
+    static DocumentBuilder documentBuilder() {
+        DocumentBuilder db = DOCUMENT_BUILDER.get();
+        db.reset();
+        db.setErrorHandler(new DefaultHandler());
+        return db;
+    }
+
+    /**
+     * Returns this thread's identity transformer, writing without an XML declaration.
+     */
+    static Transformer transformer() {
+        Transformer transformer = TRANSFORMER.get();
+        transformer.reset();
+        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+        return transformer;
+    }
+
+    /**
+     * Compiles a fixed expression. Compiled expressions aren't thread-safe either,
+     * so keep them in a {@link ThreadLocal}.
+     */
+    static XPathExpression compile(String expression) {
+        try {
+            return XPATH.get().compile(expression);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static DocumentBuilder createDocumentBuilder() {
+        try {
+            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+            dbf.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            dbf.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            dbf.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+            dbf.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            dbf.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+            return dbf.newDocumentBuilder();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Transformer createTransformer() {
+        try {
+            TransformerFactory tf = TransformerFactory.newInstance();
+            tf.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            tf.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+            tf.setAttribute(XMLConstants.ACCESS_EXTERNAL_STYLESHEET, "");
+            return tf.newTransformer();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,412 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Generates channel XML laid out like a Mirth export, at any size, and chains
+ * of revisions of it, for tests and benchmarks that need more than the two
+ * fixture channels. The output only depends on the seed and the options, so a
+ * fixture can be regenerated instead of checked in.
+ *
+ * <p>Each revision changes scripts, steps and plugin properties of the previous
+ * one with probability {@link #mutationRate(double)}, and may swap two steps or rename
+ * a destination the same way.
+ */
+public final class ChannelFixtureGenerator {
+
+    private static final String VERSION = "4.5.2";
+    private static final String JAVASCRIPT_STEP = "com.mirth.connect.plugins.javascriptstep.JavaScriptStep";
+    private static final String JAVASCRIPT_RULE = "com.mirth.connect.plugins.javascriptrule.JavaScriptRule";
+    private static final String[] PLUGIN_TYPES = {
+            "com.mirth.connect.plugins.httpauth.NoneHttpAuthProperties",
+            "com.mirth.connect.plugins.ssl.model.SSLSettingsProperties",
+            "com.mirth.connect.plugins.serverlog.ServerLogProperties",
+            "com.mirth.connect.plugins.datapruner.DataPrunerProperties" };
+    private static final String[] SEGMENTS = { "MSH", "PID", "PV1", "OBR", "OBX", "ORC", "NK1", "IN1" };
+
+    private final Random random;
+    private int destinations = 2;
+    private int stepsPerTransformer = 3;
+    private int rulesPerFilter = 1;
+    private int scriptLines = 8;
+    private int pluginProperties = 1;
+    private double mutationRate = 0.05;
+
+    private String channelId;
+    private Connector source;
+    private final List<Connector> destinationConnectors = new ArrayList<>();
+    private int revision;
+
+    public ChannelFixtureGenerator(long seed) {
+        random = new Random(seed);
+    }
+
+    public ChannelFixtureGenerator destinations(int destinations) {
+        this.destinations = destinations;
+        return this;
+    }
+
+    public ChannelFixtureGenerator stepsPerTransformer(int stepsPerTransformer) {
+        this.stepsPerTransformer = stepsPerTransformer;
+        return this;
+    }
+
+    public ChannelFixtureGenerator rulesPerFilter(int rulesPerFilter) {
+        this.rulesPerFilter = rulesPerFilter;
+        return this;
+    }
+
+    /**
+     * Lines in each step, rule and connector script.
+     */
+    public ChannelFixtureGenerator scriptLines(int scriptLines) {
+        this.scriptLines = scriptLines;
+        return this;
+    }
+
+    /**
+     * Plugin property elements on each connector, at most one per known plugin type.
+     */
+    public ChannelFixtureGenerator pluginProperties(int pluginProperties) {
+        this.pluginProperties = Math.min(pluginProperties, PLUGIN_TYPES.length);
+        return this;
+    }
+
+    /**
+     * Chance, from 0 to 1, that a revision changes any single script, step or property.
+     */
+    public ChannelFixtureGenerator mutationRate(double mutationRate) {
+        this.mutationRate = mutationRate;
+        return this;
+    }
+
+    public String getChannelId() {
+        ensureChannel();
+        return channelId;
+    }
+
+    /**
+     * The first revision of the channel.
+     */
+    public String channel() {
+        return revisions(1).get(0);
+    }
+
+    /**
+     * Consecutive revisions of the channel starting after the last one generated,
+     * or at the first revision.
+     */
+    public List<String> revisions(int count) {
+        List<String> revisions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (revision == 0) {
+                ensureChannel();
+            } else {
+                mutate();
+            }
+            revision++;
+            revisions.add(render());
+        }
+        return revisions;
+    }
+
+    // ========== Model ==========
+
+    private static final class Step {
+        final String type;
+        String name;
+        final List<String> lines;
+
+        Step(String type, String name, List<String> lines) {
+            this.type = type;
+            this.name = name;
+            this.lines = lines;
+        }
+    }
+
+    private static final class Connector {
+        final int metaDataId;
+        String name;
+        final List<String> script;
+        final List<Step> filter = new ArrayList<>();
+        final List<Step> transformer = new ArrayList<>();
+        final List<Step> responseTransformer = new ArrayList<>();
+        final Map<String, Map<String, String>> plugins = new LinkedHashMap<>();
+
+        Connector(int metaDataId, String name, List<String> script) {
+            this.metaDataId = metaDataId;
+            this.name = name;
+            this.script = script;
+        }
+    }
+
+    private void ensureChannel() {
+        if (channelId != null) {
+            return;
+        }
+        channelId = new UUID(random.nextLong(), random.nextLong()).toString();
+        source = createConnector(0, "sourceConnector", false);
+        for (int i = 1; i <= destinations; i++) {
+            destinationConnectors.add(createConnector(i, "Destination " + i, true));
+        }
+    }
+
+    private Connector createConnector(int metaDataId, String name, boolean destination) {
+        Connector connector = new Connector(metaDataId, name, destination ? script() : null);
+        for (int i = 0; i < rulesPerFilter; i++) {
+            connector.filter.add(new Step(JAVASCRIPT_RULE, "Accept " + segment(), script()));
+        }
+        for (int i = 0; i < stepsPerTransformer; i++) {
+            connector.transformer.add(new Step(JAVASCRIPT_STEP, "Map " + segment() + " " + i, script()));
+        }
+        if (destination) {
+            connector.responseTransformer.add(new Step(JAVASCRIPT_STEP, "Check response", script()));
+        }
+        for (int i = 0; i < pluginProperties; i++) {
+            Map<String, String> properties = new LinkedHashMap<>();
+            properties.put("enabled", String.valueOf(random.nextBoolean()));
+            properties.put("timeout", String.valueOf(1000 * (1 + random.nextInt(60))));
+            properties.put("name", segment() + "-" + random.nextInt(1000));
+            connector.plugins.put(PLUGIN_TYPES[i], properties);
+        }
+        return connector;
+    }
+
+    private List<String> script() {
+        List<String> lines = new ArrayList<>(scriptLines);
+        for (int i = 0; i < scriptLines; i++) {
+            lines.add(scriptLine());
+        }
+        return lines;
+    }
+
+    private String scriptLine() {
+        String segment = segment();
+        int field = 1 + random.nextInt(20);
+        String variable = segment.toLowerCase(Locale.ROOT) + field;
+        return switch (random.nextInt(5)) {
+            case 0 -> "var " + variable + " = msg['" + segment + "']['" + segment + "." + field + "']['"
+                    + segment + "." + field + ".1'].toString();";
+            case 1 -> "channelMap.put('" + variable + "', msg['" + segment + "']['" + segment + "." + field + "'].toString());";
+            case 2 -> "if (msg['" + segment + "']['" + segment + "." + field + "'].toString() == \"\") { return false; }";
+            case 3 -> "logger.debug('" + segment + " field " + field + " is ' + $('" + variable + "'));";
+            default -> "tmp['" + segment + "']['" + segment + "." + field + "'] = $('" + variable + "').trim();";
+        };
+    }
+
+    private String segment() {
+        return SEGMENTS[random.nextInt(SEGMENTS.length)];
+    }
+
+    // ========== Mutation ==========
+
+    private void mutate() {
+        mutate(source);
+        for (Connector connector : destinationConnectors) {
+            if (random.nextDouble() < mutationRate) {
+                connector.name = "Destination " + connector.metaDataId + " " + segment();
+            }
+            mutate(connector);
+        }
+    }
+
+    private void mutate(Connector connector) {
+        if (connector.script != null) {
+            mutateScript(connector.script);
+        }
+        mutateSteps(connector.filter);
+        mutateSteps(connector.transformer);
+        mutateSteps(connector.responseTransformer);
+        for (Map<String, String> properties : connector.plugins.values()) {
+            if (random.nextDouble() < mutationRate) {
+                properties.put("timeout", String.valueOf(1000 * (1 + random.nextInt(60))));
+            }
+        }
+    }
+
+    private void mutateSteps(List<Step> steps) {
+        for (Step step : steps) {
+            mutateScript(step.lines);
+        }
+        if (steps.size() > 1 && random.nextDouble() < mutationRate) {
+            Collections.swap(steps, random.nextInt(steps.size() - 1), steps.size() - 1);
+        }
+    }
+
+    /**
+     * Replaces, inserts or removes one line.
+     */
+    private void mutateScript(List<String> lines) {
+        if (random.nextDouble() >= mutationRate) {
+            return;
+        }
+        int index = random.nextInt(lines.size() + 1);
+        int operation = random.nextInt(3);
+        if (operation == 0 || lines.isEmpty()) {
+            lines.add(index, scriptLine());
+        } else if (operation == 1 && lines.size() > 1) {
+            lines.remove(Math.min(index, lines.size() - 1));
+        } else {
+            lines.set(Math.min(index, lines.size() - 1), scriptLine());
+        }
+    }
+
+    // ========== Rendering ==========
+
+    private String render() {
+        StringBuilder sb = new StringBuilder(4096 + destinations * 4096);
+        sb.append("<channel version=\"").append(VERSION).append("\">\n");
+        text(sb, 1, "id", channelId);
+        text(sb, 1, "nextMetaDataId", String.valueOf(destinations + 1));
+        text(sb, 1, "name", "Generated " + channelId.substring(0, 8));
+        text(sb, 1, "description", "Generated with " + destinations + " destinations");
+        text(sb, 1, "revision", String.valueOf(revision));
+
+        renderConnector(sb, "sourceConnector", source, false);
+        indent(sb, 1).append("<destinationConnectors>\n");
+        for (Connector connector : destinationConnectors) {
+            renderConnector(sb, "connector", connector, true);
+        }
+        indent(sb, 1).append("</destinationConnectors>\n");
+
+        text(sb, 1, "preprocessingScript", "// Modify the message variable below to pre process data\nreturn message;");
+        text(sb, 1, "postprocessingScript", "// This script executes once after a message has been processed\nreturn;");
+        text(sb, 1, "deployScript", "// This script executes once when the channel is deployed\nreturn;");
+        text(sb, 1, "undeployScript", "// This script executes once when the channel is undeployed\nreturn;");
+
+        indent(sb, 1).append("<properties version=\"").append(VERSION).append("\">\n");
+        text(sb, 2, "clearGlobalChannelMap", "true");
+        text(sb, 2, "messageStorageMode", "DEVELOPMENT");
+        text(sb, 2, "encryptData", "false");
+        text(sb, 2, "initialState", "STARTED");
+        text(sb, 2, "storeAttachments", "true");
+        indent(sb, 2).append("<metaDataColumns>\n");
+        indent(sb, 3).append("<metaDataColumn>\n");
+        text(sb, 4, "name", "SOURCE");
+        text(sb, 4, "type", "STRING");
+        text(sb, 4, "mappingName", "mirth_source");
+        indent(sb, 3).append("</metaDataColumn>\n");
+        indent(sb, 2).append("</metaDataColumns>\n");
+        indent(sb, 1).append("</properties>\n");
+
+        indent(sb, 1).append("<exportData>\n");
+        indent(sb, 2).append("<metadata>\n");
+        text(sb, 3, "enabled", "true");
+        indent(sb, 3).append("<lastModified>\n");
+        text(sb, 4, "time", String.valueOf(1_700_000_000_000L + revision * 60_000L));
+        text(sb, 4, "timezone", "UTC");
+        indent(sb, 3).append("</lastModified>\n");
+        indent(sb, 2).append("</metadata>\n");
+        indent(sb, 1).append("</exportData>\n");
+        sb.append("</channel>");
+        return sb.toString();
+    }
+
+    private void renderConnector(StringBuilder sb, String element, Connector connector, boolean destination) {
+        indent(sb, 1).append('<').append(element).append(" version=\"").append(VERSION).append("\">\n");
+        text(sb, 2, "metaDataId", String.valueOf(connector.metaDataId));
+        text(sb, 2, "name", connector.name);
+
+        String propertiesClass = destination
+                ? "com.mirth.connect.connectors.js.JavaScriptDispatcherProperties"
+                : "com.mirth.connect.connectors.vm.VmReceiverProperties";
+        indent(sb, 2).append("<properties class=\"").append(propertiesClass)
+                .append("\" version=\"").append(VERSION).append("\">\n");
+        if (connector.plugins.isEmpty()) {
+            indent(sb, 3).append("<pluginProperties/>\n");
+        } else {
+            indent(sb, 3).append("<pluginProperties>\n");
+            for (Map.Entry<String, Map<String, String>> plugin : connector.plugins.entrySet()) {
+                indent(sb, 4).append('<').append(plugin.getKey()).append(" version=\"").append(VERSION).append("\">\n");
+                for (Map.Entry<String, String> property : plugin.getValue().entrySet()) {
+                    text(sb, 5, property.getKey(), property.getValue());
+                }
+                indent(sb, 4).append("</").append(plugin.getKey()).append(">\n");
+            }
+            indent(sb, 3).append("</pluginProperties>\n");
+        }
+        if (destination) {
+            indent(sb, 3).append("<destinationConnectorProperties version=\"").append(VERSION).append("\">\n");
+            text(sb, 4, "queueEnabled", "false");
+            text(sb, 4, "retryIntervalMillis", "10000");
+            text(sb, 4, "threadCount", "1");
+            indent(sb, 3).append("</destinationConnectorProperties>\n");
+            text(sb, 3, "script", String.join("\n", connector.script));
+        } else {
+            indent(sb, 3).append("<sourceConnectorProperties version=\"").append(VERSION).append("\">\n");
+            text(sb, 4, "responseVariable", "None");
+            text(sb, 4, "processingThreads", "1");
+            text(sb, 4, "queueBufferSize", "1000");
+            indent(sb, 3).append("</sourceConnectorProperties>\n");
+        }
+        indent(sb, 2).append("</properties>\n");
+
+        renderSteps(sb, "transformer", connector.transformer);
+        if (destination) {
+            renderSteps(sb, "responseTransformer", connector.responseTransformer);
+        }
+        renderSteps(sb, "filter", connector.filter);
+
+        text(sb, 2, "transportName", destination ? "JavaScript Writer" : "Channel Reader");
+        text(sb, 2, "mode", destination ? "DESTINATION" : "SOURCE");
+        text(sb, 2, "enabled", "true");
+        text(sb, 2, "waitForPrevious", "true");
+        indent(sb, 1).append("</").append(element).append(">\n");
+    }
+
+    private void renderSteps(StringBuilder sb, String element, List<Step> steps) {
+        indent(sb, 2).append('<').append(element).append(" version=\"").append(VERSION).append("\">\n");
+        if (steps.isEmpty()) {
+            indent(sb, 3).append("<elements/>\n");
+        } else {
+            indent(sb, 3).append("<elements>\n");
+            for (int i = 0; i < steps.size(); i++) {
+                Step step = steps.get(i);
+                indent(sb, 4).append('<').append(step.type).append(" version=\"").append(VERSION).append("\">\n");
+                text(sb, 5, "name", step.name);
+                text(sb, 5, "sequenceNumber", String.valueOf(i));
+                text(sb, 5, "enabled", "true");
+                text(sb, 5, "script", String.join("\n", step.lines));
+                indent(sb, 4).append("</").append(step.type).append(">\n");
+            }
+            indent(sb, 3).append("</elements>\n");
+        }
+        if (!element.equals("filter")) {
+            text(sb, 3, "inboundDataType", "HL7V2");
+            text(sb, 3, "outboundDataType", "HL7V2");
+        }
+        indent(sb, 2).append("</").append(element).append(">\n");
+    }
+
+    private static void text(StringBuilder sb, int depth, String element, String value) {
+        indent(sb, depth).append('<').append(element).append('>');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> sb.append("&amp;");
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                case '"' -> sb.append("&quot;");
+                default -> sb.append(c);
+            }
+        }
+        sb.append("</").append(element).append(">\n");
+    }
+
+    private static StringBuilder indent(StringBuilder sb, int depth) {
+        for (int i = 0; i < depth; i++) {
+            sb.append("  ");
+        }
+        return sb;
+    }
+}
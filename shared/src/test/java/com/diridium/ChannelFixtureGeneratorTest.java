@@ -0,0 +1,65 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ChannelFixtureGeneratorTest {
+
+    @Test
+    public void testGeneratedChannelDecomposes() throws Exception {
+        String xml = new ChannelFixtureGenerator(1).destinations(12).stepsPerTransformer(4).rulesPerFilter(2)
+                .scriptLines(10).pluginProperties(2).channel();
+
+        ChannelXmlDecomposer.DecomposeResult result = ChannelXmlDecomposer.decomposeWithNames(xml);
+        Map<String, DecomposedComponent> components = result.getComponents();
+
+        assertEquals("Destination: Destination 12 [12]", result.getGroupDisplayNames().get("Destination [12]"));
+        assertEquals(10, components.get("Destination [12]/Script").getContent().split("\n").length);
+        assertNotNull(components.get("Destination [12]/Transformer/Step 3"));
+        assertNull(components.get("Destination [12]/Transformer/Step 4"));
+        assertNotNull(components.get("Destination [12]/Filter/Step 1"));
+        assertNotNull(components.get("Destination [12]/Response Transformer/Step 0"));
+        assertNotNull(components.get("Source Connector/Transformer/Step 3"));
+        assertNotNull(components.get("Source Connector/Plugin: SSLSettingsProperties"));
+        assertNotNull(components.get("Channel Scripts/Deploy Script"));
+    }
+
+    @Test
+    public void testSameSeedGeneratesSameRevisions() {
+        List<String> first = new ChannelFixtureGenerator(7).destinations(3).revisions(5);
+        List<String> second = new ChannelFixtureGenerator(7).destinations(3).revisions(5);
+
+        assertEquals(first, second);
+        assertNotEquals(first.get(0), new ChannelFixtureGenerator(8).destinations(3).channel());
+    }
+
+    @Test
+    public void testMutationRateControlsChangesBetweenRevisions() throws Exception {
+        // only the revision and last modified time in the channel properties change
+        assertEquals(1, countChanged(new ChannelFixtureGenerator(3).destinations(5).mutationRate(0).revisions(2)));
+
+        int changed = countChanged(new ChannelFixtureGenerator(3).destinations(20).mutationRate(0.2).revisions(2));
+        assertTrue("changed " + changed, changed > 1);
+        assertTrue("changed " + changed, changed < 100);
+    }
+
+    private static int countChanged(List<String> revisions) throws Exception {
+        Map<String, DecomposedComponent> before = ChannelXmlDecomposer.decompose(revisions.get(0));
+        Map<String, DecomposedComponent> after = ChannelXmlDecomposer.decompose(revisions.get(1));
+        int changed = 0;
+        for (DecomposedComponent component : before.values()) {
+            DecomposedComponent other = after.get(component.getKey());
+            if (other == null || !component.hasSameContent(other)) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+}
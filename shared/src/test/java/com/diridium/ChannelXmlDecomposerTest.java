@@ -7,7 +7,13 @@ import static org.junit.Assert.*;
 
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Test;
 
@@ -479,4 +485,54 @@ public class ChannelXmlDecomposerTest {
         assertNotNull(result.getComponents().get("Destination [1]/Script"));
         assertNotNull(result.getComponents().get("Destination [2]/Configuration"));
     }
+
+    private static List<String> contents(Map<String, DecomposedComponent> components) {
+        List<String> contents = new ArrayList<>();
+        for (DecomposedComponent component : components.values()) {
+            contents.add(component.getKey() + "=" + component.getContent());
+        }
+        return contents;
+    }
+
+    @Test
+    public void testDomDecomposerIsSafeAcrossThreads() throws Exception {
+        String xml = loadResource("channel-for-diffing-version2.xml");
+        List<String> expected = contents(ChannelXmlDecomposer.decomposeWithDom(xml, null));
+
+        // each thread reuses its own parser, transformer and compiled expressions
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(() -> contents(ChannelXmlDecomposer.decomposeWithDom(xml, null))));
+            }
+            for (Future<List<String>> result : results) {
+                assertEquals(expected, result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testParallelDestinationsMatchSequential() throws Exception {
+        String xml = loadResource("channel-for-diffing-version2.xml");
+        int start = xml.indexOf("<connector version");
+        int end = xml.lastIndexOf("</connector>") + "</connector>".length();
+        String connector = xml.substring(start, end);
+        StringBuilder destinations = new StringBuilder();
+        for (int i = 0; i < ChannelXmlDecomposer.PARALLEL_DESTINATION_THRESHOLD * 2; i++) {
+            destinations.append(connector.replace("<metaDataId>", "<metaDataId>" + i).replace("<name>", "<name>d" + i));
+        }
+        String manyDestinations = xml.substring(0, start) + destinations + xml.substring(end);
+
+        Map<String, String> sequentialNames = new LinkedHashMap<>();
+        Map<String, String> parallelNames = new LinkedHashMap<>();
+        List<String> sequential = contents(ChannelXmlDecomposer.decomposeWithDom(manyDestinations, sequentialNames, false));
+        List<String> parallel = contents(ChannelXmlDecomposer.decomposeWithDom(manyDestinations, parallelNames, true));
+
+        assertEquals(sequential, parallel);
+        assertEquals(new ArrayList<>(sequentialNames.entrySet()), new ArrayList<>(parallelNames.entrySet()));
+        assertTrue(sequentialNames.size() >= ChannelXmlDecomposer.PARALLEL_DESTINATION_THRESHOLD);
+    }
 }
@@ -0,0 +1,84 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class CodeTemplateXmlDecomposerTest {
+
+    private static String template(String revision, String code, String contextTypes) {
+        return "<codeTemplate version=\"4.5.0\">"
+                + "<id>0f4c1b2e-0000-4000-8000-000000000001</id>"
+                + "<name>Format Date</name>"
+                + "<revision>" + revision + "</revision>"
+                + "<lastModified><time>1700000000000</time><timezone>UTC</timezone></lastModified>"
+                + "<contextSet><delegate>" + contextTypes + "</delegate></contextSet>"
+                + "<properties class=\"com.mirth.connect.model.codetemplates.BasicCodeTemplateProperties\">"
+                + "<type>FUNCTION</type><code>" + code + "</code></properties>"
+                + "</codeTemplate>";
+    }
+
+    @Test
+    public void testSplitsCodePropertiesContextAndMetadata() throws Exception {
+        String xml = template("3", "function f(a, b) {\n  return a &lt; b &amp;&amp; b &gt; 0;\n}",
+                "<contextType>SOURCE_RECEIVER</contextType><contextType>GLOBAL_DEPLOY</contextType>");
+
+        ChannelXmlDecomposer.DecomposeResult result = CodeTemplateXmlDecomposer.decomposeWithNames(xml);
+        Map<String, DecomposedComponent> components = result.getComponents();
+
+        assertEquals(Arrays.asList(CodeTemplateXmlDecomposer.CODE_KEY, CodeTemplateXmlDecomposer.PROPERTIES_KEY,
+                CodeTemplateXmlDecomposer.CONTEXT_SET_KEY, CodeTemplateXmlDecomposer.METADATA_KEY),
+                new ArrayList<>(components.keySet()));
+        assertEquals("Code Template: Format Date", result.getGroupDisplayNames().get(CodeTemplateXmlDecomposer.GROUP));
+
+        DecomposedComponent code = components.get(CodeTemplateXmlDecomposer.CODE_KEY);
+        assertEquals("function f(a, b) {\n  return a < b && b > 0;\n}", code.getContent());
+        assertEquals(DecomposedComponent.Category.CODE_TEMPLATE_CODE, code.getCategory());
+
+        String properties = components.get(CodeTemplateXmlDecomposer.PROPERTIES_KEY).getContent();
+        assertTrue(properties.contains("<type>FUNCTION</type>"));
+        assertFalse(properties.contains("<code>"));
+
+        assertEquals("GLOBAL_DEPLOY\nSOURCE_RECEIVER",
+                components.get(CodeTemplateXmlDecomposer.CONTEXT_SET_KEY).getContent());
+
+        String metadata = components.get(CodeTemplateXmlDecomposer.METADATA_KEY).getContent();
+        assertTrue(metadata.contains("<name>Format Date</name>"));
+        assertFalse(metadata.contains("contextSet"));
+        assertFalse(metadata.contains("properties"));
+    }
+
+    @Test
+    public void testOnlyChangedPartsDiffer() throws Exception {
+        Map<String, DecomposedComponent> older = CodeTemplateXmlDecomposer.decompose(
+                template("1", "return 1;", "<contextType>GLOBAL_DEPLOY</contextType><contextType>SOURCE_RECEIVER</contextType>"));
+        Map<String, DecomposedComponent> newer = CodeTemplateXmlDecomposer.decompose(
+                template("1", "return 2;", "<contextType>SOURCE_RECEIVER</contextType><contextType>GLOBAL_DEPLOY</contextType>"));
+
+        // context types reordered by the hash set are not a change
+        for (String key : older.keySet()) {
+            boolean same = older.get(key).getContent().equals(newer.get(key).getContent());
+            assertEquals(key, !key.equals(CodeTemplateXmlDecomposer.CODE_KEY), same);
+        }
+    }
+
+    @Test
+    public void testLegacyTopLevelCode() throws Exception {
+        Map<String, DecomposedComponent> components = CodeTemplateXmlDecomposer.decompose(
+                "<codeTemplate><id>1</id><name>Old</name><tooltip>t</tooltip><code>var x = 1;</code><type>FUNCTION</type></codeTemplate>");
+
+        assertEquals("var x = 1;", components.get(CodeTemplateXmlDecomposer.CODE_KEY).getContent());
+        assertNull(components.get(CodeTemplateXmlDecomposer.PROPERTIES_KEY));
+        assertNull(components.get(CodeTemplateXmlDecomposer.CONTEXT_SET_KEY));
+        String metadata = components.get(CodeTemplateXmlDecomposer.METADATA_KEY).getContent();
+        assertTrue(metadata.contains("<tooltip>t</tooltip>"));
+        assertFalse(metadata.contains("<code>"));
+    }
+}
@@ -0,0 +1,77 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ContentFramesTest {
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        // longer than a chunk, written a byte at a time and in one go
+        char[] chars = new char[20000];
+        Arrays.fill(chars, 'é');
+        String large = new String(chars);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ContentFrames.Writer frames = new ContentFrames.Writer(out);
+        frames.write("3", content -> {
+            for (byte b : large.getBytes(StandardCharsets.UTF_8)) {
+                content.write(b);
+            }
+            return true;
+        });
+        frames.write("1", content -> {
+            content.write("<channel/>".getBytes(StandardCharsets.UTF_8));
+            return true;
+        });
+        frames.write("2", content -> true);
+        frames.finish();
+
+        Map<String, String> contents = ContentFrames.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(List.of("3", "1", "2"), new ArrayList<>(contents.keySet()));
+        assertEquals(large, contents.get("3"));
+        assertEquals("<channel/>", contents.get("1"));
+        assertEquals("", contents.get("2"));
+    }
+
+    @Test
+    public void testMissingRevisionIsLeftOut() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ContentFrames.Writer frames = new ContentFrames.Writer(out);
+        frames.write("1", content -> false);
+        frames.finish();
+
+        assertTrue(ContentFrames.read(new ByteArrayInputStream(out.toByteArray())).isEmpty());
+    }
+
+    @Test
+    public void testTruncatedBodyFails() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ContentFrames.Writer frames = new ContentFrames.Writer(out);
+        frames.write("1", content -> {
+            content.write("<channel/>".getBytes(StandardCharsets.UTF_8));
+            return true;
+        });
+        // the server failed before finishing the body
+
+        try {
+            ContentFrames.read(new ByteArrayInputStream(out.toByteArray()));
+            fail("read a truncated body");
+        } catch (EOFException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,51 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class DecomposedComponentTest {
+
+    private static DecomposedComponent component(String content) {
+        return new DecomposedComponent("key", "name", content,
+                DecomposedComponent.Category.FILTER, "Source/Filter");
+    }
+
+    @Test
+    public void testHasSameContent() {
+        assertTrue(component("<rule>a</rule>").hasSameContent(component(new String("<rule>a</rule>"))));
+        assertFalse(component("<rule>a</rule>").hasSameContent(component("<rule>b</rule>")));
+        assertTrue(component(null).hasSameContent(component(null)));
+        assertFalse(component(null).hasSameContent(component("")));
+        assertFalse(component("").hasSameContent(component(null)));
+    }
+
+    @Test
+    public void testHashIsStableAndCached() {
+        DecomposedComponent component = component("<rule>a</rule>");
+        long hash = component.getContentHash();
+
+        assertNotEquals(0, hash);
+        assertEquals(hash, component.getContentHash());
+        assertEquals(hash, component("<rule>a</rule>").getContentHash());
+        assertNotEquals(hash, component("<rule>b</rule>").getContentHash());
+    }
+
+    @Test
+    public void testNormalizedHashIgnoresPosition() {
+        DecomposedComponent first = component("<rule>\n  <sequenceNumber>0</sequenceNumber>\n"
+                + "  <operator>NONE</operator>\n  <name>a</name>\n</rule>");
+        DecomposedComponent moved = component("<rule>\n    <sequenceNumber>3</sequenceNumber>\n"
+                + "    <operator>AND</operator>\n    <name>a</name>\n</rule>");
+        DecomposedComponent changed = component("<rule>\n  <sequenceNumber>0</sequenceNumber>\n"
+                + "  <operator>NONE</operator>\n  <name>b</name>\n</rule>");
+
+        assertFalse(first.hasSameContent(moved));
+        assertEquals(first.getNormalizedHash(), moved.getNormalizedHash());
+        assertNotEquals(first.getNormalizedHash(), changed.getNormalizedHash());
+        assertEquals("<rule> <name>a</name> </rule>", DecomposedComponent.normalizePositionalFields(moved.getContent()));
+    }
+}
@@ -0,0 +1,84 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import static org.junit.Assert.*;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class LineDeltaTest {
+
+    private static String loadResource(String name) throws Exception {
+        try (InputStream is = LineDeltaTest.class.getClassLoader().getResourceAsStream(name)) {
+            assertNotNull("Resource not found: " + name, is);
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void assertRoundTrip(String base, String target) {
+        String delta = LineDelta.encode(base, target);
+        assertTrue(LineDelta.isDelta(delta));
+        assertEquals(target, LineDelta.apply(base, delta));
+    }
+
+    @Test
+    public void testRoundTripChannelRevisions() throws Exception {
+        String v1 = loadResource("channel-for-diffing-version1.xml");
+        String v2 = loadResource("channel-for-diffing-version2.xml");
+
+        assertRoundTrip(v2, v1);
+        assertRoundTrip(v1, v2);
+    }
+
+    @Test
+    public void testSmallEditProducesSmallDelta() throws Exception {
+        String v1 = loadResource("channel-for-diffing-version1.xml");
+        String edited = v1.replaceFirst("<revision>\\d+</revision>", "<revision>99</revision>");
+        assertNotEquals(v1, edited);
+
+        String delta = LineDelta.encode(edited, v1);
+        assertEquals(v1, LineDelta.apply(edited, delta));
+        assertTrue("delta should be much smaller than the full revision", delta.length() < v1.length() / 20);
+    }
+
+    @Test
+    public void testRoundTripIdenticalContent() throws Exception {
+        String v1 = loadResource("channel-for-diffing-version1.xml");
+        assertRoundTrip(v1, v1);
+    }
+
+    @Test
+    public void testPreservesLineEndings() {
+        assertRoundTrip("a\r\nb\r\nc\r\n", "a\r\nB\r\nc\r\n");
+        assertRoundTrip("a\nb\nc", "a\nb\nc\n");
+        assertRoundTrip("a\nb\nc\n", "a\nb\nc");
+    }
+
+    @Test
+    public void testEmptyContent() {
+        assertRoundTrip("", "one\ntwo");
+        assertRoundTrip("one\ntwo", "");
+        assertRoundTrip("", "");
+    }
+
+    @Test
+    public void testInsertedLinesLookingLikeOperations() {
+        assertRoundTrip("a\nb", "a\n+3\n=1\n#delta:1:2\nb");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testApplyToWrongBaseFails() {
+        String delta = LineDelta.encode("a\nb\nc", "a\nc");
+        LineDelta.apply("a\nb", delta);
+    }
+
+    @Test
+    public void testPlainXmlIsNotDelta() {
+        assertFalse(LineDelta.isDelta("<channel version=\"4.5.2\">"));
+        assertFalse(LineDelta.isDelta(null));
+    }
+}
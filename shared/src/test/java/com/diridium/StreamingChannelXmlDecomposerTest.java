@@ -0,0 +1,93 @@
+// SPDX-FileCopyrightText: Copyright 2025-2026 Diridium Technologies Inc.
+// SPDX-License-Identifier: MPL-2.0
+
+package com.diridium;
+
+import static org.junit.Assert.*;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class StreamingChannelXmlDecomposerTest {
+
+    private String loadResource(String name) throws Exception {
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream(name)) {
+            assertNotNull("Resource not found: " + name, is);
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /** Asserts the streaming decomposer produces exactly what the DOM decomposer does. */
+    private void assertEquivalent(String xml) throws Exception {
+        Map<String, String> domNames = new LinkedHashMap<>();
+        Map<String, String> streamedNames = new LinkedHashMap<>();
+        Map<String, DecomposedComponent> dom = ChannelXmlDecomposer.decomposeWithDom(xml, domNames);
+        Map<String, DecomposedComponent> streamed = StreamingChannelXmlDecomposer.decompose(xml, streamedNames);
+
+        assertEquals(new ArrayList<>(dom.keySet()), new ArrayList<>(streamed.keySet()));
+        assertEquals(new ArrayList<>(domNames.entrySet()), new ArrayList<>(streamedNames.entrySet()));
+        for (DecomposedComponent expected : dom.values()) {
+            DecomposedComponent actual = streamed.get(expected.getKey());
+            assertEquals(expected.getKey(), expected.getDisplayName(), actual.getDisplayName());
+            assertEquals(expected.getKey(), expected.getCategory(), actual.getCategory());
+            assertEquals(expected.getKey(), expected.getParentGroup(), actual.getParentGroup());
+            assertEquals(expected.getKey(), expected.getContent(), actual.getContent());
+        }
+    }
+
+    @Test
+    public void testFixturesMatchDomDecomposer() throws Exception {
+        assertEquivalent(loadResource("channel-for-diffing-version1.xml"));
+        assertEquivalent(loadResource("channel-for-diffing-version2.xml"));
+    }
+
+    @Test
+    public void testGeneratedChannelMatchesDomDecomposer() throws Exception {
+        assertEquivalent(new ChannelFixtureGenerator(11).destinations(15).pluginProperties(4).channel());
+    }
+
+    @Test
+    public void testEscapingMatchesDomDecomposer() throws Exception {
+        assertEquivalent("<channel version=\"1\" z=\"a&amp;b&lt;&gt;&quot;'\" b=\"x&#10;y&#13;&#9;t &#133;\">"
+                + "<id>a &amp; b &lt; c &gt; d \" &#13; \t &#127; &#133; é 😀 line1\nline2</id>"
+                + "<empty>   </empty><padded>  text  </padded>"
+                + "<deployScript><![CDATA[if (a < b) {}]]></deployScript>"
+                + "<!-- comment --></channel>");
+    }
+
+    @Test
+    public void testEdgeCasesMatchDomDecomposer() throws Exception {
+        // duplicate and unnamed steps, scripts in a second properties element, extra wrappers
+        assertEquivalent("<channel><sourceConnector><properties><pluginProperties><com.a.B><x>1</x></com.a.B><C/>"
+                + "</pluginProperties><script>s1</script></properties><properties><script>s2</script></properties>"
+                + "<filter><elements><com.x.Rule><sequenceNumber>0</sequenceNumber><name></name></com.x.Rule>"
+                + "<com.x.Rule2><name>n</name></com.x.Rule2></elements></filter><filter><elements><z/></elements></filter>"
+                + "<responseTransformer><elements><r/></elements></responseTransformer></sourceConnector>"
+                + "<destinationConnectors><junk>1</junk><connector version=\"2\"><properties><script>d</script></properties>"
+                + "<metaDataId>1</metaDataId><name>D1</name><responseTransformer><elements><s><sequenceNumber>3</sequenceNumber>"
+                + "</s></elements></responseTransformer></connector><connector/></destinationConnectors>"
+                + "<destinationConnectors><connector><metaDataId>9</metaDataId></connector><other>o</other></destinationConnectors>"
+                + "<deployScript>a<b>b</b>c</deployScript><deployScript>second</deployScript></channel>");
+        assertEquivalent("<notAChannel a=\"1\"><bar>x</bar></notAChannel>");
+    }
+
+    @Test
+    public void testUnsupportedContentFallsBackToDom() throws Exception {
+        String xml = "<channel><description>text <b>mixed</b></description><x><![CDATA[a<b]]></x></channel>";
+
+        try {
+            StreamingChannelXmlDecomposer.decompose(xml, null);
+            fail("Expected mixed content to be rejected");
+        } catch (StreamingChannelXmlDecomposer.UnsupportedContentException e) {
+            // expected
+        }
+
+        assertEquals(ChannelXmlDecomposer.decomposeWithDom(xml, null).get("Channel Properties").getContent(),
+                ChannelXmlDecomposer.decompose(xml).get("Channel Properties").getContent());
+    }
+}